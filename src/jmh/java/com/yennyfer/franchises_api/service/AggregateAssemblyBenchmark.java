@@ -0,0 +1,76 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.model.BranchAggregate;
+import com.yennyfer.franchises_api.model.FranchiseAggregate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning joined detail rows into aggregates: the bare grouping in {@link DetailAggregates}, and the full
+ * Reactor chains behind the /details endpoints with the database replaced by an in-memory replay.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AggregateAssemblyBenchmark {
+
+    @Param({"10", "100"})
+    int franchises;
+
+    @Param({"20"})
+    int productsPerBranch;
+
+    private static final int BRANCHES_PER_FRANCHISE = 10;
+
+    private List<List<FranchiseDetailRow>> rowsByFranchise;
+    private FranchisesService franchisesService;
+    private BranchesService branchesService;
+
+    @Setup
+    public void setUp() {
+        List<FranchiseDetailRow> rows = DetailRowsFixture.rows(franchises, BRANCHES_PER_FRANCHISE, productsPerBranch);
+        rowsByFranchise = new ArrayList<>();
+        int groupSize = BRANCHES_PER_FRANCHISE * productsPerBranch;
+        for (int from = 0; from < rows.size(); from += groupSize) {
+            rowsByFranchise.add(rows.subList(from, from + groupSize));
+        }
+        franchisesService = DetailRowsFixture.franchisesService(rows);
+        branchesService = DetailRowsFixture.branchesService(rows);
+    }
+
+    @Benchmark
+    public List<FranchiseAggregate> groupRowsIntoFranchiseAggregates() {
+        List<FranchiseAggregate> aggregates = new ArrayList<>(rowsByFranchise.size());
+        for (List<FranchiseDetailRow> group : rowsByFranchise) {
+            aggregates.add(DetailAggregates.toFranchiseAggregate(group));
+        }
+        return aggregates;
+    }
+
+    @Benchmark
+    public List<FranchiseAggregate> franchiseDetailsPipeline() {
+        return franchisesService.getFranchisesWithDetails().collectList().block();
+    }
+
+    @Benchmark
+    public List<BranchAggregate> branchDetailsPipeline() {
+        return branchesService.getAllBranchesWithDetails().collectList().block();
+    }
+}
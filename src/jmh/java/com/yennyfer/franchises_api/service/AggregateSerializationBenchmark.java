@@ -0,0 +1,66 @@
+package com.yennyfer.franchises_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yennyfer.franchises_api.model.FranchiseAggregate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the /details payloads, both as one JSON array and as the per-element NDJSON encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AggregateSerializationBenchmark {
+
+    @Param({"10", "100"})
+    int franchises;
+
+    private List<FranchiseAggregate> aggregates;
+    private ObjectMapper objectMapper;
+    private ObjectWriter aggregateWriter;
+
+    @Setup
+    public void setUp() {
+        aggregates = DetailRowsFixture.franchisesService(DetailRowsFixture.rows(franchises, 10, 20))
+                .getFranchisesWithDetails()
+                .collectList()
+                .block();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        aggregateWriter = objectMapper.writerFor(FranchiseAggregate.class);
+    }
+
+    @Benchmark
+    public byte[] jsonArray() throws IOException {
+        return objectMapper.writeValueAsBytes(aggregates);
+    }
+
+    @Benchmark
+    public byte[] ndjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (FranchiseAggregate aggregate : aggregates) {
+            out.write(aggregateWriter.writeValueAsBytes(aggregate));
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+}
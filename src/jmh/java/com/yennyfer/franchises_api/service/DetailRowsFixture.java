@@ -0,0 +1,68 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.repository.BranchRepository;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Joined detail rows in the order the repositories return them, plus services wired to in-memory repository
+ * stand-ins that replay those rows.
+ */
+final class DetailRowsFixture {
+
+    private DetailRowsFixture() {
+    }
+
+    static List<FranchiseDetailRow> rows(int franchises, int branchesPerFranchise, int productsPerBranch) {
+        List<FranchiseDetailRow> rows = new ArrayList<>(franchises * branchesPerFranchise * productsPerBranch);
+        long branchId = 0;
+        long productId = 0;
+        for (long franchiseId = 1; franchiseId <= franchises; franchiseId++) {
+            for (int b = 0; b < branchesPerFranchise; b++) {
+                branchId++;
+                for (int p = 0; p < productsPerBranch; p++) {
+                    productId++;
+                    rows.add(new FranchiseDetailRow(franchiseId, "Franquicia " + franchiseId,
+                            branchId, "Sucursal " + branchId, "Calle " + branchId,
+                            productId, "Producto " + productId, "Descripcion del producto " + productId,
+                            (int) (productId % 1000), (int) productId));
+                }
+            }
+        }
+        return rows;
+    }
+
+    static FranchisesService franchisesService(List<FranchiseDetailRow> rows) {
+        FranchisesRepository repository = standIn(FranchisesRepository.class,
+                Map.of("findAllWithDetails", () -> Flux.fromIterable(rows)));
+        return new FranchisesService(repository, null, null, new BulkProperties(500), null);
+    }
+
+    static BranchesService branchesService(List<FranchiseDetailRow> rows) {
+        BranchRepository repository = standIn(BranchRepository.class,
+                Map.of("findAllBranchesWithDetails", () -> Flux.fromIterable(rows)));
+        return new BranchesService(repository, null, null, null, new BulkProperties(500), null, null);
+    }
+
+    /**
+     * Answers the named methods and fails on anything else, so a benchmark never silently measures an unexpected path.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> R standIn(Class<R> type, Map<String, Supplier<Object>> answers) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Supplier<Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return answer.get();
+        });
+    }
+}
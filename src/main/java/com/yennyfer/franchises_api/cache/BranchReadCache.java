@@ -0,0 +1,71 @@
+package com.yennyfer.franchises_api.cache;
+
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.repository.BranchRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+
+@Component
+public class BranchReadCache {
+
+    private final BranchRepository branchRepository;
+    private final ReactiveCache<Long, Branch> byId;
+    private final ReactiveCache<Long, List<Branch>> byFranchiseId;
+    private final ReactiveCache<PageKey, List<Branch>> pages;
+
+    public BranchReadCache(BranchRepository branchRepository, ReactiveCacheFactory cacheFactory) {
+        this.branchRepository = branchRepository;
+        this.byId = cacheFactory.create("branches.by-id");
+        this.byFranchiseId = cacheFactory.create("branches.by-franchise");
+        this.pages = cacheFactory.create("branches.pages");
+    }
+
+    public Mono<Branch> findById(Long branchId) {
+        return byId.get(branchId, branchRepository::findById);
+    }
+
+    public Flux<Branch> findByFranchiseId(Long franchiseId) {
+        return byFranchiseId.get(franchiseId, id -> branchRepository.findByFranchiseId(id).collectList())
+                .flatMapIterable(branches -> branches);
+    }
+
+    public Flux<Branch> findPageAfter(long afterId, int limit) {
+        return pages.get(new PageKey(afterId, limit),
+                        key -> branchRepository.findPageAfter(key.afterId(), key.limit()).collectList())
+                .flatMapIterable(rows -> rows);
+    }
+
+    public void evictCreated(Branch branch) {
+        byFranchiseId.invalidate(branch.getFranchiseId());
+        pages.invalidateIf((key, rows) -> rows.size() < key.limit());
+    }
+
+    /**
+     * Evicts a changed or deleted branch from every list that held it, plus the list of the franchise it belongs to
+     * now ({@code null} after a delete) in case it just moved there.
+     */
+    public void evict(Long branchId, Long currentFranchiseId) {
+        byId.invalidate(branchId);
+        byFranchiseId.invalidateIf((franchiseId, branches) -> franchiseId.equals(currentFranchiseId)
+                || containsBranch(branches, branchId));
+        pages.invalidateIf((key, rows) -> containsBranch(rows, branchId));
+    }
+
+    /**
+     * Evicts every cached branch of a franchise whose branches were removed by cascade.
+     */
+    public void evictFranchise(Long franchiseId) {
+        byFranchiseId.invalidate(franchiseId);
+        byId.invalidateIf((id, branch) -> Objects.equals(franchiseId, branch.getFranchiseId()));
+        pages.invalidateIf((key, rows) -> rows.stream()
+                .anyMatch(branch -> Objects.equals(franchiseId, branch.getFranchiseId())));
+    }
+
+    private static boolean containsBranch(List<Branch> branches, Long branchId) {
+        return branches.stream().anyMatch(branch -> branchId.equals(branch.getId()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.yennyfer.franchises_api.cache;
+
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+public class FranchiseReadCache {
+
+    private final FranchisesRepository franchisesRepository;
+    private final ReactiveCache<Long, Franchise> byId;
+    private final ReactiveCache<PageKey, List<Franchise>> pages;
+
+    public FranchiseReadCache(FranchisesRepository franchisesRepository, ReactiveCacheFactory cacheFactory) {
+        this.franchisesRepository = franchisesRepository;
+        this.byId = cacheFactory.create("franchises.by-id");
+        this.pages = cacheFactory.create("franchises.pages");
+    }
+
+    public Mono<Franchise> findById(Long franchiseId) {
+        return byId.get(franchiseId, franchisesRepository::findById);
+    }
+
+    public Flux<Franchise> findPageAfter(long afterId, int limit) {
+        return pages.get(new PageKey(afterId, limit),
+                        key -> franchisesRepository.findPageAfter(key.afterId(), key.limit()).collectList())
+                .flatMapIterable(rows -> rows);
+    }
+
+    /**
+     * New ids are always greater than existing ones, so only the tail page of each page size can change.
+     */
+    public void evictCreated() {
+        pages.invalidateIf((key, rows) -> rows.size() < key.limit());
+    }
+
+    public void evict(Long franchiseId) {
+        byId.invalidate(franchiseId);
+        pages.invalidateIf((key, rows) -> rows.stream().anyMatch(franchise -> franchiseId.equals(franchise.getId())));
+    }
+}
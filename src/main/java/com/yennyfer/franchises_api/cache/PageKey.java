@@ -0,0 +1,6 @@
+package com.yennyfer.franchises_api.cache;
+
+public record PageKey(
+        long afterId,
+        int limit
+) {}
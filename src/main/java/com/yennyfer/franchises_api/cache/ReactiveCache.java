@@ -0,0 +1,73 @@
+package com.yennyfer.franchises_api.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.yennyfer.franchises_api.config.ReadRoute;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Reactor view over a Caffeine {@link AsyncCache}. Concurrent misses on the same key share one load, and empty
+ * results are not cached.
+ */
+public class ReactiveCache<K, V> {
+
+    private final AsyncCache<K, V> cache;
+
+    public ReactiveCache(AsyncCache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Loads always read the primary: a value shared by every client must not lag behind a write that evicted it.
+     * <p>
+     * Inside a transaction a miss is read through the transaction's own connection and not cached: a shared load would
+     * take a second pooled connection while the transaction holds its row locks, and could cache uncommitted rows.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return inTransaction().flatMap(transactional -> {
+            if (!transactional) {
+                return Mono.fromFuture(() -> cache.get(key, (k, executor) -> loader.apply(k)
+                        .contextWrite(ReadRoute::pinPrimary)
+                        .toFuture()), true);
+            }
+            CompletableFuture<V> cached = cache.getIfPresent(key);
+            return cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                    ? Mono.justOrEmpty(cached.getNow(null))
+                    : loader.apply(key);
+        });
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    /**
+     * Drops every entry whose value matches, plus any load still in flight since it may predate the write.
+     */
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        cache.asMap().forEach((key, future) -> {
+            if (!future.isDone() || matches(key, future, predicate)) {
+                cache.asMap().remove(key, future);
+            }
+        });
+    }
+
+    private static Mono<Boolean> inTransaction() {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(TransactionSynchronizationManager::isActualTransactionActive)
+                .onErrorReturn(NoTransactionException.class, false);
+    }
+
+    private boolean matches(K key, CompletableFuture<V> future, BiPredicate<K, V> predicate) {
+        if (future.isCompletedExceptionally()) {
+            return true;
+        }
+        V value = future.getNow(null);
+        return value == null || predicate.test(key, value);
+    }
+}
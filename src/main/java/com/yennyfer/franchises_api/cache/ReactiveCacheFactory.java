@@ -0,0 +1,27 @@
+package com.yennyfer.franchises_api.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yennyfer.franchises_api.config.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class ReactiveCacheFactory {
+
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
+    public <K, V> ReactiveCache<K, V> create(String name) {
+        AsyncCache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.maximumSize())
+                .expireAfterWrite(cacheProperties.timeToLive())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return new ReactiveCache<>(cache);
+    }
+}
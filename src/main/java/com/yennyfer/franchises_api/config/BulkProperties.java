@@ -0,0 +1,9 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties("franchises.bulk")
+public record BulkProperties(
+        @DefaultValue("500") int batchSize
+) {}
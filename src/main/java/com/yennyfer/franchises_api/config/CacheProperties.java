@@ -0,0 +1,12 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties("franchises.cache")
+public record CacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration timeToLive
+) {}
@@ -0,0 +1,96 @@
+package com.yennyfer.franchises_api.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces Boot's pool so sizing, timeouts and the pending-acquire bound are set explicitly. Acquires beyond
+ * the pending bound fail immediately instead of queueing behind a burst. When replicas are configured each gets a
+ * pool of the same shape behind a {@link ReplicaRoutingConnectionFactory}.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class DatabasePoolConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties, ReplicaProperties replicaProperties,
+                                               PoolProperties poolProperties) {
+        ConnectionPool primary = createPool("franchises", r2dbcProperties.getUrl(), r2dbcProperties.getUsername(),
+                r2dbcProperties.getPassword(), poolProperties);
+        if (replicaProperties.urls().isEmpty()) {
+            return primary;
+        }
+        String username = replicaProperties.username() != null
+                ? replicaProperties.username() : r2dbcProperties.getUsername();
+        String password = replicaProperties.password() != null
+                ? replicaProperties.password() : r2dbcProperties.getPassword();
+        List<String> urls = replicaProperties.urls();
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.add(createPool("franchises-replica-" + i, urls.get(i), username, password, poolProperties));
+        }
+        return new ReplicaRoutingConnectionFactory(primary, replicas);
+    }
+
+    /**
+     * Boot only binds the pool it can unwrap from the connection factory bean, which is the primary.
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ConnectionFactory connectionFactory) {
+        return registry -> {
+            if (connectionFactory instanceof ReplicaRoutingConnectionFactory routing) {
+                routing.getReplicas().forEach((name, pool) ->
+                        new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry));
+            }
+        };
+    }
+
+    private static ConnectionPool createPool(String name, String url, String username, String password,
+                                             PoolProperties poolProperties) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        int maxPendingAcquire = poolProperties.resolvedMaxPendingAcquire();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(name)
+                .initialSize(poolProperties.resolvedInitialSize())
+                .maxSize(poolProperties.resolvedMaxSize())
+                .maxAcquireTime(poolProperties.acquireTimeout())
+                .maxCreateConnectionTime(poolProperties.createTimeout())
+                .maxIdleTime(poolProperties.maxIdleTime())
+                .maxLifeTime(poolProperties.maxLifeTime())
+                .validationQuery(poolProperties.validationQuery())
+                .validationDepth(ValidationDepth.REMOTE)
+                .customizer(builder -> builder.maxPendingAcquire(maxPendingAcquire))
+                .build());
+        if (poolProperties.warmup()) {
+            warmup(name, pool, poolProperties);
+        }
+        return pool;
+    }
+
+    private static void warmup(String name, ConnectionPool pool, PoolProperties poolProperties) {
+        Integer warmed = pool.warmup()
+                .onErrorResume(e -> {
+                    log.warn("No se pudo precalentar el pool de conexiones {}: {}", name, e.getMessage());
+                    return Mono.empty();
+                })
+                .block(poolProperties.createTimeout().multipliedBy(2));
+        log.info("Pool de conexiones {} listo con {} conexiones precalentadas", name, warmed != null ? warmed : 0);
+    }
+}
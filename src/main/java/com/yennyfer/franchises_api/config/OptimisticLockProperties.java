@@ -0,0 +1,16 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Retries of a save that lost an optimistic-lock race, before the request fails with 409.
+ */
+@ConfigurationProperties("franchises.optimistic-lock")
+public record OptimisticLockProperties(
+        @DefaultValue("3") int maxRetries,
+        @DefaultValue("10ms") Duration minBackoff,
+        @DefaultValue("200ms") Duration maxBackoff
+) {}
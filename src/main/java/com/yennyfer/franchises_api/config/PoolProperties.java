@@ -0,0 +1,36 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Unset sizes are derived from the CPU count: the pool holds two connections per core and queues at most
+ * four acquires per connection before rejecting new ones.
+ */
+@ConfigurationProperties("franchises.pool")
+public record PoolProperties(
+        Integer initialSize,
+        Integer maxSize,
+        Integer maxPendingAcquire,
+        @DefaultValue("5s") Duration acquireTimeout,
+        @DefaultValue("5s") Duration createTimeout,
+        @DefaultValue("10m") Duration maxIdleTime,
+        @DefaultValue("30m") Duration maxLifeTime,
+        @DefaultValue("SELECT 1") String validationQuery,
+        @DefaultValue("true") boolean warmup
+) {
+
+    public int resolvedMaxSize() {
+        return maxSize != null ? maxSize : Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public int resolvedInitialSize() {
+        return Math.min(initialSize != null ? initialSize : Math.max(1, resolvedMaxSize() / 2), resolvedMaxSize());
+    }
+
+    public int resolvedMaxPendingAcquire() {
+        return maxPendingAcquire != null ? maxPendingAcquire : resolvedMaxSize() * 4;
+    }
+}
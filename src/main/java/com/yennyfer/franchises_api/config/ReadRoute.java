@@ -0,0 +1,46 @@
+package com.yennyfer.franchises_api.config;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reactor context entry read by {@link ReplicaRoutingConnectionFactory}. Without one, connections come from the
+ * primary.
+ */
+public enum ReadRoute {
+    PRIMARY,
+    REPLICA;
+
+    private static final String CONTEXT_KEY = ReadRoute.class.getName();
+    private static final String AFFINITY_KEY = ReadRoute.class.getName() + ".affinity";
+
+    public static Context pinPrimary(Context context) {
+        return context.put(CONTEXT_KEY, PRIMARY);
+    }
+
+    /**
+     * Keeps an explicit choice made further up the chain, such as a read-your-writes pin.
+     */
+    public static Context preferReplica(Context context) {
+        return context.hasKey(CONTEXT_KEY) ? context : context.put(CONTEXT_KEY, REPLICA);
+    }
+
+    /**
+     * Sends every replica read under this context to the same replica, so an entity tag and the body it describes
+     * come from the same copy of the data.
+     */
+    public static Context withReplicaAffinity(Context context) {
+        return context.put(AFFINITY_KEY, ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+    }
+
+    static Optional<Integer> affinity(ContextView context) {
+        return context.getOrEmpty(AFFINITY_KEY);
+    }
+
+    static ReadRoute of(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, PRIMARY);
+    }
+}
@@ -0,0 +1,55 @@
+package com.yennyfer.franchises_api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pins a client's reads to the primary for a short window after it writes, so it does not read around its own
+ * change while the replicas catch up. Clients are told apart by the configured header only, since a remote address
+ * may be shared by many clients behind a proxy; a client that does not send it is never pinned and may read a replica
+ * that lags its own write. Other reads keep to one replica for the whole request.
+ */
+public class ReadYourWritesFilter implements WebFilter {
+
+    private final boolean enabled;
+    private final String clientHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(ReplicaProperties replicaProperties) {
+        this.enabled = !replicaProperties.urls().isEmpty();
+        this.clientHeader = replicaProperties.clientHeader();
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(replicaProperties.readYourWritesWindow())
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String client = clientKey(request);
+        if (HttpMethod.GET.equals(request.getMethod()) || HttpMethod.HEAD.equals(request.getMethod())) {
+            boolean recentWriter = client != null && recentWriters.getIfPresent(client) != null;
+            return chain.filter(exchange)
+                    .contextWrite(recentWriter ? ReadRoute::pinPrimary : ReadRoute::withReplicaAffinity);
+        }
+        if (client == null) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).doFinally(signal -> recentWriters.put(client, Boolean.TRUE));
+    }
+
+    private String clientKey(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(clientHeader);
+        return header != null && !header.isBlank() ? header : null;
+    }
+}
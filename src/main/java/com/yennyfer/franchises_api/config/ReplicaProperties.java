@@ -0,0 +1,19 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replicas reuse the primary credentials unless their own are set. With no urls every query goes to the primary.
+ */
+@ConfigurationProperties("franchises.replica")
+public record ReplicaProperties(
+        @DefaultValue List<String> urls,
+        String username,
+        String password,
+        @DefaultValue("2s") Duration readYourWritesWindow,
+        @DefaultValue("X-Client-Id") String clientHeader
+) {}
@@ -0,0 +1,29 @@
+package com.yennyfer.franchises_api.config;
+
+import com.yennyfer.franchises_api.repository.ReplicaRead;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes repository methods annotated with {@link ReplicaRead} to a replica.
+ */
+public class ReplicaReadInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (!AnnotatedElementUtils.hasAnnotation(invocation.getMethod(), ReplicaRead.class)) {
+            return result;
+        }
+        if (result instanceof Mono<?> mono) {
+            return mono.contextWrite(ReadRoute::preferReplica);
+        }
+        if (result instanceof Flux<?> flux) {
+            return flux.contextWrite(ReadRoute::preferReplica);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.yennyfer.franchises_api.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes subscribers whose context carries {@link ReadRoute#REPLICA} to a replica and everyone else to the primary.
+ * Replicas are picked round robin unless the context carries an affinity. A transaction binds its connection up front, so reads inside one stay on
+ * the primary regardless of the route.
+ */
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory
+        implements Wrapped<ConnectionFactory> {
+
+    private final ConnectionPool primary;
+    private final Map<String, ConnectionPool> replicas;
+    private final String[] replicaNames;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingConnectionFactory(ConnectionPool primary, List<ConnectionPool> replicas) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+        this.replicaNames = this.replicas.keySet().toArray(String[]::new);
+        setDefaultTargetConnectionFactory(primary);
+        setTargetConnectionFactories(Map.copyOf(this.replicas));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> {
+            if (ReadRoute.of(context) != ReadRoute.REPLICA) {
+                return Mono.empty();
+            }
+            int index = ReadRoute.affinity(context).orElseGet(next::getAndIncrement);
+            return Mono.just(replicaNames[Math.floorMod(index, replicaNames.length)]);
+        });
+    }
+
+    public Map<String, ConnectionPool> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    public void dispose() {
+        replicas.values().forEach(ConnectionPool::dispose);
+        primary.dispose();
+    }
+}
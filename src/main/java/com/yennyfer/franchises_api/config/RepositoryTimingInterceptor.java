@@ -0,0 +1,63 @@
+package com.yennyfer.franchises_api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times repository calls from subscription to completion, error or cancellation. Timing the method call itself would
+ * only measure how long it takes to assemble the reactive pipeline.
+ */
+public class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    public static final String METRIC_NAME = "franchises.repository.invocations";
+
+    private final String repository;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryTimingInterceptor(String repository, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String method = invocation.getMethod().getName();
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                return mono.doFinally(signal -> stop(sample, method, signal));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry.getObject());
+                return flux.doFinally(signal -> stop(sample, method, signal));
+            });
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String method, SignalType signal) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Repository calls, from subscription to termination")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome(signal))
+                .register(meterRegistry.getObject()));
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+    }
+}
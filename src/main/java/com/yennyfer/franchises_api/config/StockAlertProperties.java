@@ -0,0 +1,19 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * A product in low stock is only reported as recovered once it reaches its threshold plus {@code rearmMargin}, so
+ * stock hovering around the threshold does not raise an alert on every write. Alerts wait in a queue of
+ * {@code queueCapacity} for the sinks; {@code webhookUrl}, when set, adds a sink that POSTs each alert there.
+ */
+@ConfigurationProperties("franchises.stock-alerts")
+public record StockAlertProperties(
+        @DefaultValue("1024") int queueCapacity,
+        @DefaultValue("5") int rearmMargin,
+        @DefaultValue("5s") Duration sinkTimeout,
+        String webhookUrl
+) {}
@@ -0,0 +1,20 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Every {@code compactionInterval}, movements older than {@code compactionLag} are folded into the stock snapshots.
+ * Compaction also stays {@code compactionLag} behind the oldest open transaction, so a long stock write is folded once
+ * it commits instead of being skipped.
+ * With {@code managePartitions}, the same job creates the partitions for the next {@code monthsAhead} months.
+ */
+@ConfigurationProperties("franchises.stock-ledger")
+public record StockLedgerProperties(
+        @DefaultValue("5m") Duration compactionInterval,
+        @DefaultValue("1m") Duration compactionLag,
+        @DefaultValue("true") boolean managePartitions,
+        @DefaultValue("2") int monthsAhead
+) {}
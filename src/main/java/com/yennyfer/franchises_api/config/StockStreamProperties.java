@@ -0,0 +1,22 @@
+package com.yennyfer.franchises_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * {@code postgresNotify} switches publishing to Postgres NOTIFY so every instance listening on {@code channel} streams the
+ * event; otherwise events only reach subscribers of the instance that made the write.
+ */
+@ConfigurationProperties("franchises.stock-stream")
+public record StockStreamProperties(
+        @DefaultValue("256") int bufferSize,
+        @DefaultValue("false") boolean postgresNotify,
+        @DefaultValue("stock_events") String channel
+) {
+
+    public StockStreamProperties {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Canal de notificaciones inválido: " + channel);
+        }
+    }
+}
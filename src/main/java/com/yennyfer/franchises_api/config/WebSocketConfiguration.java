@@ -0,0 +1,26 @@
+package com.yennyfer.franchises_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yennyfer.franchises_api.controller.MaxStockLeaderboardHandler;
+import com.yennyfer.franchises_api.events.MaxStockLeaderboard;
+import com.yennyfer.franchises_api.service.FranchisesService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+import java.util.Map;
+
+@Configuration
+public class WebSocketConfiguration {
+
+    /**
+     * Ordered ahead of the annotated controllers so the upgrade request reaches the handler.
+     */
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(MaxStockLeaderboard leaderboard, FranchisesService franchisesService,
+                                                  ObjectMapper objectMapper) {
+        return new SimpleUrlHandlerMapping(Map.of(MaxStockLeaderboardHandler.PATH,
+                new MaxStockLeaderboardHandler(leaderboard, franchisesService, objectMapper)), -1);
+    }
+}
@@ -1,36 +1,68 @@
 package com.yennyfer.franchises_api.controller;
 
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.PageResponse;
 import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
 import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.BranchAggregate;
+import com.yennyfer.franchises_api.model.StockMovement;
 import com.yennyfer.franchises_api.service.BranchesService;
+import com.yennyfer.franchises_api.service.StockLedgerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.OffsetDateTime;
+
 @RestController
 @RequestMapping("api/branches")
 @RequiredArgsConstructor
 public class BranchesController {
     private final BranchesService branchesService;
+    private final StockLedgerService stockLedgerService;
 
     @PostMapping
     public Mono<Branch> create(@RequestBody Branch branch){
         return branchesService.createBranch(branch);
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BulkCreateResult> createAll(@RequestBody Flux<Branch> branches) {
+        return branchesService.createBranches(branches);
+    }
+
+    @GetMapping("{branchId}/stock/movements")
+    public Flux<StockMovement> getMovements(
+            @PathVariable Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return stockLedgerService.getBranchMovements(branchId, from, to);
+    }
+
     @GetMapping
-    public Flux<Branch> getAll(){
-        return branchesService.getAllBranches();
+    public Mono<PageResponse<Branch>> getAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        return branchesService.getAllBranches(limit, after);
     }
 
-    @GetMapping("/details")
+    @GetMapping(value = "/details", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
     public Flux<BranchAggregate> getAllWithDetails() {
         return branchesService.getAllBranchesWithDetails();
     }
 
+    @GetMapping("/{branchId}")
+    public Mono<Branch> getBranch(
+            @PathVariable Long branchId) {
+        return branchesService.getBranch(branchId);
+    }
+
     @DeleteMapping("{branchId}")
     public Mono<Void> deleteBranch(
             @PathVariable Long branchId) {
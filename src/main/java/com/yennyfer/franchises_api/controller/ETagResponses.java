@@ -0,0 +1,24 @@
+package com.yennyfer.franchises_api.controller;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * WebFlux answers a matching If-None-Match with 304 from the entity tag alone, before the body publisher is
+ * subscribed, so an unchanged resource costs one revision lookup instead of the full query.
+ */
+final class ETagResponses {
+
+    private ETagResponses() {
+    }
+
+    /**
+     * Falls back to an untagged response when there is no tag, leaving not-found handling to the body.
+     */
+    static <T> Mono<ResponseEntity<T>> withETag(Mono<String> eTag, Supplier<T> body) {
+        return eTag.map(tag -> ResponseEntity.ok().eTag(tag).body(body.get()))
+                .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.ok().body(body.get())));
+    }
+}
@@ -1,43 +1,108 @@
 package com.yennyfer.franchises_api.controller;
 
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.PageResponse;
 import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.StockEvent;
 import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
+import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.Franchise;
 import com.yennyfer.franchises_api.model.FranchiseAggregate;
+import com.yennyfer.franchises_api.service.BranchesService;
 import com.yennyfer.franchises_api.service.FranchisesService;
 import com.yennyfer.franchises_api.service.ProductsService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 @RestController
 @RequestMapping("api/franchises")
 @RequiredArgsConstructor
 public class FranchisesController {
+    private static final Duration STREAM_HEARTBEAT = Duration.ofSeconds(15);
+
     private final FranchisesService franchisesService;
     private final ProductsService productService;
+    private final BranchesService branchesService;
 
     @PostMapping
     public Mono<Franchise> create(@RequestBody Franchise franchise){
         return franchisesService.createFranchise(franchise);
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BulkCreateResult> createAll(@RequestBody Flux<Franchise> franchises) {
+        return franchisesService.createFranchises(franchises);
+    }
+
     @GetMapping
-    public Flux<Franchise> getAll(){
-        return franchisesService.getAllFranchises();
+    public Mono<ResponseEntity<Mono<PageResponse<Franchise>>>> getAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        return ETagResponses.withETag(franchisesService.getFranchisesETag(),
+                () -> franchisesService.getAllFranchises(limit, after));
     }
 
-    @GetMapping("/details")
-    public Flux<FranchiseAggregate> getAllWithDetails() {
-        return franchisesService.getFranchisesWithDetails();
+    @GetMapping(value = "/details", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Flux<FranchiseAggregate>>> getAllWithDetails() {
+        return ETagResponses.withETag(franchisesService.getFranchisesETag(),
+                franchisesService::getFranchisesWithDetails);
     }
 
-    @DeleteMapping("{franchiseId}")
-    public Mono<Void> deleteFranchise(
+    /**
+     * NDJSON clients get one line per branch instead of per franchise, so no franchise is buffered whole.
+     */
+    @GetMapping(value = "/details", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<FranchiseAggregate>>> streamAllWithDetails() {
+        return ETagResponses.withETag(franchisesService.getFranchisesETag(),
+                franchisesService::streamFranchisesWithDetails);
+    }
+
+    @GetMapping("/{franchiseId}")
+    public Mono<ResponseEntity<Mono<Franchise>>> getFranchise(
+            @PathVariable Long franchiseId) {
+        return ETagResponses.withETag(franchisesService.getFranchiseETag(franchiseId),
+                () -> franchisesService.getFranchise(franchiseId));
+    }
+
+    @GetMapping("/{franchiseId}/details")
+    public Mono<ResponseEntity<Mono<FranchiseAggregate>>> getFranchiseWithDetails(
             @PathVariable Long franchiseId) {
-        return franchisesService.deleteFranchise(franchiseId);
+        return ETagResponses.withETag(franchisesService.getFranchiseETag(franchiseId),
+                () -> franchisesService.getFranchiseWithDetails(franchiseId));
+    }
+
+    @GetMapping("/{franchiseId}/branches")
+    public Mono<ResponseEntity<Flux<Branch>>> getBranches(
+            @PathVariable Long franchiseId) {
+        return ETagResponses.withETag(franchisesService.getFranchiseETag(franchiseId),
+                () -> branchesService.getBranchesByFranchise(franchiseId));
+    }
+
+    /**
+     * {@code chunked=true} purges the franchise in bounded batches instead of one cascading delete and answers once it
+     * is gone.
+     */
+    @DeleteMapping("{franchiseId}")
+    public Mono<ResponseEntity<Void>> deleteFranchise(
+            @PathVariable Long franchiseId,
+            @RequestParam(defaultValue = "false") boolean chunked) {
+        if (chunked) {
+            return franchisesService.purgeFranchise(franchiseId)
+                    .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+        }
+        return franchisesService.deleteFranchise(franchiseId)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
     }
 
     @PatchMapping("{franchiseId}")
@@ -47,9 +112,44 @@ public class FranchisesController {
         return franchisesService.updateFranchise(franchiseId, request);
     }
 
+    /**
+     * Streams the franchise's product writes as they commit. A comment line on connect and every
+     * {@link #STREAM_HEARTBEAT} flushes the headers and keeps idle connections open through proxies.
+     */
+    @GetMapping(value = "/{franchiseId}/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StockEvent>> streamStock(
+            @PathVariable Long franchiseId) {
+        Flux<ServerSentEvent<StockEvent>> events = productService.streamStockChanges(franchiseId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(String.valueOf(event.sequence()))
+                        .event(event.type().name().toLowerCase())
+                        .build());
+        Flux<ServerSentEvent<StockEvent>> heartbeats = Flux.interval(Duration.ZERO, STREAM_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<StockEvent>builder().comment("keep-alive").build());
+        return franchisesService.getFranchise(franchiseId)
+                .thenMany(Flux.merge(events, heartbeats));
+    }
+
+    /**
+     * Streams the franchise's low-stock alerts as they are raised, with the same heartbeat as {@link #streamStock}.
+     */
+    @GetMapping(value = "/{franchiseId}/stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StockAlert>> streamStockAlerts(
+            @PathVariable Long franchiseId) {
+        Flux<ServerSentEvent<StockAlert>> alerts = productService.streamStockAlerts(franchiseId)
+                .map(alert -> ServerSentEvent.builder(alert)
+                        .event(alert.type().name().toLowerCase())
+                        .build());
+        Flux<ServerSentEvent<StockAlert>> heartbeats = Flux.interval(Duration.ZERO, STREAM_HEARTBEAT)
+                .map(tick -> ServerSentEvent.<StockAlert>builder().comment("keep-alive").build());
+        return franchisesService.getFranchise(franchiseId)
+                .thenMany(Flux.merge(alerts, heartbeats));
+    }
+
     @GetMapping("/{franchiseId}/products/max-stock")
-    public Flux<ProductMaxStockResponse> getProductsWithMaxStockPerFranchise(
+    public Mono<ResponseEntity<Flux<ProductMaxStockResponse>>> getProductsWithMaxStockPerFranchise(
             @PathVariable Long franchiseId) {
-        return productService.getProductsWithMaxStockPerFranchise(franchiseId);
+        return ETagResponses.withETag(franchisesService.getFranchiseETag(franchiseId),
+                () -> productService.getProductsWithMaxStockPerFranchise(franchiseId));
     }
 }
@@ -0,0 +1,68 @@
+package com.yennyfer.franchises_api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yennyfer.franchises_api.dto.MaxStockLeaderboardMessage;
+import com.yennyfer.franchises_api.events.MaxStockLeaderboard;
+import com.yennyfer.franchises_api.service.FranchisesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pushes {@link MaxStockLeaderboard} messages of one franchise as JSON text frames. Unknown franchises and clients
+ * that fall behind are closed with a status they can act on.
+ */
+@RequiredArgsConstructor
+public class MaxStockLeaderboardHandler implements WebSocketHandler {
+
+    public static final String PATH = "/ws/franchises/{franchiseId}/max-stock";
+
+    private static final UriTemplate PATH_TEMPLATE = new UriTemplate(PATH);
+
+    private final MaxStockLeaderboard leaderboard;
+    private final FranchisesService franchisesService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        Long franchiseId = franchiseId(session);
+        if (franchiseId == null) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Identificador de franquicia inválido"));
+        }
+        Flux<WebSocketMessage> messages = franchisesService.getFranchise(franchiseId)
+                .thenMany(leaderboard.subscribe(franchiseId))
+                .map(message -> session.textMessage(toJson(message)));
+        return Mono.firstWithSignal(session.send(messages), session.receive().then())
+                .onErrorResume(ResponseStatusException.class,
+                        e -> session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getReason())))
+                .onErrorResume(IllegalStateException.class,
+                        e -> session.close(CloseStatus.SERVICE_OVERLOAD.withReason(e.getMessage())));
+    }
+
+    private static Long franchiseId(WebSocketSession session) {
+        String path = session.getHandshakeInfo().getUri().getPath();
+        if (!PATH_TEMPLATE.matches(path)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(PATH_TEMPLATE.match(path).get("franchiseId"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String toJson(MaxStockLeaderboardMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar el ranking de stock", e);
+        }
+    }
+}
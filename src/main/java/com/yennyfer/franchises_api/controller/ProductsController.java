@@ -1,29 +1,88 @@
 package com.yennyfer.franchises_api.controller;
 
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.ProductFilter;
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import com.yennyfer.franchises_api.dto.StockReconciliation;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
 import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.dto.UpdateProductStockDeltaRequest;
 import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockMovement;
 import com.yennyfer.franchises_api.service.ProductsService;
+import com.yennyfer.franchises_api.service.StockLedgerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.OffsetDateTime;
+
 @RestController
 @RequestMapping("api/products")
 @RequiredArgsConstructor
 public class ProductsController {
     private final ProductsService productsService;
+    private final StockLedgerService stockLedgerService;
 
     @PostMapping
     public Mono<Product> create(@RequestBody Product product){
         return productsService.createProduct(product);
     }
 
+    @PostMapping(value = "/bulk",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BulkCreateResult> createAll(@RequestBody Flux<Product> products) {
+        return productsService.createProducts(products);
+    }
+
+    /**
+     * Without {@code fields} every property is returned; with it, only the listed ones plus {@code id}.
+     */
     @GetMapping
-    public Flux<Product> getAll(){
-        return productsService.getAllProducts();
+    public Mono<? extends PageResponse<?>> getAll(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Long branchId,
+            @RequestParam(required = false) Long franchiseId,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) Integer maxStock,
+            @RequestParam(required = false) Integer sku,
+            @RequestParam(required = false) String fields) {
+        ProductFilter filter = new ProductFilter(branchId, franchiseId, minStock, maxStock, sku);
+        return fields == null
+                ? productsService.getAllProducts(filter, limit, after)
+                : productsService.getProductFields(filter, fields, limit, after);
+    }
+
+    @GetMapping("/search")
+    public Mono<PageResponse<ProductSearchResult>> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Long franchiseId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after) {
+        return productsService.searchProducts(q, franchiseId, limit, after);
+    }
+
+    @GetMapping("{productId}/stock/movements")
+    public Flux<StockMovement> getMovements(
+            @PathVariable Long productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to) {
+        return stockLedgerService.getProductMovements(productId, from, to);
+    }
+
+    @GetMapping("{productId}/stock/reconciliation")
+    public Mono<StockReconciliation> reconcileStock(
+            @PathVariable Long productId) {
+        return stockLedgerService.reconcile(productId);
     }
 
     @DeleteMapping("{productId}")
@@ -48,4 +107,19 @@ public class ProductsController {
         return productsService.updateProductStock(productId, request);
     }
 
+    @PatchMapping(value = "/stock",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<StockUpdateResult> updateProductStocks(@RequestBody Flux<StockUpdateItem> items) {
+        return productsService.updateProductStocks(items);
+    }
+
+    @PatchMapping("{productId}/stock/delta")
+    public Mono<Product> adjustProductStock(
+            @PathVariable Long productId,
+            @Valid @RequestBody UpdateProductStockDeltaRequest request
+    ) {
+        return productsService.adjustProductStock(productId, request);
+    }
+
 }
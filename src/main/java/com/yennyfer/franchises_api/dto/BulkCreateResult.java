@@ -0,0 +1,13 @@
+package com.yennyfer.franchises_api.dto;
+
+public record BulkCreateResult(
+        String name,
+        Long id,
+        Status status
+) {
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+}
@@ -0,0 +1,48 @@
+package com.yennyfer.franchises_api.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Reads an {@link Optional} field of a partial update so that a property left out of the JSON stays {@code null},
+ * meaning unchanged, while an explicit {@code null} becomes {@link Optional#empty()}, meaning cleared.
+ */
+public class ClearableDeserializer extends JsonDeserializer<Optional<?>> implements ContextualDeserializer {
+
+    private final JavaType valueType;
+
+    public ClearableDeserializer() {
+        this(null);
+    }
+
+    private ClearableDeserializer(JavaType valueType) {
+        this.valueType = valueType;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property) {
+        return new ClearableDeserializer(property.getType().containedType(0));
+    }
+
+    @Override
+    public Optional<?> deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+        return Optional.of(ctxt.readValue(parser, valueType));
+    }
+
+    @Override
+    public Optional<?> getNullValue(DeserializationContext ctxt) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Object getAbsentValue(DeserializationContext ctxt) {
+        return null;
+    }
+}
@@ -0,0 +1,14 @@
+package com.yennyfer.franchises_api.dto;
+
+public record FranchiseDetailRow(
+        Long franchiseId,
+        String franchiseName,
+        Long branchId,
+        String branchName,
+        String branchAddress,
+        Long productId,
+        String productName,
+        String productDescription,
+        Integer productStock,
+        Integer productSku
+) {}
@@ -0,0 +1,29 @@
+package com.yennyfer.franchises_api.dto;
+
+import java.util.List;
+
+/**
+ * Sent to leaderboard subscribers. A snapshot lists the leaders of every branch of the franchise; a change replaces
+ * the leaders of one branch, and an empty list means the branch has no products left.
+ */
+public record MaxStockLeaderboardMessage(
+        Type type,
+        Long franchiseId,
+        Long branchId,
+        List<ProductMaxStockResponse> leaders
+) {
+
+    public enum Type {
+        SNAPSHOT,
+        LEADER_CHANGED
+    }
+
+    public static MaxStockLeaderboardMessage snapshot(Long franchiseId, List<ProductMaxStockResponse> leaders) {
+        return new MaxStockLeaderboardMessage(Type.SNAPSHOT, franchiseId, null, leaders);
+    }
+
+    public static MaxStockLeaderboardMessage leaderChanged(Long franchiseId, Long branchId,
+                                                           List<ProductMaxStockResponse> leaders) {
+        return new MaxStockLeaderboardMessage(Type.LEADER_CHANGED, franchiseId, branchId, leaders);
+    }
+}
@@ -0,0 +1,8 @@
+package com.yennyfer.franchises_api.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(
+        List<T> items,
+        String nextCursor
+) {}
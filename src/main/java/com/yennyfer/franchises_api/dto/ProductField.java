@@ -0,0 +1,41 @@
+package com.yennyfer.franchises_api.dto;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Product properties that can be requested through {@code fields=}, with the column each one reads.
+ */
+public enum ProductField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    DESCRIPTION("description", "description"),
+    STOCK("stock", "stock"),
+    SKU("sku", "sku"),
+    BRANCH_ID("branchId", "branch_id"),
+    VERSION("version", "version"),
+    REORDER_THRESHOLD("reorderThreshold", "reorder_threshold"),
+    LOW_STOCK("lowStock", "low_stock");
+
+    private final String property;
+    private final String column;
+
+    ProductField(String property, String column) {
+        this.property = property;
+        this.column = column;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    public static Optional<ProductField> fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst();
+    }
+}
@@ -0,0 +1,19 @@
+package com.yennyfer.franchises_api.dto;
+
+/**
+ * Optional filters for the product listing; {@code null} means the filter is not applied.
+ */
+public record ProductFilter(
+        Long branchId,
+        Long franchiseId,
+        Integer minStock,
+        Integer maxStock,
+        Integer sku
+) {
+
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return branchId == null && franchiseId == null && minStock == null && maxStock == null && sku == null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.yennyfer.franchises_api.dto;
+
+public record ProductSearchResult(
+        Long id,
+        String name,
+        String description,
+        Integer stock,
+        Integer sku,
+        Long branchId,
+        Double rank
+) {}
@@ -0,0 +1,7 @@
+package com.yennyfer.franchises_api.dto;
+
+public record RevisionSummary(
+        Long franchises,
+        Long lastId,
+        Long revisions
+) {}
@@ -0,0 +1,30 @@
+package com.yennyfer.franchises_api.dto;
+
+import com.yennyfer.franchises_api.model.Product;
+
+import java.time.Instant;
+
+/**
+ * Raised when a stock update takes a product below its reorder threshold, and again when it recovers.
+ */
+public record StockAlert(
+        Type type,
+        Long franchiseId,
+        Long branchId,
+        Long productId,
+        String productName,
+        Integer stock,
+        Integer threshold,
+        Instant raisedAt
+) {
+
+    public enum Type {
+        LOW_STOCK,
+        RECOVERED
+    }
+
+    public static StockAlert of(Type type, Long franchiseId, Product product, Integer threshold) {
+        return new StockAlert(type, franchiseId, product.getBranchId(), product.getId(), product.getName(),
+                product.getStock(), threshold, Instant.now());
+    }
+}
@@ -0,0 +1,49 @@
+package com.yennyfer.franchises_api.dto;
+
+import com.yennyfer.franchises_api.model.Product;
+
+/**
+ * A product write as seen by stock stream subscribers. {@code sequence} counts the franchise's events on this instance
+ * and is assigned when the event is emitted, so a subscriber of the franchise that sees a gap knows it was dropped for
+ * being too slow. Deletes carry no stock.
+ * <p>
+ * The branch events carry no product: {@code BRANCH_REMOVED} means the branch left the franchise, deleted or moved
+ * away, and {@code BRANCH_UPDATED} that it was renamed or moved into it. {@code FRANCHISE_REMOVED} carries neither and
+ * means the franchise and everything below it were deleted.
+ */
+public record StockEvent(
+        Long sequence,
+        Type type,
+        Long franchiseId,
+        Long branchId,
+        Long productId,
+        String productName,
+        Integer stock
+) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        BRANCH_REMOVED,
+        BRANCH_UPDATED,
+        FRANCHISE_REMOVED
+    }
+
+    public static StockEvent of(Type type, Long franchiseId, Product product) {
+        return new StockEvent(null, type, franchiseId, product.getBranchId(), product.getId(), product.getName(),
+                type == Type.DELETED ? null : product.getStock());
+    }
+
+    public static StockEvent ofBranch(Type type, Long franchiseId, Long branchId) {
+        return new StockEvent(null, type, franchiseId, branchId, null, null, null);
+    }
+
+    public static StockEvent ofFranchise(Type type, Long franchiseId) {
+        return new StockEvent(null, type, franchiseId, null, null, null, null);
+    }
+
+    public StockEvent withSequence(long sequence) {
+        return new StockEvent(sequence, type, franchiseId, branchId, productId, productName, stock);
+    }
+}
@@ -0,0 +1,16 @@
+package com.yennyfer.franchises_api.dto;
+
+/**
+ * A product's stock next to the stock rebuilt from its ledger; they differ when a write bypassed the ledger.
+ */
+public record StockReconciliation(
+        Long productId,
+        Integer stock,
+        Integer ledgerStock,
+        boolean consistent
+) {
+
+    public static StockReconciliation of(Long productId, Integer stock, Integer ledgerStock) {
+        return new StockReconciliation(productId, stock, ledgerStock, stock.equals(ledgerStock));
+    }
+}
@@ -0,0 +1,15 @@
+package com.yennyfer.franchises_api.dto;
+
+/**
+ * One line of a bulk stock update: either an absolute {@code stock} or a relative {@code delta}, never both. An
+ * absolute stock must not be negative.
+ */
+public record StockUpdateItem(
+        Long productId,
+        Integer stock,
+        Integer delta
+) {
+    public boolean isValid() {
+        return productId != null && (stock == null) != (delta == null) && (stock == null || stock >= 0);
+    }
+}
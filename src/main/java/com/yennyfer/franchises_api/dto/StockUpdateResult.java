@@ -0,0 +1,14 @@
+package com.yennyfer.franchises_api.dto;
+
+public record StockUpdateResult(
+        Long productId,
+        Status status,
+        Integer stock
+) {
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INSUFFICIENT_STOCK,
+        INVALID
+    }
+}
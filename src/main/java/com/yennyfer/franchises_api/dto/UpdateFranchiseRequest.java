@@ -1,6 +1,13 @@
 package com.yennyfer.franchises_api.dto;
 
+/**
+ * Partial update: a {@code null} field is left unchanged.
+ */
 public record UpdateFranchiseRequest(
         String name
 ) {
+
+    public boolean hasChanges() {
+        return name != null;
+    }
 }
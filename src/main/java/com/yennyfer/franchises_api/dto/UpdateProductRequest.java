@@ -1,9 +1,24 @@
 package com.yennyfer.franchises_api.dto;
 
-import jakarta.validation.constraints.NotNull;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.PositiveOrZero;
 
+import java.util.Optional;
+
+/**
+ * Partial update: a {@code null} field is left unchanged. The optional columns can also be cleared by sending them as
+ * JSON {@code null}, which arrives as {@link Optional#empty()}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record UpdateProductRequest(
-        @NotNull String name,
-        @NotNull Integer sku,
-        String description
-) {}
+        String name,
+        @JsonDeserialize(using = ClearableDeserializer.class) Optional<Integer> sku,
+        @JsonDeserialize(using = ClearableDeserializer.class) Optional<String> description,
+        @JsonDeserialize(using = ClearableDeserializer.class) Optional<@PositiveOrZero Integer> reorderThreshold
+) {
+
+    public boolean hasChanges() {
+        return name != null || sku != null || description != null || reorderThreshold != null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.yennyfer.franchises_api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public record UpdateProductStockDeltaRequest(
+        @NotNull Integer delta,
+        Boolean nonNegative
+){}
@@ -0,0 +1,17 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Component
+public class LoggingStockAlertSink implements StockAlertSink {
+
+    @Override
+    public Mono<Void> deliver(StockAlert alert) {
+        return Mono.fromRunnable(() -> log.info("Alerta de stock {}: producto {} de la sucursal {} con stock {} (umbral {})",
+                alert.type(), alert.productId(), alert.branchId(), alert.stock(), alert.threshold()));
+    }
+}
@@ -0,0 +1,252 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.config.ReadRoute;
+import com.yennyfer.franchises_api.config.StockStreamProperties;
+import com.yennyfer.franchises_api.dto.MaxStockLeaderboardMessage;
+import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of {@link ProductsRepository#findProductsWithMaxStockPerFranchise} for every franchise, seeded at
+ * startup and kept current from the {@link StockEventBus}. Most writes are resolved in memory; only lowering or
+ * deleting the last leader of a branch, or a write to a branch not seen yet, rescans that branch. Subscribers are told
+ * when a branch's leaders actually change.
+ * <p>
+ * Events that overflow the buffer mark their franchise for a full reload before the next event is applied. Writes
+ * made on other instances only arrive through the Postgres bridge. A deleted or moved branch is dropped from the
+ * franchise it left, and a renamed or moved one is rescanned in the franchise it now belongs to. A deleted franchise
+ * is dropped whole.
+ */
+@Slf4j
+@Component
+public class MaxStockLeaderboard implements SmartLifecycle {
+
+    private static final Comparator<ProductMaxStockResponse> BY_PRODUCT = Comparator.comparing(ProductMaxStockResponse::productId);
+
+    private final Map<Long, TreeMap<Long, List<ProductMaxStockResponse>>> leadersByFranchise = new HashMap<>();
+    private final Map<Long, Set<Sinks.Many<MaxStockLeaderboardMessage>>> subscribers = new HashMap<>();
+    private final Set<Long> staleFranchises = ConcurrentHashMap.newKeySet();
+    private final StockEventBus stockEventBus;
+    private final ProductsRepository productsRepository;
+    private final FranchisesRepository franchisesRepository;
+    private final StockStreamProperties properties;
+    private volatile Disposable updates;
+
+    public MaxStockLeaderboard(StockEventBus stockEventBus, ProductsRepository productsRepository,
+                               FranchisesRepository franchisesRepository, StockStreamProperties properties) {
+        this.stockEventBus = stockEventBus;
+        this.productsRepository = productsRepository;
+        this.franchisesRepository = franchisesRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Starts with the current leaders of the franchise, then one message per change. A subscriber that falls
+     * {@code bufferSize} messages behind is ended with an error rather than silently missing a change.
+     */
+    public Flux<MaxStockLeaderboardMessage> subscribe(Long franchiseId) {
+        return Flux.defer(() -> {
+            Sinks.Many<MaxStockLeaderboardMessage> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<MaxStockLeaderboardMessage>get(properties.bufferSize()).get());
+            synchronized (this) {
+                sink.tryEmitNext(MaxStockLeaderboardMessage.snapshot(franchiseId, leaders(franchiseId)));
+                subscribers.computeIfAbsent(franchiseId, id -> new HashSet<>()).add(sink);
+            }
+            return sink.asFlux().doFinally(signal -> unsubscribe(franchiseId, sink));
+        });
+    }
+
+    public synchronized List<ProductMaxStockResponse> leaders(Long franchiseId) {
+        TreeMap<Long, List<ProductMaxStockResponse>> branches = leadersByFranchise.get(franchiseId);
+        return branches == null ? List.of() : branches.values().stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * The event subscription is taken before seeding, so writes committed while the seed runs are buffered and applied
+     * after it.
+     */
+    @Override
+    public void start() {
+        Flux<StockEvent> events = stockEventBus.all()
+                .onBackpressureBuffer(properties.bufferSize(), dropped -> staleFranchises.add(dropped.franchiseId()),
+                        BufferOverflowStrategy.DROP_OLDEST);
+        updates = Flux.concat(Mono.just(seed()), events.map(this::apply))
+                .concatMap(work -> work)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = updates;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = updates;
+        return current != null && !current.isDisposed();
+    }
+
+    Mono<Void> seed() {
+        return franchisesRepository.findAll()
+                .map(Franchise::getId)
+                .concatMap(this::reloadFranchise)
+                .then()
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Reintentando la carga del ranking de stock: {}",
+                                signal.failure().getMessage())));
+    }
+
+    Mono<Void> apply(StockEvent event) {
+        return Flux.fromIterable(List.copyOf(staleFranchises))
+                .concatMap(franchiseId -> {
+                    staleFranchises.remove(franchiseId);
+                    return reloadFranchise(franchiseId);
+                })
+                .then(Mono.defer(() -> applyEvent(event)))
+                .onErrorResume(e -> {
+                    log.warn("No se pudo actualizar el ranking de stock de la franquicia {}: {}",
+                            event.franchiseId(), e.getMessage());
+                    staleFranchises.add(event.franchiseId());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> applyEvent(StockEvent event) {
+        return switch (event.type()) {
+            case BRANCH_REMOVED -> {
+                replaceBranch(event.franchiseId(), event.branchId(), List.of());
+                yield Mono.empty();
+            }
+            case BRANCH_UPDATED -> reloadBranch(event.franchiseId(), event.branchId());
+            case FRANCHISE_REMOVED -> {
+                staleFranchises.remove(event.franchiseId());
+                replaceFranchise(event.franchiseId(), List.of());
+                yield Mono.empty();
+            }
+            default -> applyInMemory(event) ? Mono.empty() : reloadBranch(event.franchiseId(), event.branchId());
+        };
+    }
+
+    /**
+     * Returns {@code false} when the new leaders cannot be told from the current ones and the branch must be rescanned.
+     */
+    private synchronized boolean applyInMemory(StockEvent event) {
+        TreeMap<Long, List<ProductMaxStockResponse>> branches = leadersByFranchise.get(event.franchiseId());
+        List<ProductMaxStockResponse> current = branches == null ? null : branches.get(event.branchId());
+        if (current == null || current.isEmpty()) {
+            return false;
+        }
+        ProductMaxStockResponse top = current.get(0);
+        boolean leads = current.stream().anyMatch(row -> row.productId().equals(event.productId()));
+        List<ProductMaxStockResponse> others = current.stream()
+                .filter(row -> !row.productId().equals(event.productId()))
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (event.type() == StockEvent.Type.DELETED || event.stock() < top.stock()) {
+            if (!leads) {
+                return true;
+            }
+            if (others.isEmpty()) {
+                return false;
+            }
+            replaceBranch(event.franchiseId(), event.branchId(), others);
+            return true;
+        }
+        ProductMaxStockResponse row = new ProductMaxStockResponse(event.branchId(), top.branchName(),
+                event.productId(), event.productName(), event.stock());
+        if (event.stock() > top.stock()) {
+            replaceBranch(event.franchiseId(), event.branchId(), List.of(row));
+        } else {
+            others.add(row);
+            others.sort(BY_PRODUCT);
+            replaceBranch(event.franchiseId(), event.branchId(), others);
+        }
+        return true;
+    }
+
+    private Mono<Void> reloadBranch(Long franchiseId, Long branchId) {
+        return productsRepository.findProductsWithMaxStockPerBranch(branchId)
+                .collectList()
+                .doOnNext(rows -> replaceBranch(franchiseId, branchId, rows))
+                .contextWrite(ReadRoute::pinPrimary)
+                .then();
+    }
+
+    private Mono<Void> reloadFranchise(Long franchiseId) {
+        return productsRepository.findProductsWithMaxStockPerFranchise(franchiseId)
+                .collectList()
+                .doOnNext(rows -> replaceFranchise(franchiseId, rows))
+                .contextWrite(ReadRoute::pinPrimary)
+                .then();
+    }
+
+    private synchronized void replaceFranchise(Long franchiseId, List<ProductMaxStockResponse> rows) {
+        Map<Long, List<ProductMaxStockResponse>> loaded = rows.stream()
+                .collect(Collectors.groupingBy(ProductMaxStockResponse::branchId));
+        Set<Long> branchIds = new TreeSet<>(loaded.keySet());
+        branchIds.addAll(leadersByFranchise.getOrDefault(franchiseId, new TreeMap<>()).keySet());
+        for (Long branchId : branchIds) {
+            replaceBranch(franchiseId, branchId, loaded.getOrDefault(branchId, List.of()));
+        }
+    }
+
+    private synchronized void replaceBranch(Long franchiseId, Long branchId, List<ProductMaxStockResponse> leaders) {
+        TreeMap<Long, List<ProductMaxStockResponse>> branches =
+                leadersByFranchise.computeIfAbsent(franchiseId, id -> new TreeMap<>());
+        List<ProductMaxStockResponse> previous = branches.getOrDefault(branchId, List.of());
+        if (previous.equals(leaders)) {
+            return;
+        }
+        if (leaders.isEmpty()) {
+            branches.remove(branchId);
+        } else {
+            branches.put(branchId, List.copyOf(leaders));
+        }
+        if (branches.isEmpty()) {
+            leadersByFranchise.remove(franchiseId);
+        }
+        MaxStockLeaderboardMessage message = MaxStockLeaderboardMessage.leaderChanged(franchiseId, branchId,
+                List.copyOf(leaders));
+        for (Sinks.Many<MaxStockLeaderboardMessage> sink : List.copyOf(subscribers.getOrDefault(franchiseId, Set.of()))) {
+            if (sink.tryEmitNext(message).isFailure()) {
+                sink.tryEmitError(new IllegalStateException("El suscriptor no consume los cambios del ranking a tiempo"));
+            }
+        }
+    }
+
+    private synchronized void unsubscribe(Long franchiseId, Sinks.Many<MaxStockLeaderboardMessage> sink) {
+        Set<Sinks.Many<MaxStockLeaderboardMessage>> sinks = subscribers.get(franchiseId);
+        if (sinks != null && sinks.remove(sink) && sinks.isEmpty()) {
+            subscribers.remove(franchiseId);
+        }
+    }
+}
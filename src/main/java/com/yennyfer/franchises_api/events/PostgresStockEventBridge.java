@@ -0,0 +1,106 @@
+package com.yennyfer.franchises_api.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yennyfer.franchises_api.config.StockStreamProperties;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Shares stock events between instances through Postgres LISTEN/NOTIFY. Publishing issues the NOTIFY inside the
+ * writing transaction, which Postgres only delivers on commit, and every instance, including the writer, emits what
+ * it hears into its local {@link StockEventBus}. Listening needs a connection of its own, outside the pool, since a
+ * pooled one would be handed to other work.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "franchises.stock-stream", name = "postgres-notify", havingValue = "true")
+public class PostgresStockEventBridge implements SmartLifecycle {
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcProperties r2dbcProperties;
+    private final StockStreamProperties properties;
+    private final StockEventBus bus;
+    private final ObjectMapper objectMapper;
+    private volatile Disposable listener;
+
+    public PostgresStockEventBridge(DatabaseClient databaseClient, R2dbcProperties r2dbcProperties,
+                                    StockStreamProperties properties, StockEventBus bus, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.r2dbcProperties = r2dbcProperties;
+        this.properties = properties;
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+    }
+
+    Mono<Void> publish(StockEvent event) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(event))
+                .flatMap(payload -> databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                        .bind("channel", properties.channel())
+                        .bind("payload", payload)
+                        .then());
+    }
+
+    @Override
+    public void start() {
+        listener = Flux.usingWhen(connect(), this::listen, PostgresqlConnection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Reconectando la escucha de eventos de stock: {}",
+                                signal.failure().getMessage())))
+                .subscribe(bus::emit);
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = listener;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = listener;
+        return current != null && !current.isDisposed();
+    }
+
+    private Mono<PostgresqlConnection> connect() {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (r2dbcProperties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        return Mono.from(ConnectionFactories.get(options.build()).create()).cast(PostgresqlConnection.class);
+    }
+
+    private Flux<StockEvent> listen(PostgresqlConnection connection) {
+        return connection.createStatement("LISTEN " + properties.channel())
+                .execute()
+                .flatMap(PostgresqlResult::getRowsUpdated)
+                .thenMany(connection.getNotifications())
+                .mapNotNull(Notification::getParameter)
+                .flatMap(payload -> Mono.fromCallable(() -> objectMapper.readValue(payload, StockEvent.class))
+                        .onErrorResume(e -> {
+                            log.warn("Evento de stock ilegible descartado: {}", e.getMessage());
+                            return Mono.empty();
+                        }), 1);
+    }
+}
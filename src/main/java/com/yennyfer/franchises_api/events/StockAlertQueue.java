@@ -0,0 +1,84 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands stock alerts from the write path to the {@link StockAlertSink}s. Enqueuing never waits: once
+ * {@code queueCapacity} alerts are pending, new ones are dropped and logged. A sink that fails or exceeds
+ * {@code sinkTimeout} loses that alert without holding back the others.
+ */
+@Slf4j
+@Component
+public class StockAlertQueue implements SmartLifecycle {
+
+    private final Sinks.Many<StockAlert> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<StockAlertSink> sinks;
+    private final StockAlertProperties properties;
+    private volatile Disposable delivery;
+
+    public StockAlertQueue(List<StockAlertSink> sinks, StockAlertProperties properties) {
+        this.sinks = sinks;
+        this.properties = properties;
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<StockAlert>get(properties.queueCapacity()).get());
+    }
+
+    /**
+     * Queues the alert once the surrounding transaction commits, so a rolled-back write raises nothing.
+     */
+    public Mono<Void> enqueue(StockAlert alert) {
+        return AfterCommit.run(() -> offer(alert));
+    }
+
+    synchronized void offer(StockAlert alert) {
+        if (queue.tryEmitNext(alert).isFailure()) {
+            log.warn("Cola de alertas de stock llena, se descarta la alerta {} del producto {} ({} descartadas)",
+                    alert.type(), alert.productId(), dropped.incrementAndGet());
+        }
+    }
+
+    @Override
+    public void start() {
+        delivery = queue.asFlux()
+                .concatMap(this::deliver)
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = delivery;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = delivery;
+        return current != null && !current.isDisposed();
+    }
+
+    private Mono<Void> deliver(StockAlert alert) {
+        return Flux.fromIterable(sinks)
+                .concatMap(sink -> Mono.defer(() -> sink.deliver(alert))
+                        .timeout(properties.sinkTimeout())
+                        .onErrorResume(e -> {
+                            log.warn("No se pudo entregar la alerta de stock del producto {} a {}: {}",
+                                    alert.productId(), sink.getClass().getSimpleName(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+}
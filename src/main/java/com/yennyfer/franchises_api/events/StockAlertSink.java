@@ -0,0 +1,12 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import reactor.core.publisher.Mono;
+
+/**
+ * Destination for stock alerts. Every sink bean receives every alert, one at a time and in order.
+ */
+public interface StockAlertSink {
+
+    Mono<Void> deliver(StockAlert alert);
+}
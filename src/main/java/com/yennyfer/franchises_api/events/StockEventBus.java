@@ -0,0 +1,81 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.config.StockStreamProperties;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.Product;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of stock events. Each subscriber gets its own bounded buffer that drops its oldest events when
+ * it falls behind, so a slow client costs at most {@code bufferSize} events of heap and never holds back the others.
+ */
+@Component
+public class StockEventBus {
+
+    private final Sinks.Many<StockEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final Map<Long, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final BranchReadCache branchReadCache;
+    private final StockStreamProperties properties;
+    private final ObjectProvider<PostgresStockEventBridge> bridge;
+
+    public StockEventBus(BranchReadCache branchReadCache, StockStreamProperties properties,
+                         ObjectProvider<PostgresStockEventBridge> bridge) {
+        this.branchReadCache = branchReadCache;
+        this.properties = properties;
+        this.bridge = bridge;
+    }
+
+    /**
+     * Publishes once the surrounding transaction commits, so subscribers never see a write that was rolled back.
+     * Through the Postgres bridge the NOTIFY itself is transactional and needs no deferral.
+     */
+    public Mono<Void> publish(StockEvent.Type type, Product product) {
+        return branchReadCache.findById(product.getBranchId())
+                .map(Branch::getFranchiseId)
+                .map(franchiseId -> StockEvent.of(type, franchiseId, product))
+                .flatMap(this::publish);
+    }
+
+    public Mono<Void> publishBranch(StockEvent.Type type, Long franchiseId, Long branchId) {
+        return publish(StockEvent.ofBranch(type, franchiseId, branchId));
+    }
+
+    public Mono<Void> publishFranchise(StockEvent.Type type, Long franchiseId) {
+        return publish(StockEvent.ofFranchise(type, franchiseId));
+    }
+
+    public Flux<StockEvent> stream(Long franchiseId) {
+        return all()
+                .filter(event -> franchiseId.equals(event.franchiseId()))
+                .onBackpressureBuffer(properties.bufferSize(), dropped -> {
+                }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Every franchise's events, unbuffered; a subscriber that does not keep up misses events.
+     */
+    public Flux<StockEvent> all() {
+        return sink.asFlux();
+    }
+
+    private Mono<Void> publish(StockEvent event) {
+        PostgresStockEventBridge postgres = bridge.getIfAvailable();
+        return postgres != null ? postgres.publish(event) : AfterCommit.run(() -> emit(event));
+    }
+
+    synchronized void emit(StockEvent event) {
+        long sequence = sequences.computeIfAbsent(event.franchiseId(), franchiseId -> new AtomicLong()).incrementAndGet();
+        sink.tryEmitNext(event.withSequence(sequence));
+    }
+}
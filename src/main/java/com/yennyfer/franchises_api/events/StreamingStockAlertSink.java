@@ -0,0 +1,36 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Fans alerts out to Server-Sent Events subscribers on this instance. Like {@link StockEventBus#stream}, a slow
+ * subscriber drops its oldest alerts instead of holding back delivery to the other sinks.
+ */
+@Component
+public class StreamingStockAlertSink implements StockAlertSink {
+
+    private final Sinks.Many<StockAlert> sink = Sinks.many().multicast().directBestEffort();
+    private final StockAlertProperties properties;
+
+    public StreamingStockAlertSink(StockAlertProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Void> deliver(StockAlert alert) {
+        return Mono.fromRunnable(() -> sink.tryEmitNext(alert));
+    }
+
+    public Flux<StockAlert> stream(Long franchiseId) {
+        return sink.asFlux()
+                .filter(alert -> franchiseId.equals(alert.franchiseId()))
+                .onBackpressureBuffer(properties.queueCapacity(), dropped -> {
+                }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
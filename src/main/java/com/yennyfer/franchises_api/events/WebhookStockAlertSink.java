@@ -0,0 +1,31 @@
+package com.yennyfer.franchises_api.events;
+
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * POSTs each alert as JSON to {@code franchises.stock-alerts.webhook-url}. Deliveries are not retried.
+ */
+@Component
+@ConditionalOnExpression("!'${franchises.stock-alerts.webhook-url:}'.isBlank()")
+public class WebhookStockAlertSink implements StockAlertSink {
+
+    private final WebClient webClient;
+
+    public WebhookStockAlertSink(WebClient.Builder webClientBuilder, StockAlertProperties properties) {
+        this.webClient = webClientBuilder.baseUrl(properties.webhookUrl()).build();
+    }
+
+    @Override
+    public Mono<Void> deliver(StockAlert alert) {
+        return webClient.post()
+                .bodyValue(alert)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+}
@@ -6,6 +6,7 @@
     import lombok.NoArgsConstructor;
     import lombok.Setter;
     import org.springframework.data.annotation.Id;
+    import org.springframework.data.annotation.Version;
     import org.springframework.data.relational.core.mapping.Column;
     import org.springframework.data.relational.core.mapping.Table;
 
@@ -28,4 +29,10 @@
 
         @Column("franchise_id")
         private Long franchiseId;
+
+        @Version
+        private Long version;
+
+        @Column("reorder_threshold")
+        private Integer reorderThreshold;
     }
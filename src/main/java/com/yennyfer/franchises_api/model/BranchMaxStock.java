@@ -0,0 +1,26 @@
+package com.yennyfer.franchises_api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("branch_max_stock")
+public class BranchMaxStock {
+
+    @Id
+    @Column("branch_id")
+    private Long branchId;
+
+    @Column("max_stock")
+    private Integer maxStock;
+}
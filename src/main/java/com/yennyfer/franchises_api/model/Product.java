@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -30,4 +31,13 @@ public class Product {
 
     @Column("branch_id")
     private Long branchId;
+
+    @Version
+    private Long version;
+
+    @Column("reorder_threshold")
+    private Integer reorderThreshold;
+
+    @Column("low_stock")
+    private boolean lowStock;
 }
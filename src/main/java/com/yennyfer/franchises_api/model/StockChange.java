@@ -0,0 +1,13 @@
+package com.yennyfer.franchises_api.model;
+
+/**
+ * A stock write as the database applied it: the row it left, the stock and low-stock flag it found, and the threshold
+ * and franchise the low-stock check used.
+ */
+public record StockChange(
+        Product product,
+        int previousStock,
+        boolean wasLowStock,
+        Integer threshold,
+        Long franchiseId) {
+}
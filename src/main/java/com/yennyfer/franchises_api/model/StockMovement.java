@@ -0,0 +1,58 @@
+package com.yennyfer.franchises_api.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One stock write. {@code delta} is the change it made and {@code stock} the stock it left.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("stock_movement")
+public class StockMovement {
+
+    public enum Kind {
+        CREATED,
+        SET,
+        ADJUSTED
+    }
+
+    @Id
+    private Long id;
+
+    @Column("product_id")
+    private Long productId;
+
+    @Column("branch_id")
+    private Long branchId;
+
+    private Kind kind;
+
+    private Integer delta;
+
+    private Integer stock;
+
+    @Column("created_at")
+    private OffsetDateTime createdAt;
+
+    public static StockMovement of(Product product, Kind kind, int delta) {
+        return StockMovement.builder()
+                .productId(product.getId())
+                .branchId(product.getBranchId())
+                .kind(kind)
+                .delta(delta)
+                .stock(product.getStock())
+                .build();
+    }
+}
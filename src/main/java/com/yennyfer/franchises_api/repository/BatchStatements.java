@@ -0,0 +1,51 @@
+package com.yennyfer.franchises_api.repository;
+
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+final class BatchStatements {
+
+    private BatchStatements() {
+    }
+
+    /**
+     * Runs {@code sql} once per row as a single batched statement and emits, in row order, the generated id or empty
+     * when the row was skipped (e.g. by {@code ON CONFLICT DO NOTHING}).
+     */
+    static <T> Flux<Optional<Long>> insertReturningIds(DatabaseClient databaseClient, String sql, List<T> rows,
+                                                       BiConsumer<Statement, T> binder) {
+        if (rows.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(sql).returnGeneratedValues("id");
+            bindAll(statement, rows, binder);
+            return Flux.from(statement.execute())
+                    .concatMap(result -> Flux.from(result.map(row -> DetailRows.toLong(row.get("id", Number.class))))
+                            .collectList()
+                            .map(ids -> ids.stream().findFirst()));
+        });
+    }
+
+    static <T> void bindAll(Statement statement, List<T> rows, BiConsumer<Statement, T> binder) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            binder.accept(statement, rows.get(i));
+        }
+    }
+
+    static void bindNullable(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
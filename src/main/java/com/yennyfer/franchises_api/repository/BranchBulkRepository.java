@@ -0,0 +1,16 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Branch;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BranchBulkRepository {
+
+    /**
+     * Inserts the branches as one batch, skipping names that already exist, and emits each generated id (empty for
+     * skipped rows) in input order.
+     */
+    Flux<Optional<Long>> insertAll(List<Branch> branches);
+}
@@ -0,0 +1,27 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Branch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class BranchBulkRepositoryImpl implements BranchBulkRepository {
+
+    private static final String INSERT =
+            "INSERT INTO branch (name, address, franchise_id) VALUES ($1, $2, $3) ON CONFLICT DO NOTHING";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Optional<Long>> insertAll(List<Branch> branches) {
+        return BatchStatements.insertReturningIds(databaseClient, INSERT, branches, (statement, branch) -> {
+            statement.bind(0, branch.getName());
+            BatchStatements.bindNullable(statement, 1, branch.getAddress(), String.class);
+            statement.bind(2, branch.getFranchiseId());
+        });
+    }
+}
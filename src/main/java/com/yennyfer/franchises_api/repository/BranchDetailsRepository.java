@@ -0,0 +1,10 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import reactor.core.publisher.Flux;
+
+public interface BranchDetailsRepository {
+
+    @ReplicaRead
+    Flux<FranchiseDetailRow> findAllBranchesWithDetails();
+}
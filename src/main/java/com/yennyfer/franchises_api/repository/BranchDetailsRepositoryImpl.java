@@ -0,0 +1,27 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.config.StreamingProperties;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class BranchDetailsRepositoryImpl implements BranchDetailsRepository {
+
+    private final DatabaseClient databaseClient;
+    private final StreamingProperties streamingProperties;
+
+    @Override
+    public Flux<FranchiseDetailRow> findAllBranchesWithDetails() {
+        int fetchSize = streamingProperties.fetchSize();
+        return databaseClient.sql(DetailRows.SELECT_FROM_BRANCH + "ORDER BY b.id, p.id")
+                .filter(statement -> {
+                    statement.fetchSize(fetchSize);
+                    return statement;
+                })
+                .map(DetailRows::map)
+                .all()
+                .limitRate(fetchSize);
+    }
+}
@@ -0,0 +1,85 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.BranchMaxStock;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface BranchMaxStockRepository extends ReactiveCrudRepository<BranchMaxStock, Long> {
+
+    @Modifying
+    @Query("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (:branchId, NULL) ON CONFLICT (branch_id) DO NOTHING")
+    Mono<Integer> initialize(Long branchId);
+
+    @Modifying
+    @Query("""
+    INSERT INTO branch_max_stock (branch_id, max_stock)
+    SELECT b.id, NULL FROM branch b
+    WHERE b.id IN (:branchIds)
+      AND NOT EXISTS (SELECT 1 FROM branch_max_stock m WHERE m.branch_id = b.id)
+""")
+    Mono<Integer> initializeAll(Collection<Long> branchIds);
+
+    /**
+     * Applies a stock write to the branch summary. A value above the current max raises it in place; the branch is
+     * only rescanned (through product(branch_id, stock)) when no product holds the recorded max any more, which
+     * covers lowering or deleting the last product at the top while leaving ties untouched.
+     * Pass {@code null} as stock for deletes.
+     * <p>
+     * The summary row is locked by a statement of its own first. Under READ COMMITTED the guarded update then starts
+     * with a snapshot that includes every product write committed by a previous holder of the lock, so a concurrent
+     * raise and lower cannot both decide against a stale max. Must run inside the transaction of the product write.
+     */
+    default Mono<Integer> refresh(Long branchId, Integer stock) {
+        return lock(branchId).then(Mono.defer(() -> applyRefresh(branchId, stock)));
+    }
+
+    @Modifying
+    @Query("UPDATE branch_max_stock SET max_stock = max_stock WHERE branch_id = :branchId")
+    Mono<Integer> lock(Long branchId);
+
+    @Modifying
+    @Query("""
+    UPDATE branch_max_stock
+    SET max_stock = CASE
+        WHEN max_stock IS NOT NULL AND :stock IS NOT NULL AND :stock > max_stock THEN :stock
+        ELSE (SELECT MAX(p.stock) FROM product p WHERE p.branch_id = :branchId)
+    END
+    WHERE branch_id = :branchId
+      AND (max_stock IS NULL
+           OR max_stock < :stock
+           OR NOT EXISTS (
+               SELECT 1 FROM product p
+               WHERE p.branch_id = :branchId AND p.stock = branch_max_stock.max_stock
+           ))
+""")
+    Mono<Integer> applyRefresh(Long branchId, Integer stock);
+
+    /**
+     * Recomputes the summary of every given branch from its products, one index descent each. For writes that span
+     * several statements, such as a bulk request that may raise and then lower the same product, where no single new
+     * stock describes the change. The rows are locked in id order first, so concurrent callers queue up instead of
+     * deadlocking, and for the same snapshot reason as {@link #refresh}.
+     */
+    default Mono<Integer> recompute(Collection<Long> branchIds) {
+        if (branchIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        return lockAll(branchIds).then(Mono.defer(() -> recomputeAll(branchIds)));
+    }
+
+    @Query("SELECT branch_id FROM branch_max_stock WHERE branch_id IN (:branchIds) ORDER BY branch_id FOR UPDATE")
+    Flux<Long> lockAll(Collection<Long> branchIds);
+
+    @Modifying
+    @Query("""
+    UPDATE branch_max_stock
+    SET max_stock = (SELECT MAX(p.stock) FROM product p WHERE p.branch_id = branch_max_stock.branch_id)
+    WHERE branch_id IN (:branchIds)
+""")
+    Mono<Integer> recomputeAll(Collection<Long> branchIds);
+}
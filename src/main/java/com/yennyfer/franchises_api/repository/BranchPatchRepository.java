@@ -0,0 +1,13 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
+import com.yennyfer.franchises_api.model.Branch;
+import reactor.core.publisher.Mono;
+
+public interface BranchPatchRepository {
+
+    /**
+     * Updates only the fields present in the request and emits the resulting row, or nothing when it does not exist.
+     */
+    Mono<Branch> patch(Long branchId, UpdateBranchRequest request);
+}
@@ -0,0 +1,36 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
+import com.yennyfer.franchises_api.model.Branch;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class BranchPatchRepositoryImpl implements BranchPatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Branch> patch(Long branchId, UpdateBranchRequest request) {
+        return SparseUpdate.of("branch")
+                .set("name", request.name())
+                .setOrClear("address", request.address())
+                .set("franchise_id", request.franchiseId())
+                .setOrClear("reorder_threshold", request.reorderThreshold())
+                .increment("version")
+                .execute(databaseClient, branchId, BranchPatchRepositoryImpl::map);
+    }
+
+    private static Branch map(Readable row) {
+        return Branch.builder()
+                .id(DetailRows.toLong(row.get("id", Number.class)))
+                .name(row.get("name", String.class))
+                .address(row.get("address", String.class))
+                .franchiseId(DetailRows.toLong(row.get("franchise_id", Number.class)))
+                .version(DetailRows.toLong(row.get("version", Number.class)))
+                .reorderThreshold(row.get("reorder_threshold", Integer.class))
+                .build();
+    }
+}
@@ -1,11 +1,30 @@
 package com.yennyfer.franchises_api.repository;
 
 import com.yennyfer.franchises_api.model.Branch;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface BranchRepository extends ReactiveCrudRepository<Branch, Long> {
+public interface BranchRepository extends ReactiveCrudRepository<Branch, Long>, BranchDetailsRepository,
+        BranchBulkRepository, BranchPatchRepository {
 
+    @ReplicaRead
     Flux<Branch> findByFranchiseId(Long franchiseId);
-    Flux<Branch> findByName(String name);
+
+    @ReplicaRead
+    @Query("SELECT * FROM branch WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Branch> findPageAfter(long afterId, int limit);
+
+    /**
+     * Locks the branch so the franchise it is read from cannot change before the caller moves it.
+     */
+    @Query("SELECT franchise_id FROM branch WHERE id = :branchId FOR UPDATE")
+    Mono<Long> lockFranchiseId(Long branchId);
+
+    /**
+     * Emits the franchise of the removed branch, or nothing when there was none.
+     */
+    @Query("DELETE FROM branch WHERE id = :branchId RETURNING franchise_id")
+    Mono<Long> removeById(Long branchId);
 }
@@ -0,0 +1,62 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import io.r2dbc.spi.Readable;
+
+final class DetailRows {
+
+    static final String SELECT_FROM_FRANCHISE = """
+    SELECT
+        f.id AS franchise_id,
+        f.name AS franchise_name,
+        b.id AS branch_id,
+        b.name AS branch_name,
+        b.address AS branch_address,
+        p.id AS product_id,
+        p.name AS product_name,
+        p.description AS product_description,
+        p.stock AS product_stock,
+        p.sku AS product_sku
+    FROM franchise f
+    LEFT JOIN branch b ON b.franchise_id = f.id
+    LEFT JOIN product p ON p.branch_id = b.id
+""";
+
+    static final String SELECT_FROM_BRANCH = """
+    SELECT
+        f.id AS franchise_id,
+        f.name AS franchise_name,
+        b.id AS branch_id,
+        b.name AS branch_name,
+        b.address AS branch_address,
+        p.id AS product_id,
+        p.name AS product_name,
+        p.description AS product_description,
+        p.stock AS product_stock,
+        p.sku AS product_sku
+    FROM branch b
+    JOIN franchise f ON f.id = b.franchise_id
+    LEFT JOIN product p ON p.branch_id = b.id
+""";
+
+    private DetailRows() {
+    }
+
+    static FranchiseDetailRow map(Readable row) {
+        return new FranchiseDetailRow(
+                toLong(row.get("franchise_id", Number.class)),
+                row.get("franchise_name", String.class),
+                toLong(row.get("branch_id", Number.class)),
+                row.get("branch_name", String.class),
+                row.get("branch_address", String.class),
+                toLong(row.get("product_id", Number.class)),
+                row.get("product_name", String.class),
+                row.get("product_description", String.class),
+                row.get("product_stock", Integer.class),
+                row.get("product_sku", Integer.class));
+    }
+
+    static Long toLong(Number value) {
+        return value == null ? null : value.longValue();
+    }
+}
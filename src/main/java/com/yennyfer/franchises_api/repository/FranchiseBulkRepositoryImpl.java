@@ -0,0 +1,23 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Franchise;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class FranchiseBulkRepositoryImpl implements FranchiseBulkRepository {
+
+    private static final String INSERT = "INSERT INTO franchise (name) VALUES ($1) ON CONFLICT DO NOTHING";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Optional<Long>> insertAll(List<Franchise> franchises) {
+        return BatchStatements.insertReturningIds(databaseClient, INSERT, franchises,
+                (statement, franchise) -> statement.bind(0, franchise.getName()));
+    }
+}
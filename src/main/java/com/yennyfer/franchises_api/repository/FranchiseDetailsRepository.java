@@ -0,0 +1,13 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import reactor.core.publisher.Flux;
+
+public interface FranchiseDetailsRepository {
+
+    @ReplicaRead
+    Flux<FranchiseDetailRow> findAllWithDetails();
+
+    @ReplicaRead
+    Flux<FranchiseDetailRow> findWithDetails(Long franchiseId);
+}
@@ -0,0 +1,35 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.config.StreamingProperties;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class FranchiseDetailsRepositoryImpl implements FranchiseDetailsRepository {
+
+    private final DatabaseClient databaseClient;
+    private final StreamingProperties streamingProperties;
+
+    @Override
+    public Flux<FranchiseDetailRow> findAllWithDetails() {
+        int fetchSize = streamingProperties.fetchSize();
+        return databaseClient.sql(DetailRows.SELECT_FROM_FRANCHISE + "ORDER BY f.id, b.id, p.id")
+                .filter(statement -> {
+                    statement.fetchSize(fetchSize);
+                    return statement;
+                })
+                .map(DetailRows::map)
+                .all()
+                .limitRate(fetchSize);
+    }
+
+    @Override
+    public Flux<FranchiseDetailRow> findWithDetails(Long franchiseId) {
+        return databaseClient.sql(DetailRows.SELECT_FROM_FRANCHISE + "WHERE f.id = :franchiseId ORDER BY b.id, p.id")
+                .bind("franchiseId", franchiseId)
+                .map(DetailRows::map)
+                .all();
+    }
+}
@@ -0,0 +1,14 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
+import com.yennyfer.franchises_api.model.Franchise;
+import reactor.core.publisher.Mono;
+
+public interface FranchisePatchRepository {
+
+    /**
+     * Updates only the fields present in the request, bumping the revision in the same statement, and emits the
+     * resulting row, or nothing when it does not exist.
+     */
+    Mono<Franchise> patch(Long franchiseId, UpdateFranchiseRequest request);
+}
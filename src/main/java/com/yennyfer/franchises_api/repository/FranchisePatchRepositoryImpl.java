@@ -0,0 +1,31 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
+import com.yennyfer.franchises_api.model.Franchise;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class FranchisePatchRepositoryImpl implements FranchisePatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Franchise> patch(Long franchiseId, UpdateFranchiseRequest request) {
+        return SparseUpdate.of("franchise")
+                .set("name", request.name())
+                .increment("revision")
+                .increment("version")
+                .execute(databaseClient, franchiseId, FranchisePatchRepositoryImpl::map);
+    }
+
+    private static Franchise map(Readable row) {
+        return Franchise.builder()
+                .id(DetailRows.toLong(row.get("id", Number.class)))
+                .name(row.get("name", String.class))
+                .version(DetailRows.toLong(row.get("version", Number.class)))
+                .build();
+    }
+}
@@ -1,9 +1,91 @@
 package com.yennyfer.franchises_api.repository;
 
+import com.yennyfer.franchises_api.dto.RevisionSummary;
 import com.yennyfer.franchises_api.model.Franchise;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface FranchisesRepository extends ReactiveCrudRepository<Franchise, Long> {
-    Flux<Franchise> findByName(String name);
+import java.util.Collection;
+
+public interface FranchisesRepository extends ReactiveCrudRepository<Franchise, Long>, FranchiseDetailsRepository,
+        FranchiseBulkRepository, FranchisePatchRepository {
+
+    @ReplicaRead
+    @Query("SELECT * FROM franchise WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Franchise> findPageAfter(long afterId, int limit);
+
+    @ReplicaRead
+    @Query("SELECT revision FROM franchise WHERE id = :franchiseId")
+    Mono<Long> findRevisionById(Long franchiseId);
+
+    /**
+     * Creates raise the last id, deletes lower the count and every other write raises the sum, so any change to the
+     * table changes at least one of the three.
+     */
+    @ReplicaRead
+    @Query("SELECT COUNT(*) AS franchises, COALESCE(MAX(id), 0) AS last_id, COALESCE(SUM(revision), 0) AS revisions FROM franchise")
+    Mono<RevisionSummary> summarizeRevisions();
+
+    @Modifying
+    @Query("UPDATE franchise SET revision = revision + 1 WHERE id IN (:franchiseIds)")
+    Mono<Integer> incrementRevisions(Collection<Long> franchiseIds);
+
+    @Modifying
+    @Query("UPDATE franchise SET revision = revision + 1 WHERE id IN (SELECT franchise_id FROM branch WHERE id IN (:branchIds))")
+    Mono<Integer> incrementRevisionsOfBranches(Collection<Long> branchIds);
+
+    /**
+     * Locks the franchise rows in id order, so writers that bump several franchises queue up instead of deadlocking.
+     */
+    @Query("SELECT id FROM franchise WHERE id IN (:franchiseIds) ORDER BY id FOR UPDATE")
+    Flux<Long> lockRevisions(Collection<Long> franchiseIds);
+
+    @Query("SELECT DISTINCT franchise_id FROM branch WHERE id IN (:branchIds)")
+    Flux<Long> findFranchiseIdsOfBranches(Collection<Long> branchIds);
+
+    /**
+     * Emits the id of the removed franchise, or nothing when there was none, so a missing franchise needs no separate
+     * lookup.
+     */
+    @Query("DELETE FROM franchise WHERE id = :franchiseId RETURNING id")
+    Mono<Long> removeById(Long franchiseId);
+
+    /**
+     * One bounded slice of a chunked purge. Each call is its own short statement, so row locks on product are held
+     * for at most {@code limit} rows at a time. A slice that deletes anything bumps the franchise revision in the same
+     * statement, so a cached entity tag never matches a half-purged franchise.
+     */
+    @Query("""
+    WITH deleted AS (
+        DELETE FROM product
+        WHERE id IN (
+            SELECT p.id FROM product p
+            JOIN branch b ON b.id = p.branch_id
+            WHERE b.franchise_id = :franchiseId
+            LIMIT :limit
+        )
+        RETURNING id
+    ), bumped AS (
+        UPDATE franchise SET revision = revision + 1
+        WHERE id = :franchiseId AND EXISTS (SELECT 1 FROM deleted)
+    )
+    SELECT COUNT(*)::int FROM deleted
+""")
+    Mono<Integer> deleteProductBatch(Long franchiseId, int limit);
+
+    @Query("""
+    WITH deleted AS (
+        DELETE FROM branch
+        WHERE id IN (SELECT id FROM branch WHERE franchise_id = :franchiseId LIMIT :limit)
+        RETURNING id
+    ), bumped AS (
+        UPDATE franchise SET revision = revision + 1
+        WHERE id = :franchiseId AND EXISTS (SELECT 1 FROM deleted)
+    )
+    SELECT COUNT(*)::int FROM deleted
+""")
+    Mono<Integer> deleteBranchBatch(Long franchiseId, int limit);
 }
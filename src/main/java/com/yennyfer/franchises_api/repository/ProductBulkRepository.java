@@ -0,0 +1,16 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Product;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductBulkRepository {
+
+    /**
+     * Inserts the products as one batch, skipping rows whose name or sku already exists, and emits each generated id
+     * (empty for skipped rows) in input order.
+     */
+    Flux<Optional<Long>> insertAll(List<Product> products);
+}
@@ -0,0 +1,33 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ProductBulkRepositoryImpl implements ProductBulkRepository {
+
+    private static final String INSERT = """
+            INSERT INTO product (name, description, stock, sku, branch_id, reorder_threshold, low_stock)
+            VALUES ($1, $2, $3, $4, $5, $6, $7)
+            ON CONFLICT DO NOTHING""";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Optional<Long>> insertAll(List<Product> products) {
+        return BatchStatements.insertReturningIds(databaseClient, INSERT, products, (statement, product) -> {
+            statement.bind(0, product.getName());
+            BatchStatements.bindNullable(statement, 1, product.getDescription(), String.class);
+            statement.bind(2, product.getStock());
+            BatchStatements.bindNullable(statement, 3, product.getSku(), Integer.class);
+            statement.bind(4, product.getBranchId());
+            BatchStatements.bindNullable(statement, 5, product.getReorderThreshold(), Integer.class);
+            statement.bind(6, product.isLowStock());
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.model.StockChange;
+import reactor.core.publisher.Mono;
+
+public interface ProductPatchRepository {
+
+    /**
+     * Updates only the fields present in the request and emits the resulting row, or nothing when it does not exist.
+     * A request that sets or clears the threshold also updates the low-stock flag against the new threshold, the same
+     * way a stock write does.
+     */
+    Mono<StockChange> patch(Long productId, UpdateProductRequest request, int rearmMargin);
+}
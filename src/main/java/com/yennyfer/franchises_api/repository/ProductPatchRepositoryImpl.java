@@ -0,0 +1,30 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.model.StockChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ProductPatchRepositoryImpl implements ProductPatchRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<StockChange> patch(Long productId, UpdateProductRequest request, int rearmMargin) {
+        SparseUpdate update = SparseUpdate.of("product")
+                .set("name", request.name())
+                .setOrClear("sku", request.sku())
+                .setOrClear("description", request.description())
+                .setOrClear("reorder_threshold", request.reorderThreshold())
+                .assign("version", "p.version + 1");
+        if (request.reorderThreshold() != null) {
+            String threshold = request.reorderThreshold().isPresent() ? ":reorder_threshold" : "b.reorder_threshold";
+            update.assign("low_stock", StockChangeRows.lowStock("p.stock", threshold, ":rearm_margin"))
+                    .bind("rearm_margin", rearmMargin);
+        }
+        return update.execute(databaseClient, assignments -> StockChangeRows.patch(assignments, ":id"), productId,
+                StockChangeRows::map);
+    }
+}
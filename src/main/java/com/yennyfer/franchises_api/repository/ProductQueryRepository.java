@@ -0,0 +1,25 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.ProductField;
+import com.yennyfer.franchises_api.dto.ProductFilter;
+import com.yennyfer.franchises_api.model.Product;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface ProductQueryRepository {
+
+    /**
+     * Filtered variant of {@link ProductsRepository#findPageAfter}.
+     */
+    @ReplicaRead
+    Flux<Product> findPageAfter(ProductFilter filter, long afterId, int limit);
+
+    /**
+     * Same page, selecting only {@code fields}; each row maps property name to value, in {@link ProductField} order.
+     */
+    @ReplicaRead
+    Flux<Map<String, Object>> findFieldsPageAfter(ProductFilter filter, Set<ProductField> fields, long afterId,
+                                                  int limit);
+}
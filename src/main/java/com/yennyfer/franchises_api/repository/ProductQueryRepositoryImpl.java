@@ -0,0 +1,103 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.ProductField;
+import com.yennyfer.franchises_api.dto.ProductFilter;
+import com.yennyfer.franchises_api.model.Product;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ProductQueryRepositoryImpl implements ProductQueryRepository {
+
+    private static final Set<ProductField> ALL_FIELDS = EnumSet.allOf(ProductField.class);
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Product> findPageAfter(ProductFilter filter, long afterId, int limit) {
+        return query(filter, ALL_FIELDS, afterId, limit)
+                .map(ProductRows::map)
+                .all();
+    }
+
+    @Override
+    public Flux<Map<String, Object>> findFieldsPageAfter(ProductFilter filter, Set<ProductField> fields, long afterId,
+                                                         int limit) {
+        Set<ProductField> selected = EnumSet.copyOf(fields);
+        return query(filter, selected, afterId, limit)
+                .map(row -> mapFields(row, selected))
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec query(ProductFilter filter, Set<ProductField> fields, long afterId,
+                                                    int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(fields.stream().map(field -> "p." + field.column()).collect(Collectors.joining(", ")))
+                .append(" FROM product p");
+        if (filter.franchiseId() != null) {
+            sql.append(" JOIN branch b ON b.id = p.branch_id");
+        }
+        sql.append(" WHERE p.id > :afterId");
+        if (filter.branchId() != null) {
+            sql.append(" AND p.branch_id = :branchId");
+        }
+        if (filter.franchiseId() != null) {
+            sql.append(" AND b.franchise_id = :franchiseId");
+        }
+        if (filter.minStock() != null) {
+            sql.append(" AND p.stock >= :minStock");
+        }
+        if (filter.maxStock() != null) {
+            sql.append(" AND p.stock <= :maxStock");
+        }
+        if (filter.sku() != null) {
+            sql.append(" AND p.sku = :sku");
+        }
+        sql.append(" ORDER BY p.id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("afterId", afterId)
+                .bind("limit", limit);
+        if (filter.branchId() != null) {
+            spec = spec.bind("branchId", filter.branchId());
+        }
+        if (filter.franchiseId() != null) {
+            spec = spec.bind("franchiseId", filter.franchiseId());
+        }
+        if (filter.minStock() != null) {
+            spec = spec.bind("minStock", filter.minStock());
+        }
+        if (filter.maxStock() != null) {
+            spec = spec.bind("maxStock", filter.maxStock());
+        }
+        if (filter.sku() != null) {
+            spec = spec.bind("sku", filter.sku());
+        }
+        return spec;
+    }
+
+    private static Map<String, Object> mapFields(Readable row, Set<ProductField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ProductField field : fields) {
+            values.put(field.property(), read(row, field));
+        }
+        return values;
+    }
+
+    private static Object read(Readable row, ProductField field) {
+        return switch (field) {
+            case ID, BRANCH_ID, VERSION -> DetailRows.toLong(row.get(field.column(), Number.class));
+            case STOCK, SKU, REORDER_THRESHOLD -> row.get(field.column(), Integer.class);
+            case LOW_STOCK -> row.get(field.column(), Boolean.class);
+            case NAME, DESCRIPTION -> row.get(field.column(), String.class);
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.Product;
+import io.r2dbc.spi.Readable;
+
+final class ProductRows {
+
+    private ProductRows() {
+    }
+
+    static Product map(Readable row) {
+        return Product.builder()
+                .id(DetailRows.toLong(row.get("id", Number.class)))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .stock(row.get("stock", Integer.class))
+                .sku(row.get("sku", Integer.class))
+                .branchId(DetailRows.toLong(row.get("branch_id", Number.class)))
+                .version(DetailRows.toLong(row.get("version", Number.class)))
+                .reorderThreshold(row.get("reorder_threshold", Integer.class))
+                .lowStock(Boolean.TRUE.equals(row.get("low_stock", Boolean.class)))
+                .build();
+    }
+}
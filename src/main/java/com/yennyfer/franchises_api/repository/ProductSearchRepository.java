@@ -0,0 +1,14 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import reactor.core.publisher.Flux;
+
+public interface ProductSearchRepository {
+
+    /**
+     * Products whose name or description contains {@code query}, or whose name is similar to it, best matches first.
+     * Relies on {@code pg_trgm}, so it only runs on Postgres.
+     */
+    @ReplicaRead
+    Flux<ProductSearchResult> search(String query, Long franchiseId, int limit, long offset);
+}
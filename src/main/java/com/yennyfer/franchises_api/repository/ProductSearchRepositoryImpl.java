@@ -0,0 +1,70 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    /**
+     * Name hits rank above description-only hits; within each group, names closer to the query come first.
+     */
+    private static final String SELECT = """
+    SELECT
+        p.id,
+        p.name,
+        p.description,
+        p.stock,
+        p.sku,
+        p.branch_id,
+        similarity(p.name, :query) + CASE WHEN p.name ILIKE :pattern THEN 1 ELSE 0 END AS rank
+    FROM product p
+""";
+
+    private static final String WHERE = """
+    WHERE (p.name ILIKE :pattern OR p.description ILIKE :pattern OR p.name % :query)
+""";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<ProductSearchResult> search(String query, Long franchiseId, int limit, long offset) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (franchiseId != null) {
+            sql.append("JOIN branch b ON b.id = p.branch_id\n");
+        }
+        sql.append(WHERE);
+        if (franchiseId != null) {
+            sql.append("AND b.franchise_id = :franchiseId\n");
+        }
+        sql.append("ORDER BY rank DESC, p.id LIMIT :limit OFFSET :offset");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("query", query)
+                .bind("pattern", "%" + escapeLike(query) + "%")
+                .bind("limit", limit)
+                .bind("offset", offset);
+        if (franchiseId != null) {
+            spec = spec.bind("franchiseId", franchiseId);
+        }
+        return spec.map(ProductSearchRepositoryImpl::map).all();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static ProductSearchResult map(Readable row) {
+        return new ProductSearchResult(
+                DetailRows.toLong(row.get("id", Number.class)),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("stock", Integer.class),
+                row.get("sku", Integer.class),
+                DetailRows.toLong(row.get("branch_id", Number.class)),
+                row.get("rank", Number.class).doubleValue());
+    }
+}
@@ -0,0 +1,21 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.model.StockChange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductStockBatchRepository {
+
+    /**
+     * Applies every item as one batched statement and emits, in input order, the change each item made or empty when
+     * it updated nothing. Like {@code addStockIfAvailable}, an item that would leave the stock below zero updates
+     * nothing, and the low-stock flag is updated the same way.
+     * <p>
+     * The items are applied in ascending product id order, keeping the input order of items for the same product, so
+     * two batches over the same products lock their rows in the same order and cannot deadlock each other.
+     */
+    Flux<Optional<StockChange>> applyStockUpdates(List<StockUpdateItem> items, int rearmMargin);
+}
@@ -0,0 +1,58 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.model.StockChange;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+public class ProductStockBatchRepositoryImpl implements ProductStockBatchRepository {
+
+    private static final String UPDATE_STOCK = StockChangeRows.update("COALESCE($1, p.stock + $2)", "$3", "$4", true);
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Optional<StockChange>> applyStockUpdates(List<StockUpdateItem> items, int rearmMargin) {
+        if (items.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Integer> order = IntStream.range(0, items.size()).boxed()
+                .sorted(Comparator.comparing(index -> items.get(index).productId()))
+                .toList();
+        List<StockUpdateItem> sorted = order.stream().map(items::get).toList();
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(UPDATE_STOCK);
+            BatchStatements.bindAll(statement, sorted, (binding, item) -> {
+                BatchStatements.bindNullable(binding, 0, item.stock(), Integer.class);
+                BatchStatements.bindNullable(binding, 1, item.delta(), Integer.class);
+                binding.bind(2, item.productId());
+                binding.bind(3, rearmMargin);
+            });
+            return Flux.from(statement.execute())
+                    .concatMap(result -> Flux.from(result.map(StockChangeRows::map))
+                            .collectList()
+                            .map(rows -> rows.stream().findFirst()));
+        })
+                .collectList()
+                .flatMapIterable(changes -> inInputOrder(order, changes));
+    }
+
+    private static List<Optional<StockChange>> inInputOrder(List<Integer> order,
+                                                            List<Optional<StockChange>> changes) {
+        List<Optional<StockChange>> inputOrder = new ArrayList<>(Collections.nCopies(changes.size(), Optional.empty()));
+        for (int i = 0; i < changes.size(); i++) {
+            inputOrder.set(order.get(i), changes.get(i));
+        }
+        return inputOrder;
+    }
+}
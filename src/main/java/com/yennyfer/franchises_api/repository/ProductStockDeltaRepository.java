@@ -0,0 +1,18 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockChange;
+import reactor.core.publisher.Mono;
+
+public interface ProductStockDeltaRepository {
+
+    /**
+     * Adds {@code delta} to the stock, updates the low-stock flag and emits the change, or nothing when the product does
+     * not exist. A low product recovers once its stock reaches the threshold plus {@code rearmMargin}.
+     */
+    Mono<StockChange> addStock(Long id, int delta, int rearmMargin);
+
+    /**
+     * Same as {@link #addStock} but leaves the row untouched, and emits nothing, when stock would go below zero.
+     */
+    Mono<StockChange> addStockIfAvailable(Long id, int delta, int rearmMargin);
+}
@@ -0,0 +1,36 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ProductStockDeltaRepositoryImpl implements ProductStockDeltaRepository {
+
+    private static final String ADD_STOCK = StockChangeRows.update("p.stock + :delta", ":id", ":rearmMargin", false);
+
+    private static final String ADD_STOCK_IF_AVAILABLE =
+            StockChangeRows.update("p.stock + :delta", ":id", ":rearmMargin", true);
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<StockChange> addStock(Long id, int delta, int rearmMargin) {
+        return execute(ADD_STOCK, id, delta, rearmMargin);
+    }
+
+    @Override
+    public Mono<StockChange> addStockIfAvailable(Long id, int delta, int rearmMargin) {
+        return execute(ADD_STOCK_IF_AVAILABLE, id, delta, rearmMargin);
+    }
+
+    private Mono<StockChange> execute(String sql, Long id, int delta, int rearmMargin) {
+        return databaseClient.sql(sql)
+                .bind("id", id)
+                .bind("delta", delta)
+                .bind("rearmMargin", rearmMargin)
+                .map(StockChangeRows::map)
+                .one();
+    }
+}
@@ -5,12 +5,26 @@ import com.yennyfer.franchises_api.model.Product;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface ProductsRepository extends ReactiveCrudRepository<Product, Long> {
+public interface ProductsRepository extends ReactiveCrudRepository<Product, Long>, ProductStockBatchRepository,
+        ProductStockDeltaRepository, ProductBulkRepository, ProductPatchRepository, ProductSearchRepository,
+        ProductQueryRepository {
 
+    @ReplicaRead
     Flux<Product> findByBranchId(Long branchId);
-    Flux<Product> findByName(String name);
 
+    /**
+     * Emits the removed row, or nothing when there was none, so the caller needs no lookup before deleting.
+     */
+    @Query("DELETE FROM product WHERE id = :productId RETURNING *")
+    Mono<Product> removeById(Long productId);
+
+    @ReplicaRead
+    @Query("SELECT * FROM product WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<Product> findPageAfter(long afterId, int limit);
+
+    @ReplicaRead
     @Query("""
     SELECT
         p.id AS product_id,
@@ -18,14 +32,30 @@ public interface ProductsRepository extends ReactiveCrudRepository<Product, Long
         p.stock AS stock,
         b.id AS branch_id,
         b.name AS branch_name
-    FROM product p
-    JOIN branch b ON p.branch_id = b.id
+    FROM branch b
+    JOIN branch_max_stock m ON m.branch_id = b.id
+    JOIN product p ON p.branch_id = b.id AND p.stock = m.max_stock
     WHERE b.franchise_id = :franchiseId
-      AND p.stock = (
-          SELECT MAX(p2.stock)
-          FROM product p2
-          WHERE p2.branch_id = b.id
-      )
+    ORDER BY b.id, p.id
 """)
     Flux<ProductMaxStockResponse> findProductsWithMaxStockPerFranchise(Long franchiseId);
+
+    /**
+     * Single-branch variant of {@link #findProductsWithMaxStockPerFranchise}. Reads the primary, since it runs right
+     * after the write it follows up on.
+     */
+    @Query("""
+    SELECT
+        p.id AS product_id,
+        p.name AS product_name,
+        p.stock AS stock,
+        b.id AS branch_id,
+        b.name AS branch_name
+    FROM branch b
+    JOIN branch_max_stock m ON m.branch_id = b.id
+    JOIN product p ON p.branch_id = b.id AND p.stock = m.max_stock
+    WHERE b.id = :branchId
+    ORDER BY p.id
+""")
+    Flux<ProductMaxStockResponse> findProductsWithMaxStockPerBranch(Long branchId);
 }
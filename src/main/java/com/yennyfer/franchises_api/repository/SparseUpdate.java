@@ -0,0 +1,116 @@
+package com.yennyfer.franchises_api.repository;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds {@code UPDATE ... SET ... WHERE id = :id RETURNING *} from the non-null values only, so a partial update
+ * neither rewrites nor logs the columns the client left out, and reads the result back in the same round trip.
+ * Columns the client cleared are set to {@code NULL}. Column names come from the calling repository, never from the
+ * request.
+ */
+final class SparseUpdate {
+
+    private final String table;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final List<String> cleared = new ArrayList<>();
+    private final List<String> counters = new ArrayList<>();
+    private final Map<String, String> expressions = new LinkedHashMap<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private SparseUpdate(String table) {
+        this.table = table;
+    }
+
+    static SparseUpdate of(String table) {
+        return new SparseUpdate(table);
+    }
+
+    SparseUpdate set(String column, Object value) {
+        if (value != null) {
+            values.put(column, value);
+        }
+        return this;
+    }
+
+    /**
+     * For a nullable column: {@code null} leaves it unchanged and an empty value clears it.
+     */
+    SparseUpdate setOrClear(String column, Optional<?> value) {
+        if (value != null) {
+            value.ifPresentOrElse(present -> values.put(column, present), () -> cleared.add(column));
+        }
+        return this;
+    }
+
+    /**
+     * Adds one to the column along with the other changes; on its own it does not make the update worth running.
+     */
+    SparseUpdate increment(String column) {
+        counters.add(column);
+        return this;
+    }
+
+    /**
+     * Sets the column to a SQL expression of the calling repository, evaluated against the row before the update. Like
+     * {@link #increment}, it does not make the update worth running on its own.
+     */
+    SparseUpdate assign(String column, String expression) {
+        expressions.put(column, expression);
+        return this;
+    }
+
+    /**
+     * Binds a named parameter used by an {@link #assign} expression.
+     */
+    SparseUpdate bind(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Emits the updated row, or nothing when no row has the id.
+     */
+    <T> Mono<T> execute(DatabaseClient databaseClient, Long id, Function<Readable, T> mapper) {
+        return execute(databaseClient,
+                assignments -> "UPDATE " + table + " SET " + assignments + " WHERE id = :id RETURNING *", id, mapper);
+    }
+
+    /**
+     * Like {@link #execute(DatabaseClient, Long, Function)}, but the calling repository builds the statement around
+     * the assignments, for an UPDATE that joins or returns more than the row itself.
+     */
+    <T> Mono<T> execute(DatabaseClient databaseClient, Function<String, String> statement, Long id,
+                        Function<Readable, T> mapper) {
+        if (values.isEmpty() && cleared.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("No hay campos para actualizar"));
+        }
+        String assignments = Stream.of(
+                        values.keySet().stream().map(column -> column + " = :" + column),
+                        cleared.stream().map(column -> column + " = NULL"),
+                        counters.stream().map(column -> column + " = " + column + " + 1"),
+                        expressions.entrySet().stream().map(entry -> entry.getKey() + " = " + entry.getValue()))
+                .flatMap(columns -> columns)
+                .collect(Collectors.joining(", "));
+        DatabaseClient.GenericExecuteSpec spec = databaseClient
+                .sql(statement.apply(assignments))
+                .bind("id", id);
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map(mapper).one();
+    }
+}
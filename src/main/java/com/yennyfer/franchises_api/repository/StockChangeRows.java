@@ -0,0 +1,66 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockChange;
+import io.r2dbc.spi.Readable;
+
+/**
+ * Postgres only. The product UPDATE shared by the delta, batch and patch writes: it recomputes {@code low_stock} with
+ * the same rule as {@code LowStockCheck} and returns the row with the stock and flag it replaced. The locking CTE makes
+ * those the values the update actually started from, even when a concurrent write committed in between.
+ */
+final class StockChangeRows {
+
+    private static final String UPDATE = """
+    WITH previous AS (
+        SELECT id, stock, low_stock FROM product WHERE id = %2$s FOR UPDATE
+    )
+    UPDATE product p
+    SET %1$s
+    FROM previous, branch b
+    WHERE p.id = previous.id AND b.id = p.branch_id%3$s
+    RETURNING p.*, previous.stock AS previous_stock, previous.low_stock AS was_low_stock,
+        COALESCE(p.reorder_threshold, b.reorder_threshold) AS threshold, b.franchise_id
+""";
+
+    private static final String LOW_STOCK = "CASE WHEN %2$s IS NULL THEN FALSE"
+            + " WHEN p.low_stock THEN %1$s < %2$s + %3$s ELSE %1$s < %2$s END";
+
+    private static final String THRESHOLD = "COALESCE(p.reorder_threshold, b.reorder_threshold)";
+
+    private StockChangeRows() {
+    }
+
+    /**
+     * Sets the stock of product {@code id} to {@code newStock}, skipping the row when {@code onlyIfAvailable} and the
+     * new stock would be negative. The arguments are SQL expressions, typically bind markers.
+     */
+    static String update(String newStock, String id, String rearmMargin, boolean onlyIfAvailable) {
+        String assignments = "stock = " + newStock + ", version = p.version + 1, low_stock = "
+                + lowStock(newStock, THRESHOLD, rearmMargin);
+        return UPDATE.formatted(assignments, id, onlyIfAvailable ? " AND " + newStock + " >= 0" : "");
+    }
+
+    /**
+     * Applies {@code assignments} to product {@code id} and returns it like {@link #update} does. Expressions in the
+     * assignments see the row as it was, aliased {@code p}, and its branch as {@code b}.
+     */
+    static String patch(String assignments, String id) {
+        return UPDATE.formatted(assignments, id, "");
+    }
+
+    /**
+     * The low-stock flag for {@code stock} against {@code threshold}, starting from the row's current flag.
+     */
+    static String lowStock(String stock, String threshold, String rearmMargin) {
+        return LOW_STOCK.formatted(stock, threshold, rearmMargin);
+    }
+
+    static StockChange map(Readable row) {
+        return new StockChange(
+                ProductRows.map(row),
+                row.get("previous_stock", Integer.class),
+                Boolean.TRUE.equals(row.get("was_low_stock", Boolean.class)),
+                row.get("threshold", Integer.class),
+                DetailRows.toLong(row.get("franchise_id", Number.class)));
+    }
+}
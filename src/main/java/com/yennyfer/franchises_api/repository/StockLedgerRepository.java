@@ -0,0 +1,41 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockMovement;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface StockLedgerRepository {
+
+    /**
+     * Appends every movement as one batched statement.
+     */
+    Mono<Void> appendAll(List<StockMovement> movements);
+
+    /**
+     * Folds the movements recorded since the last compaction and before {@code cutoff} into the snapshots and moves the
+     * watermark to {@code cutoff}. Emits how many snapshots changed; must run in a transaction.
+     */
+    Mono<Long> compact(OffsetDateTime cutoff);
+
+    /**
+     * Postgres only: the latest cutoff {@link #compact} can use without skipping a movement, {@code lag} before the
+     * database clock or before the start of the oldest open transaction, whichever is earlier. A movement is stamped
+     * with the start of its transaction, so one that commits after the compaction still lands past the watermark.
+     * Other sessions' transactions are only seen when they run as the same role or the role has
+     * {@code pg_read_all_stats}.
+     */
+    Mono<OffsetDateTime> findCompactionCutoff(Duration lag);
+
+    /**
+     * The product's stock rebuilt from its snapshot plus the movements since the last compaction.
+     */
+    Mono<Integer> rebuildStock(Long productId);
+
+    /**
+     * Postgres only: creates the missing monthly partitions up to {@code monthsAhead} months from now.
+     */
+    Mono<Integer> createPartitions(int monthsAhead);
+}
@@ -0,0 +1,125 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockMovement;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class StockLedgerRepositoryImpl implements StockLedgerRepository {
+
+    private static final String APPEND = """
+            INSERT INTO stock_movement (product_id, branch_id, kind, delta, stock)
+            VALUES ($1, $2, $3, $4, $5)""";
+
+    /**
+     * The row lock makes concurrent compactions on several instances run one after the other, each starting from the
+     * watermark the previous one left.
+     */
+    private static final String LOCK_WATERMARK =
+            "SELECT compacted_until FROM stock_compaction WHERE id = 1 FOR UPDATE";
+
+    private static final String MERGE_SNAPSHOTS = """
+    MERGE INTO stock_snapshot s
+    USING (
+        SELECT product_id, SUM(delta) AS delta
+        FROM stock_movement
+        WHERE created_at >= :from AND created_at < :cutoff
+        GROUP BY product_id
+    ) m
+    ON s.product_id = m.product_id
+    WHEN MATCHED THEN UPDATE SET stock = s.stock + m.delta
+    WHEN NOT MATCHED THEN INSERT (product_id, stock) VALUES (m.product_id, m.delta)
+""";
+
+    private static final String FIND_CUTOFF = """
+    SELECT LEAST(now(), (
+        SELECT MIN(xact_start) FROM pg_stat_activity
+        WHERE datname = current_database() AND backend_type = 'client backend' AND pid <> pg_backend_pid()
+    )) - make_interval(secs => :lagSeconds) AS cutoff
+""";
+
+    private static final String MOVE_WATERMARK = "UPDATE stock_compaction SET compacted_until = :cutoff WHERE id = 1";
+
+    private static final String REBUILD_STOCK = """
+    SELECT
+        COALESCE((SELECT stock FROM stock_snapshot WHERE product_id = :productId), 0)
+        + COALESCE((
+            SELECT SUM(m.delta)
+            FROM stock_movement m
+            WHERE m.product_id = :productId
+              AND m.created_at >= (SELECT compacted_until FROM stock_compaction WHERE id = 1)
+        ), 0) AS stock
+""";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Void> appendAll(List<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(APPEND);
+                    BatchStatements.bindAll(statement, movements, (binding, movement) -> {
+                        binding.bind(0, movement.getProductId());
+                        binding.bind(1, movement.getBranchId());
+                        binding.bind(2, movement.getKind().name());
+                        binding.bind(3, movement.getDelta());
+                        binding.bind(4, movement.getStock());
+                    });
+                    return Flux.from(statement.execute())
+                            .concatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Long> compact(OffsetDateTime cutoff) {
+        return databaseClient.sql(LOCK_WATERMARK)
+                .map(row -> row.get("compacted_until", OffsetDateTime.class))
+                .one()
+                .filter(from -> from.isBefore(cutoff))
+                .flatMap(from -> databaseClient.sql(MERGE_SNAPSHOTS)
+                        .bind("from", from)
+                        .bind("cutoff", cutoff)
+                        .fetch()
+                        .rowsUpdated()
+                        .flatMap(merged -> databaseClient.sql(MOVE_WATERMARK)
+                                .bind("cutoff", cutoff)
+                                .then()
+                                .thenReturn(merged)))
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<OffsetDateTime> findCompactionCutoff(Duration lag) {
+        return databaseClient.sql(FIND_CUTOFF)
+                .bind("lagSeconds", lag.toMillis() / 1000.0)
+                .map(row -> row.get("cutoff", OffsetDateTime.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Integer> rebuildStock(Long productId) {
+        return databaseClient.sql(REBUILD_STOCK)
+                .bind("productId", productId)
+                .map(row -> row.get("stock", Number.class).intValue())
+                .one();
+    }
+
+    @Override
+    public Mono<Integer> createPartitions(int monthsAhead) {
+        return databaseClient.sql("SELECT create_stock_movement_partitions(:monthsAhead) AS created")
+                .bind("monthsAhead", monthsAhead)
+                .map(row -> row.get("created", Integer.class))
+                .one();
+    }
+}
@@ -0,0 +1,38 @@
+package com.yennyfer.franchises_api.repository;
+
+import com.yennyfer.franchises_api.model.StockMovement;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+public interface StockMovementRepository extends ReactiveCrudRepository<StockMovement, Long>, StockLedgerRepository {
+
+    @Modifying
+    @Query("""
+    INSERT INTO stock_movement (product_id, branch_id, kind, delta, stock)
+    VALUES (:productId, :branchId, :kind, :delta, :stock)
+""")
+    Mono<Integer> append(Long productId, Long branchId, String kind, int delta, int stock);
+
+    @ReplicaRead
+    @Query("""
+    SELECT id, product_id, branch_id, kind, delta, stock, created_at
+    FROM stock_movement
+    WHERE product_id = :productId AND created_at >= :from AND created_at < :to
+    ORDER BY created_at, id
+""")
+    Flux<StockMovement> findByProductIdBetween(Long productId, OffsetDateTime from, OffsetDateTime to);
+
+    @ReplicaRead
+    @Query("""
+    SELECT id, product_id, branch_id, kind, delta, stock, created_at
+    FROM stock_movement
+    WHERE branch_id = :branchId AND created_at >= :from AND created_at < :to
+    ORDER BY created_at, id
+""")
+    Flux<StockMovement> findByBranchIdBetween(Long branchId, OffsetDateTime from, OffsetDateTime to);
+}
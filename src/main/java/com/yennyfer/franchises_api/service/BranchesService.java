@@ -1,54 +1,110 @@
 package com.yennyfer.franchises_api.service;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.StockEvent;
 import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
+import com.yennyfer.franchises_api.events.AfterCommit;
+import com.yennyfer.franchises_api.events.StockEventBus;
 import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.BranchAggregate;
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.repository.BranchMaxStockRepository;
 import com.yennyfer.franchises_api.repository.BranchRepository;
-import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class BranchesService {
 
+    private static final String NAME_INDEX = "branch_name_idx";
+
     private final BranchRepository branchRepository;
-    private final ProductsRepository productsRepository;
+    private final BranchMaxStockRepository branchMaxStockRepository;
+    private final BranchReadCache branchReadCache;
+    private final FranchisesRepository franchisesRepository;
+    private final BulkProperties bulkProperties;
+    private final FranchiseRevisions franchiseRevisions;
+    private final StockEventBus stockEventBus;
 
+    /**
+     * Any id or version in the body is ignored, as in {@link FranchisesService#createFranchise}.
+     */
+    @Transactional
     public Mono<Branch> createBranch(Branch branch) {
-        return branchRepository.findByName(
-                        branch.getName()
-                ).collectList()
-                .flatMap(existingBranches -> {
-                    ;
-                    if (!existingBranches.isEmpty()) {
-                        return Mono.error(new IllegalArgumentException("La sucursal con el nombre proporcionado ya existe."));
-                    }
-                    return branchRepository.save(branch);
-                });
+        branch.setId(null);
+        branch.setVersion(null);
+        return branchRepository.save(branch)
+                .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                .flatMap(saved -> branchMaxStockRepository.initialize(saved.getId())
+                        .then(franchiseRevisions.bump(List.of(saved.getFranchiseId())))
+                        .then(AfterCommit.run(() -> branchReadCache.evictCreated(saved)))
+                        .thenReturn(saved));
+    }
 
+    /**
+     * The franchises of every created branch are bumped once, after the last batch.
+     */
+    @Transactional
+    public Flux<BulkCreateResult> createBranches(Flux<Branch> branches) {
+        return Flux.defer(() -> {
+            Set<Long> touchedFranchises = new HashSet<>();
+            return branches.buffer(bulkProperties.batchSize())
+                    .concatMap(batch -> createBranchBatch(batch, touchedFranchises))
+                    .concatWith(Flux.defer(() -> franchiseRevisions.bump(touchedFranchises).thenMany(Flux.empty())));
+        });
     }
 
-    public Flux<Branch> getAllBranches(){
-        return branchRepository.findAll();
+    public Mono<PageResponse<Branch>> getAllBranches(Integer limit, String after) {
+        return Mono.defer(() -> {
+            int pageSize = KeysetPages.resolveLimit(limit);
+            long afterId = KeysetPages.decodeCursor(after);
+            return branchReadCache.findPageAfter(afterId, pageSize + 1)
+                    .collectList()
+                    .map(rows -> KeysetPages.toPage(rows, pageSize, Branch::getId));
+        });
     }
 
-    public Flux<BranchAggregate> getAllBranchesWithDetails() {
-        return branchRepository.findAll().flatMap(this::mapBranchToAggregate);
+    public Mono<Branch> getBranch(Long branchId) {
+        return branchReadCache.findById(branchId)
+                .switchIfEmpty(Mono.error(branchNotFound()));
+    }
+
+    public Flux<Branch> getBranchesByFranchise(Long franchiseId) {
+        return branchReadCache.findByFranchiseId(franchiseId);
     }
 
-    private Mono<BranchAggregate> mapBranchToAggregate(Branch branch) {
-        return productsRepository.findByBranchId(branch.getId())
-                .collectList()
-                .map(products -> new BranchAggregate(branch, products));
+    public Flux<BranchAggregate> getAllBranchesWithDetails() {
+        return branchRepository.findAllBranchesWithDetails()
+                .bufferUntilChanged(FranchiseDetailRow::branchId)
+                .map(DetailAggregates::toBranchAggregate);
     }
 
 
+    /**
+     * A move locks the branch first to learn the franchise it leaves; both franchises are bumped and the leaderboard
+     * is told the branch left one and joined the other.
+     */
+    @Transactional
     public Mono<Branch> updateBranch(
             Long branchId,
             @Valid UpdateBranchRequest request) {
@@ -58,30 +114,90 @@ public class BranchesService {
                     new IllegalArgumentException("El cuerpo de la petición es obligatorio")
             );
         }
-        return branchRepository.findById(branchId)
-                .switchIfEmpty(Mono.error(
-                        new ResponseStatusException(HttpStatus.NOT_FOUND, "Sucursal no encontrada")
-                ))
-                .flatMap(branch -> {
-                    branch.setName(request.name());
-                    branch.setAddress(request.address());
-                    branch.setFranchiseId(request.franchiseId());
-                    return branchRepository.save(branch);
-                });
+        if (!request.hasChanges()) {
+            return getBranch(branchId);
+        }
+        if (request.franchiseId() == null) {
+            return patchBranch(branchId, request, null);
+        }
+        return branchRepository.lockFranchiseId(branchId)
+                .flatMap(previousFranchiseId -> patchBranch(branchId, request, previousFranchiseId))
+                .switchIfEmpty(Mono.error(branchNotFound()));
     }
 
+    @Transactional
     public Mono<Void> deleteBranch(Long branchId) {
-        return branchRepository.existsById(branchId)
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return Mono.error(
-                                new ResponseStatusException(
-                                        HttpStatus.NOT_FOUND,
-                                        "La sucursal no existe"
-                                )
-                        );
-                    }
-                    return branchRepository.deleteById(branchId);
+        return branchRepository.removeById(branchId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "La sucursal no existe")))
+                .flatMap(franchiseId -> franchiseRevisions.bump(List.of(franchiseId))
+                        .then(stockEventBus.publishBranch(StockEvent.Type.BRANCH_REMOVED, franchiseId, branchId))
+                        .then(AfterCommit.run(() -> branchReadCache.evict(branchId, null))));
+    }
+
+    private Mono<Branch> patchBranch(Long branchId, UpdateBranchRequest request, Long previousFranchiseId) {
+        return branchRepository.patch(branchId, request)
+                .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                .switchIfEmpty(Mono.error(branchNotFound()))
+                .flatMap(saved -> franchiseRevisions.bump(Arrays.asList(previousFranchiseId, saved.getFranchiseId()))
+                        .then(publishBranchChange(previousFranchiseId, saved, request))
+                        .then(AfterCommit.run(() -> branchReadCache.evict(branchId, saved.getFranchiseId())))
+                        .thenReturn(saved));
+    }
+
+    /**
+     * Leaders carry the branch name, so a rename is published as well as a move.
+     */
+    private Mono<Void> publishBranchChange(Long previousFranchiseId, Branch saved, UpdateBranchRequest request) {
+        boolean moved = previousFranchiseId != null && !previousFranchiseId.equals(saved.getFranchiseId());
+        Mono<Void> removed = moved
+                ? stockEventBus.publishBranch(StockEvent.Type.BRANCH_REMOVED, previousFranchiseId, saved.getId())
+                : Mono.empty();
+        Mono<Void> updated = moved || request.name() != null
+                ? stockEventBus.publishBranch(StockEvent.Type.BRANCH_UPDATED, saved.getFranchiseId(), saved.getId())
+                : Mono.empty();
+        return removed.then(updated);
+    }
+
+    private static ResponseStatusException branchNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Sucursal no encontrada");
+    }
+
+    private static IllegalArgumentException duplicateName() {
+        return new IllegalArgumentException("La sucursal con el nombre proporcionado ya existe.");
+    }
+
+    /**
+     * Checks every referenced franchise with one query, so a missing parent is reported instead of failing the batch.
+     */
+    private Flux<BulkCreateResult> createBranchBatch(List<Branch> batch, Set<Long> touchedFranchises) {
+        Set<Long> franchiseIds = batch.stream()
+                .filter(Objects::nonNull)
+                .map(Branch::getFranchiseId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return franchisesRepository.findAllById(franchiseIds)
+                .map(Franchise::getId)
+                .collect(Collectors.toSet())
+                .flatMapMany(existing -> {
+                    List<Branch> valid = batch.stream()
+                            .filter(branch -> branch != null && StringUtils.hasText(branch.getName())
+                                    && existing.contains(branch.getFranchiseId()))
+                            .toList();
+                    return branchRepository.insertAll(valid)
+                            .collectList()
+                            .map(ids -> BulkResults.merge(batch, valid, ids, Branch::getName, Branch::setId))
+                            .flatMap(results -> initializeCreated(valid, touchedFranchises).thenReturn(results))
+                            .flatMapIterable(results -> results);
                 });
     }
+
+    private Mono<Void> initializeCreated(List<Branch> inserted, Set<Long> touchedFranchises) {
+        List<Branch> created = inserted.stream().filter(branch -> branch.getId() != null).toList();
+        if (created.isEmpty()) {
+            return Mono.empty();
+        }
+        created.forEach(branch -> touchedFranchises.add(branch.getFranchiseId()));
+        return branchMaxStockRepository.initializeAll(created.stream().map(Branch::getId).toList())
+                .then(AfterCommit.run(() -> created.forEach(branchReadCache::evictCreated)));
+    }
 }
@@ -0,0 +1,37 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+final class BulkResults {
+
+    private BulkResults() {
+    }
+
+    /**
+     * Lines up the ids returned for the {@code inserted} subset with the full {@code batch}, in batch order, and stores
+     * each generated id on its entity. Items left out of {@code inserted} are reported as invalid.
+     */
+    static <T> List<BulkCreateResult> merge(List<T> batch, List<T> inserted, List<Optional<Long>> ids,
+                                            Function<T, String> nameOf, BiConsumer<T, Long> setId) {
+        List<BulkCreateResult> results = new ArrayList<>(batch.size());
+        int next = 0;
+        for (T item : batch) {
+            String name = item == null ? null : nameOf.apply(item);
+            if (next < inserted.size() && inserted.get(next) == item) {
+                Optional<Long> id = ids.get(next++);
+                id.ifPresent(value -> setId.accept(item, value));
+                results.add(id.map(value -> new BulkCreateResult(name, value, BulkCreateResult.Status.CREATED))
+                        .orElseGet(() -> new BulkCreateResult(name, null, BulkCreateResult.Status.DUPLICATE)));
+            } else {
+                results.add(new BulkCreateResult(name, null, BulkCreateResult.Status.INVALID));
+            }
+        }
+        return results;
+    }
+}
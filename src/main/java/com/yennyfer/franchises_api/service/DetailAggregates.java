@@ -0,0 +1,76 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.BranchAggregate;
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.model.FranchiseAggregate;
+import com.yennyfer.franchises_api.model.Product;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+final class DetailAggregates {
+
+    private DetailAggregates() {
+    }
+
+    static FranchiseAggregate toFranchiseAggregate(List<FranchiseDetailRow> rows) {
+        FranchiseDetailRow first = rows.get(0);
+        Franchise franchise = Franchise.builder()
+                .id(first.franchiseId())
+                .name(first.franchiseName())
+                .build();
+
+        Map<Long, BranchAggregate> branches = new LinkedHashMap<>();
+        for (FranchiseDetailRow row : rows) {
+            if (row.branchId() == null) {
+                continue;
+            }
+            BranchAggregate branch = branches.computeIfAbsent(row.branchId(), id -> newBranchAggregate(row));
+            addProduct(branch, row);
+        }
+        return new FranchiseAggregate(franchise, List.copyOf(branches.values()));
+    }
+
+    static boolean sameBranch(FranchiseDetailRow previous, FranchiseDetailRow current) {
+        return previous.franchiseId().equals(current.franchiseId())
+                && Objects.equals(previous.branchId(), current.branchId());
+    }
+
+    static BranchAggregate toBranchAggregate(List<FranchiseDetailRow> rows) {
+        BranchAggregate branch = newBranchAggregate(rows.get(0));
+        for (FranchiseDetailRow row : rows) {
+            addProduct(branch, row);
+        }
+        return branch;
+    }
+
+    private static BranchAggregate newBranchAggregate(FranchiseDetailRow row) {
+        return new BranchAggregate(
+                Branch.builder()
+                        .id(row.branchId())
+                        .name(row.branchName())
+                        .address(row.branchAddress())
+                        .franchiseId(row.franchiseId())
+                        .build(),
+                new ArrayList<>());
+    }
+
+    private static void addProduct(BranchAggregate branch, FranchiseDetailRow row) {
+        if (row.productId() == null) {
+            return;
+        }
+        branch.products().add(Product.builder()
+                .id(row.productId())
+                .name(row.productName())
+                .description(row.productDescription())
+                .stock(row.productStock())
+                .sku(row.productSku())
+                .branchId(row.branchId())
+                .build());
+    }
+}
@@ -0,0 +1,55 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Bumps the revision of the franchises a write touched. Services call it once per request, last, so the franchise
+ * rows stay locked for as little of the transaction as possible. When a request touches several franchises their rows
+ * are locked in id order first, so two such requests cannot deadlock on them.
+ */
+@Component
+@RequiredArgsConstructor
+class FranchiseRevisions {
+
+    private final FranchisesRepository franchisesRepository;
+
+    Mono<Void> bump(Collection<Long> franchiseIds) {
+        List<Long> ids = sortedIds(franchiseIds);
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        if (ids.size() == 1) {
+            return franchisesRepository.incrementRevisions(ids).then();
+        }
+        return franchisesRepository.lockRevisions(ids)
+                .then(Mono.defer(() -> franchisesRepository.incrementRevisions(ids)))
+                .then();
+    }
+
+    /**
+     * Must run before the branches are deleted or moved, since the franchise is found through them.
+     */
+    Mono<Void> bumpForBranches(Collection<Long> branchIds) {
+        List<Long> ids = sortedIds(branchIds);
+        if (ids.isEmpty()) {
+            return Mono.empty();
+        }
+        if (ids.size() == 1) {
+            return franchisesRepository.incrementRevisionsOfBranches(ids).then();
+        }
+        return franchisesRepository.findFranchiseIdsOfBranches(ids)
+                .collectList()
+                .flatMap(this::bump);
+    }
+
+    private static List<Long> sortedIds(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+    }
+}
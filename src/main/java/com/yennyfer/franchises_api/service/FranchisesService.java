@@ -1,61 +1,119 @@
 package com.yennyfer.franchises_api.service;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.cache.FranchiseReadCache;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.StockEvent;
 import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
-import com.yennyfer.franchises_api.model.Branch;
-import com.yennyfer.franchises_api.model.BranchAggregate;
+import com.yennyfer.franchises_api.events.AfterCommit;
+import com.yennyfer.franchises_api.events.StockEventBus;
 import com.yennyfer.franchises_api.model.Franchise;
 import com.yennyfer.franchises_api.model.FranchiseAggregate;
-import com.yennyfer.franchises_api.repository.BranchRepository;
 import com.yennyfer.franchises_api.repository.FranchisesRepository;
-import com.yennyfer.franchises_api.repository.ProductsRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FranchisesService {
+    private static final String NAME_INDEX = "franchise_name_idx";
+
     private final FranchisesRepository franchisesRepository;
-    private final BranchRepository branchRepository;
-    private final ProductsRepository productsRepository;
+    private final FranchiseReadCache franchiseReadCache;
+    private final BranchReadCache branchReadCache;
+    private final BulkProperties bulkProperties;
+    private final StockEventBus stockEventBus;
+    private final Set<Long> purging = ConcurrentHashMap.newKeySet();
 
+    /**
+     * Any id or version in the body is ignored: the row always gets a generated id and starts at version 0.
+     */
     public Mono<Franchise> createFranchise(Franchise franchise) {
-        return franchisesRepository.findByName(
-                        franchise.getName()
-                ).collectList()
-                .flatMap(existingFranchises -> {
-                    if (!existingFranchises.isEmpty()) {
-                        return Mono.error(new IllegalArgumentException("La franquicia con el nombre proporcionado ya existe."));
-                    }
-                    return franchisesRepository.save(franchise);
-                }
-        );
+        franchise.setId(null);
+        franchise.setVersion(null);
+        return franchisesRepository.save(franchise)
+                .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                .flatMap(saved -> AfterCommit.run(franchiseReadCache::evictCreated).thenReturn(saved));
+    }
+
+    @Transactional
+    public Flux<BulkCreateResult> createFranchises(Flux<Franchise> franchises) {
+        return franchises.buffer(bulkProperties.batchSize())
+                .concatMap(this::createFranchiseBatch);
     }
 
-    public Flux<Franchise> getAllFranchises() {
-        return franchisesRepository.findAll();
+    public Mono<PageResponse<Franchise>> getAllFranchises(Integer limit, String after) {
+        return Mono.defer(() -> {
+            int pageSize = KeysetPages.resolveLimit(limit);
+            long afterId = KeysetPages.decodeCursor(after);
+            return franchiseReadCache.findPageAfter(afterId, pageSize + 1)
+                    .collectList()
+                    .map(rows -> KeysetPages.toPage(rows, pageSize, Franchise::getId));
+        });
+    }
+
+    public Mono<Franchise> getFranchise(Long franchiseId) {
+        return franchiseReadCache.findById(franchiseId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Franquicia no encontrada")));
     }
 
     public Flux<FranchiseAggregate> getFranchisesWithDetails() {
-        return franchisesRepository.findAll()
-                .flatMap(this::mapFranchiseToAggregate);
+        return franchisesRepository.findAllWithDetails()
+                .bufferUntilChanged(FranchiseDetailRow::franchiseId)
+                .map(DetailAggregates::toFranchiseAggregate);
     }
 
-    private Mono<FranchiseAggregate> mapFranchiseToAggregate(Franchise franchise) {
-        return branchRepository.findByFranchiseId(franchise.getId())
-                .flatMap(this::mapBranchToAggregate)
-                .collectList()
-                .map(branches -> new FranchiseAggregate(franchise, branches));
+    /**
+     * Streaming variant of {@link #getFranchisesWithDetails()} that emits one aggregate per branch, so at most one
+     * branch is held in memory; consecutive elements of the same franchise repeat its header. A franchise without
+     * branches is emitted once with an empty branch list.
+     */
+    public Flux<FranchiseAggregate> streamFranchisesWithDetails() {
+        return franchisesRepository.findAllWithDetails()
+                .bufferUntilChanged(Function.identity(), DetailAggregates::sameBranch)
+                .map(DetailAggregates::toFranchiseAggregate);
     }
 
-    private Mono<BranchAggregate> mapBranchToAggregate(Branch branch) {
-        return productsRepository.findByBranchId(branch.getId())
+    public Mono<FranchiseAggregate> getFranchiseWithDetails(Long franchiseId) {
+        return franchisesRepository.findWithDetails(franchiseId)
                 .collectList()
-                .map(products -> new BranchAggregate(branch, products));
+                .filter(rows -> !rows.isEmpty())
+                .map(DetailAggregates::toFranchiseAggregate)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Franquicia no encontrada")));
+    }
+
+    /**
+     * Entity tag for every franchise-wide listing and aggregate; it changes with any write to any franchise.
+     */
+    public Mono<String> getFranchisesETag() {
+        return franchisesRepository.summarizeRevisions()
+                .map(summary -> "franchises-" + summary.franchises() + "-" + summary.lastId() + "-" + summary.revisions());
+    }
+
+    /**
+     * Entity tag for one franchise and everything below it; empty when the franchise does not exist.
+     */
+    public Mono<String> getFranchiseETag(Long franchiseId) {
+        return franchisesRepository.findRevisionById(franchiseId)
+                .map(revision -> "franchise-" + franchiseId + "-" + revision);
     }
 
     public Mono<Franchise> updateFranchise(
@@ -64,24 +122,78 @@ public class FranchisesService {
         if(request == null) {
             return Mono.error(new IllegalArgumentException("El cuerpo de la petición es obligatorio"));
         }
-    return franchisesRepository.findById(franchiseId).switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Franquicia no encontrada"))).flatMap(franchise -> {
-        franchise.setName(request.name());
-        return franchisesRepository.save(franchise);
-    });
+        if (!request.hasChanges()) {
+            return getFranchise(franchiseId);
+        }
+        return franchisesRepository.patch(franchiseId, request)
+                .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Franquicia no encontrada")))
+                .flatMap(saved -> AfterCommit.run(() -> franchiseReadCache.evict(franchiseId)).thenReturn(saved));
     }
 
     public Mono<Void> deleteFranchise(Long franchiseId) {
+        return franchisesRepository.removeById(franchiseId)
+                .switchIfEmpty(Mono.error(franchiseNotFound()))
+                .flatMap(deleted -> stockEventBus.publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, deleted)
+                        .then(AfterCommit.run(() -> evictFranchise(deleted))));
+    }
+
+    /**
+     * Chunked alternative to {@link #deleteFranchise} for franchises too large for one cascading delete. Products and
+     * then branches are removed in slices of {@code batchSize} rows, each committed on its own together with a bump of
+     * the franchise revision, and the franchise row goes last, so it stays readable until the purge is done. Completes
+     * once the franchise is gone; cancelling stops after the current slice. A second purge of the same franchise is
+     * rejected while one is running.
+     */
+    public Mono<Void> purgeFranchise(Long franchiseId) {
         return franchisesRepository.existsById(franchiseId)
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return Mono.error(
-                                new ResponseStatusException(
-                                        HttpStatus.NOT_FOUND,
-                                        "La franquicia no existe"
-                                )
-                        );
-                    }
-                    return franchisesRepository.deleteById(franchiseId);
+                .flatMap(exists -> exists ? purge(franchiseId) : Mono.error(franchiseNotFound()));
+    }
+
+    private Mono<Void> purge(Long franchiseId) {
+        if (!purging.add(franchiseId)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "La franquicia ya se está purgando"));
+        }
+        int batchSize = bulkProperties.batchSize();
+        return deleteInBatches(() -> franchisesRepository.deleteProductBatch(franchiseId, batchSize), batchSize)
+                .then(deleteInBatches(() -> franchisesRepository.deleteBranchBatch(franchiseId, batchSize), batchSize))
+                .then(Mono.defer(() -> franchisesRepository.removeById(franchiseId)))
+                .flatMap(deleted -> stockEventBus.publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, deleted))
+                .doOnSuccess(done -> log.info("Franquicia {} purgada", franchiseId))
+                .doFinally(signal -> {
+                    purging.remove(franchiseId);
+                    evictFranchise(franchiseId);
                 });
     }
+
+    private static Mono<Void> deleteInBatches(Supplier<Mono<Integer>> batch, int batchSize) {
+        return Mono.defer(batch)
+                .repeat()
+                .takeUntil(deleted -> deleted < batchSize)
+                .then();
+    }
+
+    private void evictFranchise(Long franchiseId) {
+        franchiseReadCache.evict(franchiseId);
+        branchReadCache.evictFranchise(franchiseId);
+    }
+
+    private static ResponseStatusException franchiseNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "La franquicia no existe");
+    }
+
+    private static IllegalArgumentException duplicateName() {
+        return new IllegalArgumentException("La franquicia con el nombre proporcionado ya existe.");
+    }
+
+    private Flux<BulkCreateResult> createFranchiseBatch(List<Franchise> batch) {
+        List<Franchise> valid = batch.stream()
+                .filter(franchise -> franchise != null && StringUtils.hasText(franchise.getName()))
+                .toList();
+        return franchisesRepository.insertAll(valid)
+                .collectList()
+                .map(ids -> BulkResults.merge(batch, valid, ids, Franchise::getName, Franchise::setId))
+                .flatMap(results -> AfterCommit.run(franchiseReadCache::evictCreated).thenReturn(results))
+                .flatMapIterable(results -> results);
+    }
 }
@@ -0,0 +1,89 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.dto.PageResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+final class KeysetPages {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String OFFSET_PREFIX = "offset:";
+
+    private KeysetPages() {
+    }
+
+    static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El límite debe estar entre 1 y " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    static long decodeCursor(String cursor) {
+        return decode(cursor, CURSOR_PREFIX);
+    }
+
+    static String encodeCursor(long id) {
+        return encode(CURSOR_PREFIX, id);
+    }
+
+    static long decodeOffset(String cursor) {
+        return decode(cursor, OFFSET_PREFIX);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row only signals that another page exists.
+     */
+    static <T> PageResponse<T> toPage(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(List.copyOf(items), encodeCursor(idOf.apply(items.get(limit - 1))));
+    }
+
+    /**
+     * Offset-based variant of {@link #toPage} for orderings with no stable key to seek from, such as search rank.
+     */
+    static <T> PageResponse<T> toOffsetPage(List<T> rows, int limit, long offset) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        return new PageResponse<>(List.copyOf(rows.subList(0, limit)), encode(OFFSET_PREFIX, offset + limit));
+    }
+
+    private static long decode(String cursor, String prefix) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(prefix)) {
+                throw new IllegalArgumentException(decoded);
+            }
+            long value = Long.parseLong(decoded.substring(prefix.length()));
+            if (value < 0) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return value;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cursor proporcionado no es válido");
+        }
+    }
+
+    private static String encode(String prefix, long value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((prefix + value).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,46 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockChange;
+
+import java.util.Optional;
+
+/**
+ * Decides from the product's {@code lowStock} flag alone whether a stock change crosses its threshold, and flips the
+ * flag so the same save that writes the stock also records the alert. The delta and batch writes apply the same rule
+ * in their UPDATE, and {@link #crossed} reads the outcome back.
+ */
+final class LowStockCheck {
+
+    private LowStockCheck() {
+    }
+
+    static Integer thresholdOf(Product product, Branch branch) {
+        return product.getReorderThreshold() != null ? product.getReorderThreshold() : branch.getReorderThreshold();
+    }
+
+    static Optional<StockAlert.Type> apply(Product product, Integer threshold, int rearmMargin) {
+        if (threshold == null) {
+            product.setLowStock(false);
+            return Optional.empty();
+        }
+        if (!product.isLowStock() && product.getStock() < threshold) {
+            product.setLowStock(true);
+            return Optional.of(StockAlert.Type.LOW_STOCK);
+        }
+        if (product.isLowStock() && product.getStock() >= threshold + rearmMargin) {
+            product.setLowStock(false);
+            return Optional.of(StockAlert.Type.RECOVERED);
+        }
+        return Optional.empty();
+    }
+
+    static Optional<StockAlert.Type> crossed(StockChange change) {
+        if (change.threshold() == null || change.product().isLowStock() == change.wasLowStock()) {
+            return Optional.empty();
+        }
+        return Optional.of(change.product().isLowStock() ? StockAlert.Type.LOW_STOCK : StockAlert.Type.RECOVERED);
+    }
+}
@@ -0,0 +1,32 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.config.OptimisticLockProperties;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.function.Function;
+
+final class OptimisticRetries {
+
+    private OptimisticRetries() {
+    }
+
+    /**
+     * Re-subscribes the whole read-modify-write when its save finds the row at a newer version, so each attempt starts
+     * from fresh state instead of taking a row lock. Full jitter keeps contending writers from retrying in lockstep.
+     * Once the retries run out the request fails with 409.
+     */
+    static <T> Function<Mono<T>, Mono<T>> onConflict(OptimisticLockProperties properties) {
+        return attempt -> attempt
+                .retryWhen(Retry.backoff(properties.maxRetries(), properties.minBackoff())
+                        .maxBackoff(properties.maxBackoff())
+                        .jitter(1.0)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorMap(OptimisticLockingFailureException.class, e -> new ResponseStatusException(
+                        HttpStatus.CONFLICT, "El recurso fue modificado por otra petición, inténtalo de nuevo"));
+    }
+}
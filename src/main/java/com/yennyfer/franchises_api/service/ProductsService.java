@@ -1,78 +1,487 @@
 package com.yennyfer.franchises_api.service;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.ProductField;
+import com.yennyfer.franchises_api.dto.ProductFilter;
 import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.config.OptimisticLockProperties;
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
 import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.dto.UpdateProductStockDeltaRequest;
 import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+import com.yennyfer.franchises_api.events.StockAlertQueue;
+import com.yennyfer.franchises_api.events.StockEventBus;
+import com.yennyfer.franchises_api.events.StreamingStockAlertSink;
+import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockChange;
+import com.yennyfer.franchises_api.model.StockMovement;
+import com.yennyfer.franchises_api.repository.BranchMaxStockRepository;
+import com.yennyfer.franchises_api.repository.BranchRepository;
 import com.yennyfer.franchises_api.repository.ProductsRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ProductsService {
 
+    private static final String NAME_INDEX = "product_name_idx";
+    private static final int MIN_SEARCH_LENGTH = 3;
+
     private final ProductsRepository productsRepository;
+    private final BranchMaxStockRepository branchMaxStockRepository;
+    private final BulkProperties bulkProperties;
+    private final BranchRepository branchRepository;
+    private final FranchiseRevisions franchiseRevisions;
+    private final StockEventBus stockEventBus;
+    private final OptimisticLockProperties optimisticLockProperties;
+    private final BranchReadCache branchReadCache;
+    private final StockAlertQueue stockAlertQueue;
+    private final StreamingStockAlertSink streamingStockAlertSink;
+    private final StockAlertProperties stockAlertProperties;
+    private final StockLedgerService stockLedgerService;
 
+    /**
+     * A product created below its threshold is saved already flagged and raises its low-stock alert. Any id or version
+     * in the body is ignored, as in {@link FranchisesService#createFranchise}.
+     */
+    @Transactional
     public Mono<Product> createProduct(Product product) {
-        return productsRepository.findByName(product.getName()).collectList().flatMap(existingProducts -> {
-            if (!existingProducts.isEmpty()) {
-                return Mono.error(new IllegalArgumentException("El producto con el nombre proporcionado ya existe."));
-            }
-            return productsRepository.save(product);
+        product.setId(null);
+        product.setVersion(null);
+        return Mono.justOrEmpty(product.getBranchId())
+                .flatMap(branchReadCache::findById)
+                .switchIfEmpty(Mono.error(ProductsService::branchNotFound))
+                .flatMap(branch -> {
+                    Integer threshold = LowStockCheck.thresholdOf(product, branch);
+                    product.setLowStock(false);
+                    Optional<StockAlert.Type> alert =
+                            LowStockCheck.apply(product, threshold, stockAlertProperties.rearmMargin());
+                    return productsRepository.save(product)
+                            .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                            .flatMap(saved -> stockLedgerService.record(saved, StockMovement.Kind.CREATED,
+                                            saved.getStock())
+                                    .then(enqueueAlert(alert, branch.getFranchiseId(), saved, threshold))
+                                    .thenReturn(saved));
+                })
+                .flatMap(saved -> recordStockChange(saved, StockEvent.Type.CREATED));
+    }
+
+    /**
+     * The max-stock summaries and franchises of every touched branch are updated once, after the last batch. Products
+     * created below their threshold raise their low-stock alerts like {@link #createProduct} does.
+     */
+    @Transactional
+    public Flux<BulkCreateResult> createProducts(Flux<Product> products) {
+        return Flux.defer(() -> {
+            Set<Long> touchedBranches = new HashSet<>();
+            return products.buffer(bulkProperties.batchSize())
+                    .concatMap(batch -> createProductBatch(batch, touchedBranches))
+                    .concatWith(refreshBranchesLast(touchedBranches));
+        });
+    }
+
+    public Mono<PageResponse<Product>> getAllProducts(Integer limit, String after) {
+        return getAllProducts(ProductFilter.NONE, limit, after);
+    }
+
+    public Mono<PageResponse<Product>> getAllProducts(ProductFilter filter, Integer limit, String after) {
+        return Mono.defer(() -> {
+            validate(filter);
+            int pageSize = KeysetPages.resolveLimit(limit);
+            long afterId = KeysetPages.decodeCursor(after);
+            Flux<Product> rows = filter.isEmpty()
+                    ? productsRepository.findPageAfter(afterId, pageSize + 1)
+                    : productsRepository.findPageAfter(filter, afterId, pageSize + 1);
+            return rows.collectList()
+                    .map(page -> KeysetPages.toPage(page, pageSize, Product::getId));
         });
     }
 
-    public Flux<Product> getAllProducts() {
-        return productsRepository.findAll();
+    /**
+     * Like {@link #getAllProducts(ProductFilter, Integer, String)} but selects only the comma-separated
+     * {@code fields}. The id is always included, since the next cursor is built from it.
+     */
+    public Mono<PageResponse<Map<String, Object>>> getProductFields(ProductFilter filter, String fields, Integer limit,
+                                                                    String after) {
+        return Mono.defer(() -> {
+            validate(filter);
+            Set<ProductField> selected = parseFields(fields);
+            int pageSize = KeysetPages.resolveLimit(limit);
+            long afterId = KeysetPages.decodeCursor(after);
+            return productsRepository.findFieldsPageAfter(filter, selected, afterId, pageSize + 1)
+                    .collectList()
+                    .map(page -> KeysetPages.toPage(page, pageSize,
+                            row -> (Long) row.get(ProductField.ID.property())));
+        });
     }
 
+    /**
+     * Shorter queries produce no trigrams for the search indexes to use, so they are rejected rather than scanning
+     * every product.
+     */
+    public Mono<PageResponse<ProductSearchResult>> searchProducts(String query, Long franchiseId, Integer limit,
+                                                                  String after) {
+        return Mono.defer(() -> {
+            String term = query == null ? "" : query.strip();
+            if (term.length() < MIN_SEARCH_LENGTH) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "La búsqueda debe tener al menos " + MIN_SEARCH_LENGTH + " caracteres"));
+            }
+            int pageSize = KeysetPages.resolveLimit(limit);
+            long offset = KeysetPages.decodeOffset(after);
+            return productsRepository.search(term, franchiseId, pageSize + 1, offset)
+                    .collectList()
+                    .map(rows -> KeysetPages.toOffsetPage(rows, pageSize, offset));
+        });
+    }
+
+    /**
+     * The max-stock refresh and the event are driven by the row the delete returns, so of two concurrent deletes only
+     * the one that removed it refreshes and publishes.
+     */
+    @Transactional
     public Mono<Void> deleteProduct(Long productId) {
-        return productsRepository.existsById(productId)
-                .flatMap(exists -> {
-                    if (!exists) {
-                        return Mono.error(
-                                new ResponseStatusException(
-                                        HttpStatus.NOT_FOUND,
-                                        "El producto no existe"
-                                )
-                        );
-                    }
-                    return productsRepository.deleteById(productId);
-                });
+        return productsRepository.removeById(productId)
+                .switchIfEmpty(Mono.error(ProductsService::productNotFound))
+                .flatMap(product -> branchMaxStockRepository.refresh(product.getBranchId(), null)
+                        .then(franchiseRevisions.bumpForBranches(List.of(product.getBranchId())))
+                        .then(stockEventBus.publish(StockEvent.Type.DELETED, product)));
     }
 
+    /**
+     * The save only applies if no other write touched the product since it was read; otherwise the read and save are
+     * retried, see {@link OptimisticRetries}.
+     * <p>
+     * Also raises a low-stock alert when the new stock crosses the product's threshold, or its branch's. The branch
+     * comes from {@link BranchReadCache}, which the stock event reads anyway, and the alert state is written by the
+     * same save, so the check adds no query of its own.
+     */
+    @Transactional
     public Mono<Product> updateProductStock(Long productId, UpdateProductStockRequest request) {
         if (request == null) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cuerpo de la petición es obligatorio"));
         }
 
-        return productsRepository.findById(productId).switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado"))).flatMap(product -> {
-            product.setStock(request.stock());
-            return productsRepository.save(product);
+        return Mono.defer(() -> productsRepository.findById(productId))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")))
+                .flatMap(product -> branchReadCache.findById(product.getBranchId())
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")))
+                        .flatMap(branch -> {
+                            int previousStock = product.getStock();
+                            product.setStock(request.stock());
+                            Integer threshold = LowStockCheck.thresholdOf(product, branch);
+                            Optional<StockAlert.Type> alert =
+                                    LowStockCheck.apply(product, threshold, stockAlertProperties.rearmMargin());
+                            return productsRepository.save(product)
+                                    .flatMap(saved -> stockLedgerService.record(saved, StockMovement.Kind.SET,
+                                                    saved.getStock() - previousStock)
+                                            .then(enqueueAlert(alert, branch.getFranchiseId(), saved, threshold))
+                                            .thenReturn(saved));
+                        }))
+                .transform(OptimisticRetries.onConflict(optimisticLockProperties))
+                .flatMap(saved -> recordStockChange(saved, StockEvent.Type.UPDATED));
+    }
+
+    /**
+     * The UPDATE also updates the low-stock flag, so a delta that crosses the threshold raises its alert without
+     * reading the product or its branch first. A delta that would take the stock past the integer range is rejected
+     * with 400.
+     */
+    @Transactional
+    public Mono<Product> adjustProductStock(Long productId, UpdateProductStockDeltaRequest request) {
+        if (request == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cuerpo de la petición es obligatorio"));
+        }
+
+        boolean nonNegative = Boolean.TRUE.equals(request.nonNegative());
+        int rearmMargin = stockAlertProperties.rearmMargin();
+        Mono<StockChange> updated = nonNegative
+                ? productsRepository.addStockIfAvailable(productId, request.delta(), rearmMargin)
+                : productsRepository.addStock(productId, request.delta(), rearmMargin);
+        return updated
+                .onErrorMap(StockOverflows::test, e -> StockOverflows.badRequest())
+                .switchIfEmpty(Mono.defer(() -> stockNotUpdated(productId)))
+                .flatMap(change -> stockLedgerService.record(change.product(), StockMovement.Kind.ADJUSTED,
+                                request.delta())
+                        .then(enqueueAlert(change))
+                        .thenReturn(change.product()))
+                .flatMap(product -> recordStockChange(product, StockEvent.Type.UPDATED));
+    }
+
+    /**
+     * Applies the items in batches inside a single transaction and emits one result per item, in input order. An item
+     * that repeats a product within the same batch reports the stock after the whole batch. Every item that crosses a
+     * threshold raises its alert. The max-stock summaries and franchises of every touched branch are updated once,
+     * after the last batch.
+     * <p>
+     * Each batch locks its products in id order, and summary rows are only locked once every product is, the same
+     * order as {@link #updateProductStock}. Requests longer than one batch lock batch by batch, so clients that send
+     * concurrent requests over the same products should send them sorted by id.
+     * <p>
+     * A delta that would take a stock past the integer range fails the whole request with 400.
+     */
+    @Transactional
+    public Flux<StockUpdateResult> updateProductStocks(Flux<StockUpdateItem> items) {
+        return Flux.defer(() -> {
+            Set<Long> touchedBranches = new HashSet<>();
+            return items.buffer(bulkProperties.batchSize())
+                    .concatMap(batch -> applyStockBatch(batch, touchedBranches))
+                    .concatWith(refreshBranchesLast(touchedBranches))
+                    .onErrorMap(StockOverflows::test, e -> StockOverflows.badRequest());
         });
     }
 
+    /**
+     * A new or cleared threshold updates the low-stock flag in the same statement and raises the alert when the flag
+     * flips, like a stock write.
+     */
+    @Transactional
     public Mono<Product> updateProduct(
             Long productId,
             @Valid UpdateProductRequest request) {
         if (request == null) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cuerpo de la petición es obligatorio"));
         }
-        return productsRepository.findById(productId).switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado"))).flatMap(product -> {
-            product.setName(request.name());
-            product.setDescription(request.description());
-            product.setSku(request.sku());
-            return productsRepository.save(product);
-        });
+        if (!request.hasChanges()) {
+            return productsRepository.findById(productId)
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")));
+        }
+        return productsRepository.patch(productId, request, stockAlertProperties.rearmMargin())
+                .onErrorMap(UniqueViolations.of(NAME_INDEX), e -> duplicateName())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")))
+                .flatMap(change -> enqueueAlert(change)
+                        .then(franchiseRevisions.bumpForBranches(List.of(change.product().getBranchId())))
+                        .then(stockEventBus.publish(StockEvent.Type.UPDATED, change.product()))
+                        .thenReturn(change.product()));
     }
 
     public Flux<ProductMaxStockResponse> getProductsWithMaxStockPerFranchise(Long franchiseId) {
         return productsRepository.findProductsWithMaxStockPerFranchise(franchiseId);
     }
+
+    public Flux<StockEvent> streamStockChanges(Long franchiseId) {
+        return stockEventBus.stream(franchiseId);
+    }
+
+    public Flux<StockAlert> streamStockAlerts(Long franchiseId) {
+        return streamingStockAlertSink.stream(franchiseId);
+    }
+
+    /**
+     * Checks every referenced branch with one query, so a missing parent is reported instead of failing the batch.
+     */
+    private Flux<BulkCreateResult> createProductBatch(List<Product> batch, Set<Long> touchedBranches) {
+        Set<Long> branchIds = batch.stream()
+                .filter(Objects::nonNull)
+                .map(Product::getBranchId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return branchRepository.findAllById(branchIds)
+                .collectMap(Branch::getId)
+                .flatMapMany(branches -> {
+                    List<Product> valid = batch.stream()
+                            .filter(product -> product != null && StringUtils.hasText(product.getName())
+                                    && product.getStock() != null && branches.containsKey(product.getBranchId()))
+                            .toList();
+                    valid.forEach(product -> {
+                        Integer threshold = LowStockCheck.thresholdOf(product, branches.get(product.getBranchId()));
+                        product.setLowStock(false);
+                        LowStockCheck.apply(product, threshold, stockAlertProperties.rearmMargin());
+                    });
+                    return productsRepository.insertAll(valid)
+                            .collectList()
+                            .map(ids -> BulkResults.merge(batch, valid, ids, Product::getName, Product::setId))
+                            .flatMap(results -> {
+                                List<Product> created = valid.stream()
+                                        .filter(product -> product.getId() != null)
+                                        .toList();
+                                return stockLedgerService.recordAll(created.stream()
+                                                .map(product -> StockMovement.of(product, StockMovement.Kind.CREATED,
+                                                        product.getStock()))
+                                                .toList())
+                                        .thenMany(Flux.fromIterable(created))
+                                        .filter(Product::isLowStock)
+                                        .concatMap(product -> {
+                                            Branch branch = branches.get(product.getBranchId());
+                                            return enqueueAlert(Optional.of(StockAlert.Type.LOW_STOCK),
+                                                    branch.getFranchiseId(), product,
+                                                    LowStockCheck.thresholdOf(product, branch));
+                                        })
+                                        .then(publishStockChanges(created, StockEvent.Type.CREATED, touchedBranches))
+                                        .thenReturn(results);
+                            })
+                            .flatMapIterable(results -> results);
+                });
+    }
+
+    /**
+     * The last change of each product is its stock after the batch. Only products no item updated are read back, so
+     * an item that matched no row can be told apart from one whose delta would have taken the stock below zero.
+     */
+    private Flux<StockUpdateResult> applyStockBatch(List<StockUpdateItem> batch, Set<Long> touchedBranches) {
+        List<StockUpdateItem> valid = batch.stream().filter(StockUpdateItem::isValid).toList();
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(toStockUpdateResults(batch, List.of(), Map.of()));
+        }
+        return productsRepository.applyStockUpdates(valid, stockAlertProperties.rearmMargin())
+                .collectList()
+                .flatMap(changes -> {
+                    List<StockChange> applied = changes.stream().flatMap(Optional::stream).toList();
+                    Map<Long, Product> updated = new LinkedHashMap<>();
+                    applied.forEach(change -> updated.put(change.product().getId(), change.product()));
+                    Set<Long> missed = valid.stream()
+                            .map(StockUpdateItem::productId)
+                            .filter(productId -> !updated.containsKey(productId))
+                            .collect(Collectors.toSet());
+                    Mono<Map<Long, Product>> found = missed.isEmpty()
+                            ? Mono.just(updated)
+                            : productsRepository.findAllById(missed)
+                                    .collectMap(Product::getId, product -> product, () -> new HashMap<>(updated));
+                    return found.flatMap(products -> stockLedgerService.recordAll(toMovements(valid, changes))
+                            .thenMany(Flux.fromIterable(applied))
+                            .concatMap(this::enqueueAlert)
+                            .then(publishStockChanges(updated.values(), StockEvent.Type.UPDATED, touchedBranches))
+                            .thenReturn(toStockUpdateResults(batch, changes, products)));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * A set records the change it made rather than the stock it was given, like {@link #updateProductStock}.
+     */
+    private static List<StockMovement> toMovements(List<StockUpdateItem> items, List<Optional<StockChange>> changes) {
+        List<StockMovement> movements = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            StockUpdateItem item = items.get(i);
+            changes.get(i).ifPresent(change -> movements.add(StockMovement.of(change.product(),
+                    item.stock() != null ? StockMovement.Kind.SET : StockMovement.Kind.ADJUSTED,
+                    change.product().getStock() - change.previousStock())));
+        }
+        return movements;
+    }
+
+    private static List<StockUpdateResult> toStockUpdateResults(List<StockUpdateItem> batch,
+                                                                List<Optional<StockChange>> changes,
+                                                                Map<Long, Product> found) {
+        List<StockUpdateResult> results = new ArrayList<>(batch.size());
+        int next = 0;
+        for (StockUpdateItem item : batch) {
+            if (!item.isValid()) {
+                results.add(new StockUpdateResult(item.productId(), StockUpdateResult.Status.INVALID, null));
+                continue;
+            }
+            Product product = found.get(item.productId());
+            StockUpdateResult.Status status = changes.get(next++).isPresent()
+                    ? StockUpdateResult.Status.UPDATED
+                    : product != null ? StockUpdateResult.Status.INSUFFICIENT_STOCK : StockUpdateResult.Status.NOT_FOUND;
+            results.add(new StockUpdateResult(item.productId(), status, product != null ? product.getStock() : null));
+        }
+        return results;
+    }
+
+    /**
+     * The branches are added to {@code touchedBranches} for the caller to refresh once per request.
+     */
+    private Mono<Void> publishStockChanges(Collection<Product> products, StockEvent.Type type, Set<Long> touchedBranches) {
+        products.forEach(product -> touchedBranches.add(product.getBranchId()));
+        return Flux.fromIterable(products)
+                .concatMap(product -> stockEventBus.publish(type, product))
+                .then();
+    }
+
+    /**
+     * Recomputes the summaries rather than applying each batch's highest stock, since a later batch may lower a
+     * product an earlier one raised.
+     */
+    private <T> Flux<T> refreshBranchesLast(Set<Long> touchedBranches) {
+        return Flux.defer(() -> branchMaxStockRepository.recompute(touchedBranches)
+                .then(franchiseRevisions.bumpForBranches(touchedBranches))
+                .thenMany(Flux.empty()));
+    }
+
+    private Mono<Void> enqueueAlert(StockChange change) {
+        return enqueueAlert(LowStockCheck.crossed(change), change.franchiseId(), change.product(), change.threshold());
+    }
+
+    private Mono<Void> enqueueAlert(Optional<StockAlert.Type> alert, Long franchiseId, Product product,
+                                    Integer threshold) {
+        return alert.map(type -> stockAlertQueue.enqueue(StockAlert.of(type, franchiseId, product, threshold)))
+                .orElse(Mono.empty());
+    }
+
+    private <T> Mono<T> stockNotUpdated(Long productId) {
+        return productsRepository.existsById(productId)
+                .flatMap(exists -> Mono.error(exists
+                        ? new ResponseStatusException(HttpStatus.CONFLICT, "Stock insuficiente")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")));
+    }
+
+    private Mono<Product> recordStockChange(Product product, StockEvent.Type type) {
+        return branchMaxStockRepository.refresh(product.getBranchId(), product.getStock())
+                .then(franchiseRevisions.bumpForBranches(List.of(product.getBranchId())))
+                .then(stockEventBus.publish(type, product))
+                .thenReturn(product);
+    }
+
+    private static ResponseStatusException productNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "El producto no existe");
+    }
+
+    private static ResponseStatusException branchNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "La sucursal no existe");
+    }
+
+    private static IllegalArgumentException duplicateName() {
+        return new IllegalArgumentException("El producto con el nombre proporcionado ya existe.");
+    }
+
+    private static void validate(ProductFilter filter) {
+        if (filter.minStock() != null && filter.maxStock() != null && filter.minStock() > filter.maxStock()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El stock mínimo no puede ser mayor que el stock máximo");
+        }
+    }
+
+    private static Set<ProductField> parseFields(String fields) {
+        Set<ProductField> selected = EnumSet.of(ProductField.ID);
+        for (String property : fields.split(",")) {
+            if (property.isBlank()) {
+                continue;
+            }
+            selected.add(ProductField.fromProperty(property.strip())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Campo de producto desconocido: " + property.strip())));
+        }
+        return selected;
+    }
 }
@@ -0,0 +1,80 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.config.StockLedgerProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs {@link StockLedgerService#compact()} every {@code compactionInterval}, creating upcoming partitions first when
+ * enabled. A failed step is logged and retried on the next tick.
+ */
+@Slf4j
+@Component
+public class StockLedgerCompactor implements SmartLifecycle {
+
+    private final StockLedgerService stockLedgerService;
+    private final StockLedgerProperties properties;
+    private volatile Disposable schedule;
+
+    public StockLedgerCompactor(StockLedgerService stockLedgerService, StockLedgerProperties properties) {
+        this.stockLedgerService = stockLedgerService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        schedule = Flux.interval(properties.compactionInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> run())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = schedule;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        Disposable current = schedule;
+        return current != null && !current.isDisposed();
+    }
+
+    /**
+     * The two steps fail independently, so a partition that cannot be created does not hold back compaction, and a
+     * failed compaction still leaves the partitions in place for the next writes.
+     */
+    Mono<Void> run() {
+        return createPartitions().then(compact());
+    }
+
+    private Mono<Void> createPartitions() {
+        if (!properties.managePartitions()) {
+            return Mono.empty();
+        }
+        return stockLedgerService.createPartitions()
+                .doOnNext(created -> log.debug("Particiones del historial de stock creadas: {}", created))
+                .onErrorResume(e -> {
+                    log.warn("No se pudieron crear las particiones del historial de stock: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> compact() {
+        return stockLedgerService.compact()
+                .doOnNext(merged -> log.debug("Compactación del historial de stock: {} productos", merged))
+                .onErrorResume(e -> {
+                    log.warn("No se pudo compactar el historial de stock: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
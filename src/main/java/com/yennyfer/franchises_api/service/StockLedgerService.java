@@ -0,0 +1,87 @@
+package com.yennyfer.franchises_api.service;
+
+import com.yennyfer.franchises_api.config.StockLedgerProperties;
+import com.yennyfer.franchises_api.dto.StockReconciliation;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockMovement;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.repository.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class StockLedgerService {
+
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductsRepository productsRepository;
+    private final StockLedgerProperties properties;
+
+    /**
+     * Appends the movement in the caller's transaction, so it is recorded if and only if the stock write commits.
+     */
+    public Mono<Void> record(Product product, StockMovement.Kind kind, int delta) {
+        return stockMovementRepository.append(product.getId(), product.getBranchId(), kind.name(), delta,
+                        product.getStock())
+                .then();
+    }
+
+    /**
+     * Like {@link #record} for every write of a batch, in one statement.
+     */
+    public Mono<Void> recordAll(List<StockMovement> movements) {
+        return stockMovementRepository.appendAll(movements);
+    }
+
+    public Flux<StockMovement> getProductMovements(Long productId, OffsetDateTime from, OffsetDateTime to) {
+        return Flux.defer(() -> {
+            OffsetDateTime until = resolveTo(from, to);
+            return stockMovementRepository.findByProductIdBetween(productId, from, until);
+        });
+    }
+
+    public Flux<StockMovement> getBranchMovements(Long branchId, OffsetDateTime from, OffsetDateTime to) {
+        return Flux.defer(() -> {
+            OffsetDateTime until = resolveTo(from, to);
+            return stockMovementRepository.findByBranchIdBetween(branchId, from, until);
+        });
+    }
+
+    public Mono<StockReconciliation> reconcile(Long productId) {
+        return productsRepository.findById(productId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado")))
+                .flatMap(product -> stockMovementRepository.rebuildStock(productId)
+                        .map(ledgerStock -> StockReconciliation.of(productId, product.getStock(), ledgerStock)));
+    }
+
+    /**
+     * The cutoff comes from the database, so a transaction still writing movements holds it back, see
+     * {@link com.yennyfer.franchises_api.repository.StockLedgerRepository#findCompactionCutoff}.
+     */
+    @Transactional
+    public Mono<Long> compact() {
+        return stockMovementRepository.findCompactionCutoff(properties.compactionLag())
+                .flatMap(stockMovementRepository::compact);
+    }
+
+    public Mono<Integer> createPartitions() {
+        return stockMovementRepository.createPartitions(properties.monthsAhead());
+    }
+
+    private static OffsetDateTime resolveTo(OffsetDateTime from, OffsetDateTime to) {
+        OffsetDateTime until = to != null ? to : OffsetDateTime.now(ZoneOffset.UTC);
+        if (from == null || !from.isBefore(until)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El rango de fechas no es válido");
+        }
+        return until;
+    }
+}
@@ -0,0 +1,27 @@
+package com.yennyfer.franchises_api.service;
+
+import io.r2dbc.spi.R2dbcException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+final class StockOverflows {
+
+    private static final String NUMERIC_VALUE_OUT_OF_RANGE = "22003";
+
+    private StockOverflows() {
+    }
+
+    /**
+     * Matches the error Postgres raises when {@code stock + delta} leaves the integer range; the sum is computed in
+     * the UPDATE itself, so the stock it applies to is never read here.
+     */
+    static boolean test(Throwable error) {
+        return NestedExceptionUtils.getMostSpecificCause(error) instanceof R2dbcException cause
+                && NUMERIC_VALUE_OUT_OF_RANGE.equals(cause.getSqlState());
+    }
+
+    static ResponseStatusException badRequest() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "El stock resultante excede el máximo permitido");
+    }
+}
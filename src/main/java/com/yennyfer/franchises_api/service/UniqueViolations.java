@@ -0,0 +1,27 @@
+package com.yennyfer.franchises_api.service;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+
+final class UniqueViolations {
+
+    private UniqueViolations() {
+    }
+
+    /**
+     * Matches a duplicate-key error raised by the given unique index, so other constraints on the same table (e.g.
+     * the product sku) keep their own handling.
+     */
+    static Predicate<Throwable> of(String indexName) {
+        return error -> {
+            if (!(error instanceof DuplicateKeyException)) {
+                return false;
+            }
+            String message = NestedExceptionUtils.getMostSpecificCause(error).getMessage();
+            return message != null && message.toLowerCase(Locale.ROOT).contains(indexName);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Serve ILIKE '%term%' and the % similarity operator used by GET /api/products/search.
+CREATE INDEX IF NOT EXISTS product_name_trgm_idx
+    ON product USING gin (name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS product_description_trgm_idx
+    ON product USING gin (description gin_trgm_ops);
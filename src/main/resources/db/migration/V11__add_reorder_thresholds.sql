@@ -0,0 +1,10 @@
+-- Low-stock alerts: a product's own threshold wins over its branch's. low_stock remembers that an alert was raised,
+-- so it is not raised again until stock recovers past the threshold plus the re-arm margin.
+ALTER TABLE branch
+    ADD COLUMN IF NOT EXISTS reorder_threshold INTEGER CHECK (reorder_threshold >= 0);
+
+ALTER TABLE product
+    ADD COLUMN IF NOT EXISTS reorder_threshold INTEGER CHECK (reorder_threshold >= 0);
+
+ALTER TABLE product
+    ADD COLUMN IF NOT EXISTS low_stock BOOLEAN NOT NULL DEFAULT FALSE;
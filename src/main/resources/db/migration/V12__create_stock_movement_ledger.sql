@@ -0,0 +1,64 @@
+-- Append-only stock history. Rows are never updated; deleting a product keeps its history, so there is no foreign key.
+-- Monthly partitions keep inserts on a small, hot table and let time-range reads prune to the months they touch.
+CREATE TABLE IF NOT EXISTS stock_movement (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    product_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    delta INTEGER NOT NULL,
+    stock INTEGER NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (created_at, id)
+) PARTITION BY RANGE (created_at);
+
+-- Catches writes for a month whose partition the compaction job has not created yet.
+CREATE TABLE IF NOT EXISTS stock_movement_default
+    PARTITION OF stock_movement DEFAULT;
+
+-- Cover every column the movements endpoints return, so time-range reads are index-only.
+CREATE INDEX IF NOT EXISTS stock_movement_product_idx
+    ON stock_movement (product_id, created_at) INCLUDE (id, branch_id, kind, delta, stock);
+
+CREATE INDEX IF NOT EXISTS stock_movement_branch_idx
+    ON stock_movement (branch_id, created_at) INCLUDE (id, product_id, kind, delta, stock);
+
+-- Creates the partitions for the current month and the next months_ahead, returning how many were missing.
+CREATE OR REPLACE FUNCTION create_stock_movement_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := date_trunc('month', now() + make_interval(months => i))::date;
+        partition_name := 'stock_movement_' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF stock_movement FOR VALUES FROM (%L) TO (%L)',
+                    partition_name, month_start, (month_start + INTERVAL '1 month')::date);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_stock_movement_partitions(2);
+
+-- Stock per product as of stock_compaction.compacted_until; current stock is the snapshot plus every movement since.
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    product_id BIGINT PRIMARY KEY,
+    stock INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS stock_compaction (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    compacted_until TIMESTAMPTZ NOT NULL
+);
+
+INSERT INTO stock_snapshot (product_id, stock)
+SELECT id, stock FROM product
+ON CONFLICT DO NOTHING;
+
+INSERT INTO stock_compaction (id, compacted_until)
+VALUES (1, now())
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,29 @@
+-- A month's partition cannot be created while stock_movement_default holds rows for that month, which happens once
+-- writes outrun the job that creates the partitions. Each missing partition is now built as a plain table, filled
+-- with the month's rows moved out of the default partition, and attached. The lock keeps new rows for the month from
+-- landing in the default partition in between.
+CREATE OR REPLACE FUNCTION create_stock_movement_partitions(months_ahead INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        month_start := date_trunc('month', now() + make_interval(months => i))::date;
+        month_end := (month_start + INTERVAL '1 month')::date;
+        partition_name := 'stock_movement_' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            LOCK TABLE stock_movement_default IN ACCESS EXCLUSIVE MODE;
+            EXECUTE format('CREATE TABLE %I (LIKE stock_movement INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                    partition_name);
+            EXECUTE format('WITH moved AS (DELETE FROM stock_movement_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                    'INSERT INTO %I SELECT * FROM moved', month_start, month_end, partition_name);
+            EXECUTE format('ALTER TABLE stock_movement ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                    partition_name, month_start, month_end);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
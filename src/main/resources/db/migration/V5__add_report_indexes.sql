@@ -0,0 +1,6 @@
+CREATE INDEX IF NOT EXISTS branch_franchise_id_idx
+    ON branch (franchise_id);
+
+-- Also serves plain product(branch_id) lookups through its leading column.
+CREATE INDEX IF NOT EXISTS product_branch_id_stock_idx
+    ON product (branch_id, stock DESC);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS branch_max_stock (
+    branch_id BIGINT PRIMARY KEY REFERENCES branch(id) ON DELETE CASCADE,
+    max_stock INTEGER
+);
+
+INSERT INTO branch_max_stock (branch_id, max_stock)
+SELECT b.id, MAX(p.stock)
+FROM branch b
+LEFT JOIN product p ON p.branch_id = b.id
+GROUP BY b.id
+ON CONFLICT (branch_id) DO NOTHING;
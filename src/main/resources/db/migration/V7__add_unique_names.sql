@@ -0,0 +1,9 @@
+-- Names were only checked for uniqueness in the service layer, which let concurrent inserts slip duplicates through.
+CREATE UNIQUE INDEX IF NOT EXISTS franchise_name_idx
+    ON franchise (name);
+
+CREATE UNIQUE INDEX IF NOT EXISTS branch_name_idx
+    ON branch (name);
+
+CREATE UNIQUE INDEX IF NOT EXISTS product_name_idx
+    ON product (name);
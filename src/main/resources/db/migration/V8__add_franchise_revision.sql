@@ -0,0 +1,3 @@
+-- Bumped by every write to a franchise, its branches or their products; the API derives ETags from it.
+ALTER TABLE franchise
+    ADD COLUMN IF NOT EXISTS revision BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Optimistic locking: a full-row save only applies when the version it read is still current, and every other
+-- write to these rows bumps it as well.
+ALTER TABLE franchise
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE branch
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE product
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,88 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+
+class BulkStockUpdateBenchmark extends PostgresBenchmarkSupport {
+
+    private static final long BRANCH_ID = 1_000;
+    private static final int PRODUCTS = 2_000;
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 10;
+
+    private List<Long> productIds;
+
+    @BeforeAll
+    void seed() {
+        execute("INSERT INTO franchise (id, name) VALUES (1000, 'Benchmark Bulk')");
+        execute("INSERT INTO branch (id, name, address, franchise_id) VALUES (%d, 'Sucursal Bulk', 'Calle 1', 1000)".formatted(BRANCH_ID));
+        execute("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (%d, NULL)".formatted(BRANCH_ID));
+        execute("""
+                INSERT INTO product (name, description, stock, branch_id)
+                SELECT 'Bulk ' || g, 'Generado', 1000, %d FROM generate_series(1, %d) g
+                """.formatted(BRANCH_ID, PRODUCTS));
+        execute("ANALYZE");
+        productIds = databaseClient.sql("SELECT id FROM product WHERE branch_id = :branchId ORDER BY id")
+                .bind("branchId", BRANCH_ID)
+                .map(row -> row.get("id", Long.class))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    @Test
+    @DisplayName("bulk stock endpoint throughput versus the single-item endpoint in a loop")
+    void compareBulkWithSingleUpdates() {
+        LatencyStats single = LatencyStats.measure("PATCH /api/products/{id}/stock x" + PRODUCTS, WARMUP, ITERATIONS,
+                () -> productIds.forEach(id -> updateOne(id, 500)));
+        LatencyStats bulk = LatencyStats.measure("PATCH /api/products/stock, " + PRODUCTS + " items", WARMUP, ITERATIONS,
+                () -> updateAll(500));
+
+        System.out.printf("%nstock updates, %d products per round%n", PRODUCTS);
+        System.out.println(single);
+        System.out.println(bulk);
+        System.out.printf(Locale.ROOT, "single: %.0f items/s, bulk: %.0f items/s, speed-up x%.1f%n",
+                PRODUCTS / (single.meanMillis() / 1000), PRODUCTS / (bulk.meanMillis() / 1000),
+                single.meanMillis() / bulk.meanMillis());
+
+        List<StockUpdateResult> results = updateAll(-1);
+        assertEquals(PRODUCTS, results.stream().filter(result -> result.status() == StockUpdateResult.Status.UPDATED).count());
+    }
+
+    private void updateOne(long productId, int stock) {
+        benchmarkClient().patch()
+                .uri("/api/products/{id}/stock", productId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(stock))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    /**
+     * Sends one absolute stock per product; a negative value sends a delta of one instead.
+     */
+    private List<StockUpdateResult> updateAll(int stock) {
+        List<StockUpdateItem> items = productIds.stream()
+                .map(id -> stock < 0 ? new StockUpdateItem(id, null, 1) : new StockUpdateItem(id, stock, null))
+                .toList();
+        return benchmarkClient().patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(items)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockUpdateResult.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,87 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Replaces the contents of the schema with {@code franchises × branchesPerFranchise × productsPerBranch} synthetic
+ * rows with sequential ids, using only SQL that runs on both H2 and Postgres. Stock values come from a fixed seed so
+ * runs are repeatable.
+ */
+final class DatasetGenerator {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private final DatabaseClient databaseClient;
+
+    DatasetGenerator(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    Dataset generate(int franchises, int branchesPerFranchise, int productsPerBranch) {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM product").then(),
+                        databaseClient.sql("DELETE FROM branch_max_stock").then(),
+                        databaseClient.sql("DELETE FROM branch").then(),
+                        databaseClient.sql("DELETE FROM franchise").then())
+                .blockLast();
+
+        long branches = (long) franchises * branchesPerFranchise;
+        long products = branches * productsPerBranch;
+        Random random = new Random(42);
+
+        insert("INSERT INTO franchise (id, name) VALUES ($1, $2)", franchises, (statement, id) -> {
+            statement.bind(0, id);
+            statement.bind(1, "Franquicia " + id);
+        });
+        insert("INSERT INTO branch (id, name, address, franchise_id) VALUES ($1, $2, $3, $4)", branches, (statement, id) -> {
+            statement.bind(0, id);
+            statement.bind(1, "Sucursal " + id);
+            statement.bind(2, "Calle " + id);
+            statement.bind(3, (id - 1) / branchesPerFranchise + 1);
+        });
+        insert("INSERT INTO product (id, name, description, stock, sku, branch_id) VALUES ($1, $2, $3, $4, $5, $6)", products,
+                (statement, id) -> {
+                    statement.bind(0, id);
+                    statement.bind(1, "Producto " + id);
+                    statement.bind(2, "Producto sintetico " + id);
+                    statement.bind(3, random.nextInt(10_000));
+                    statement.bind(4, id.intValue());
+                    statement.bind(5, (id - 1) / productsPerBranch + 1);
+                });
+        databaseClient.sql("""
+                        INSERT INTO branch_max_stock (branch_id, max_stock)
+                        SELECT b.id, MAX(p.stock) FROM branch b LEFT JOIN product p ON p.branch_id = b.id GROUP BY b.id
+                        """)
+                .then()
+                .block();
+        return new Dataset(franchises, branches, products);
+    }
+
+    private void insert(String sql, long rows, BiConsumer<Statement, Long> binder) {
+        for (long from = 1; from <= rows; from += BATCH_SIZE) {
+            List<Long> ids = LongStream.rangeClosed(from, Math.min(rows, from + BATCH_SIZE - 1)).boxed().toList();
+            databaseClient.inConnectionMany(connection -> {
+                        Statement statement = connection.createStatement(sql);
+                        for (int i = 0; i < ids.size(); i++) {
+                            if (i > 0) {
+                                statement.add();
+                            }
+                            binder.accept(statement, ids.get(i));
+                        }
+                        return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                    })
+                    .blockLast();
+        }
+    }
+
+    record Dataset(long franchises, long branches, long products) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+
+/**
+ * Load test over real HTTP against a synthetic dataset. Runs offline on the embedded H2 schema by default:
+ * <pre>mvn -Pbenchmarks test -Dtest=EndToEndLoadBenchmark -Dloadtest.franchises=50 -Dloadtest.requests=5000</pre>
+ * To target a local Postgres instead, which is wiped and migrated with Flyway, also pass {@code -Dloadtest.r2dbc-url},
+ * {@code -Dloadtest.jdbc-url}, {@code -Dloadtest.username} and {@code -Dloadtest.password}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EndToEndLoadBenchmark {
+
+    private static final int FRANCHISES = Integer.getInteger("loadtest.franchises", 20);
+    private static final int BRANCHES_PER_FRANCHISE = Integer.getInteger("loadtest.branches", 10);
+    private static final int PRODUCTS_PER_BRANCH = Integer.getInteger("loadtest.products", 50);
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 2_000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final int DETAILS_REQUESTS = Integer.getInteger("loadtest.details-requests", 50);
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        String r2dbcUrl = System.getProperty("loadtest.r2dbc-url");
+        if (r2dbcUrl == null) {
+            return;
+        }
+        String username = System.getProperty("loadtest.username", "myuser");
+        String password = System.getProperty("loadtest.password", "secret");
+        registry.add("spring.r2dbc.url", () -> r2dbcUrl);
+        registry.add("spring.r2dbc.username", () -> username);
+        registry.add("spring.r2dbc.password", () -> password);
+        registry.add("spring.sql.init.mode", () -> "never");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.flyway.url", () -> System.getProperty("loadtest.jdbc-url"));
+        registry.add("spring.flyway.user", () -> username);
+        registry.add("spring.flyway.password", () -> password);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private WebClient webClient;
+    private DatasetGenerator.Dataset dataset;
+
+    @BeforeAll
+    void setUp() {
+        dataset = new DatasetGenerator(databaseClient).generate(FRANCHISES, BRANCHES_PER_FRANCHISE, PRODUCTS_PER_BRANCH);
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(256 * 1024 * 1024))
+                .build();
+    }
+
+    @Test
+    @DisplayName("throughput and latency percentiles per endpoint")
+    void loadEndpoints() {
+        LoadDriver driver = new LoadDriver(CONCURRENCY);
+
+        LoadDriver.Report details = driver.run("GET /api/franchises/details", DETAILS_REQUESTS, i -> webClient.get()
+                .uri("/api/franchises/details")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(Map.class)
+                .count());
+        LoadDriver.Report maxStock = driver.run("GET /api/franchises/{id}/products/max-stock", REQUESTS, i -> webClient.get()
+                .uri("/api/franchises/{id}/products/max-stock", i % dataset.franchises() + 1)
+                .retrieve()
+                .bodyToMono(String.class));
+        LoadDriver.Report stockPatch = driver.run("PATCH /api/products/{id}/stock", REQUESTS, i -> webClient.patch()
+                .uri("/api/products/{id}/stock", ThreadLocalRandom.current().nextLong(dataset.products()) + 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(ThreadLocalRandom.current().nextInt(10_000)))
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofSeconds(30)));
+
+        System.out.printf("%nload test: %d franchises, %d branches, %d products, concurrency %d%n",
+                dataset.franchises(), dataset.branches(), dataset.products(), CONCURRENCY);
+        System.out.println(details);
+        System.out.println(maxStock);
+        System.out.println(stockPatch);
+
+        assertEquals(0, details.errors() + maxStock.errors() + stockPatch.errors());
+    }
+}
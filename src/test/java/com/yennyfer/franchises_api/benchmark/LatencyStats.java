@@ -0,0 +1,67 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+final class LatencyStats {
+
+    private final String name;
+    private final long[] samples;
+    private int count;
+
+    LatencyStats(String name, int capacity) {
+        this.name = name;
+        this.samples = new long[capacity];
+    }
+
+    static LatencyStats measure(String name, int warmup, int iterations, Runnable action) {
+        for (int i = 0; i < warmup; i++) {
+            action.run();
+        }
+        LatencyStats stats = new LatencyStats(name, iterations);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            action.run();
+            stats.record(System.nanoTime() - start);
+        }
+        return stats;
+    }
+
+    synchronized void record(long nanos) {
+        if (count < samples.length) {
+            samples[count++] = nanos;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+    }
+
+    synchronized double meanMillis() {
+        if (count == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += samples[i];
+        }
+        return total / (double) count / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%-45s n=%-6d mean=%9.3fms p50=%9.3fms p99=%9.3fms p99.9=%9.3fms max=%9.3fms",
+                name, count(), meanMillis(), percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                percentileMillis(100));
+    }
+}
@@ -0,0 +1,53 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Fires a fixed number of requests with bounded concurrency, after a short warmup, and records per-request latency.
+ */
+final class LoadDriver {
+
+    private final int concurrency;
+
+    LoadDriver(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    Report run(String name, int requests, IntFunction<Mono<?>> request) {
+        fire(Math.max(1, requests / 10), request, new LatencyStats(name, 0), new AtomicInteger());
+
+        LatencyStats latencies = new LatencyStats(name, requests);
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        fire(requests, request, latencies, errors);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return new Report(latencies, requests / seconds, errors.get());
+    }
+
+    private void fire(int requests, IntFunction<Mono<?>> request, LatencyStats latencies, AtomicInteger errors) {
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long started = System.nanoTime();
+                    return request.apply(i)
+                            .doOnSuccess(ignored -> latencies.record(System.nanoTime() - started))
+                            .onErrorResume(error -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }), concurrency)
+                .blockLast();
+    }
+
+    record Report(LatencyStats latencies, double throughput, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s  %8.1f req/s errors=%d", latencies, throughput, errors);
+        }
+    }
+}
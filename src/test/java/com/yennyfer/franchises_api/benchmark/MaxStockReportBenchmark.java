@@ -0,0 +1,108 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+
+class MaxStockReportBenchmark extends PostgresBenchmarkSupport {
+
+    private static final long FRANCHISE_ID = 1_000;
+    private static final long NOISE_FRANCHISE_ID = 1_001;
+    private static final int BRANCHES = 200;
+    private static final int PRODUCTS_PER_BRANCH = 500;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 30;
+
+    private static final String LEGACY_QUERY = """
+    SELECT
+        p.id AS product_id,
+        p.name AS product_name,
+        p.stock AS stock,
+        b.id AS branch_id,
+        b.name AS branch_name
+    FROM product p
+    JOIN branch b ON p.branch_id = b.id
+    WHERE b.franchise_id = :franchiseId
+      AND p.stock = (
+          SELECT MAX(p2.stock)
+          FROM product p2
+          WHERE p2.branch_id = b.id
+      )
+""";
+
+    @BeforeAll
+    void seed() {
+        for (long franchiseId : new long[]{FRANCHISE_ID, NOISE_FRANCHISE_ID}) {
+            execute("INSERT INTO franchise (id, name) VALUES (%d, 'Benchmark %d')".formatted(franchiseId, franchiseId));
+            execute("""
+                    INSERT INTO branch (name, address, franchise_id)
+                    SELECT 'Sucursal %d-' || g, 'Calle ' || g, %d FROM generate_series(1, %d) g
+                    """.formatted(franchiseId, franchiseId, BRANCHES));
+            execute("""
+                    INSERT INTO product (name, description, stock, branch_id)
+                    SELECT 'Producto ' || b.id || '-' || g, 'Generado', (random() * 10000)::int, b.id
+                    FROM branch b CROSS JOIN generate_series(1, %d) g
+                    WHERE b.franchise_id = %d
+                    """.formatted(PRODUCTS_PER_BRANCH, franchiseId));
+        }
+        execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("max-stock report latency before and after the index and query rewrite")
+    void compareMaxStockReport() {
+        execute("DROP INDEX IF EXISTS product_branch_id_stock_idx");
+        execute("DROP INDEX IF EXISTS branch_franchise_id_idx");
+        execute("ANALYZE");
+        LatencyStats legacyWithoutIndexes = LatencyStats.measure("legacy correlated query, no indexes", WARMUP, ITERATIONS,
+                this::legacyRows);
+
+        execute("CREATE INDEX branch_franchise_id_idx ON branch (franchise_id)");
+        execute("CREATE INDEX product_branch_id_stock_idx ON product (branch_id, stock DESC)");
+        execute("ANALYZE");
+        LatencyStats legacyWithIndexes = LatencyStats.measure("legacy correlated query, V5 indexes", WARMUP, ITERATIONS,
+                this::legacyRows);
+        LatencyStats endpoint = LatencyStats.measure("GET /api/franchises/{id}/products/max-stock", WARMUP, ITERATIONS,
+                this::callEndpoint);
+
+        System.out.printf("%nmax-stock report, %d products in franchise %d (%d total)%n",
+                BRANCHES * PRODUCTS_PER_BRANCH, FRANCHISE_ID, 2 * BRANCHES * PRODUCTS_PER_BRANCH);
+        System.out.println(legacyWithoutIndexes);
+        System.out.println(legacyWithIndexes);
+        System.out.println(endpoint);
+
+        assertEquals(sorted(legacyRows()), sorted(callEndpoint()));
+    }
+
+    private List<Long> legacyRows() {
+        return databaseClient.sql(LEGACY_QUERY)
+                .bind("franchiseId", FRANCHISE_ID)
+                .map(row -> row.get("product_id", Long.class))
+                .all()
+                .collectList()
+                .block();
+    }
+
+    private List<Long> callEndpoint() {
+        return benchmarkClient().get()
+                .uri("/api/franchises/{id}/products/max-stock", FRANCHISE_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ProductMaxStockResponse.class)
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .map(ProductMaxStockResponse::productId)
+                .toList();
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted(Comparator.naturalOrder()).toList();
+    }
+}
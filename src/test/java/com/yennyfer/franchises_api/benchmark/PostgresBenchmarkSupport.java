@@ -0,0 +1,69 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.Duration;
+
+/**
+ * Boots the application over HTTP against a throwaway Postgres with the real Flyway migrations.
+ * Excluded from the default build; run with {@code mvn -Pbenchmarks test}. To use an existing, empty database instead
+ * of a container, pass {@code -Dbenchmark.r2dbc-url}, {@code -Dbenchmark.jdbc-url}, {@code -Dbenchmark.username} and
+ * {@code -Dbenchmark.password}.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+abstract class PostgresBenchmarkSupport {
+
+    private static final String EXTERNAL_R2DBC_URL = System.getProperty("benchmark.r2dbc-url");
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_R2DBC_URL != null) {
+            String username = System.getProperty("benchmark.username", "myuser");
+            String password = System.getProperty("benchmark.password", "secret");
+            registry.add("spring.r2dbc.url", () -> EXTERNAL_R2DBC_URL);
+            registry.add("spring.r2dbc.username", () -> username);
+            registry.add("spring.r2dbc.password", () -> password);
+            registry.add("spring.flyway.url", () -> System.getProperty("benchmark.jdbc-url"));
+            registry.add("spring.flyway.user", () -> username);
+            registry.add("spring.flyway.password", () -> password);
+            return;
+        }
+        POSTGRES.start();
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(
+                POSTGRES.getHost(), POSTGRES.getFirstMappedPort(), POSTGRES.getDatabaseName()));
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    protected DatabaseClient databaseClient;
+
+    @Autowired
+    protected WebTestClient webTestClient;
+
+    protected WebTestClient benchmarkClient() {
+        return webTestClient.mutate()
+                .responseTimeout(Duration.ofMinutes(2))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
+                .build();
+    }
+
+    protected void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
@@ -0,0 +1,109 @@
+package com.yennyfer.franchises_api.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+
+/**
+ * Seeds {@code -Dsearch.products} products (1M by default) across two franchises and times
+ * {@code GET /api/products/search} with and without the V10 trigram indexes.
+ */
+class ProductSearchBenchmark extends PostgresBenchmarkSupport {
+
+    private static final long FRANCHISE_ID = 2_000;
+    private static final long NOISE_FRANCHISE_ID = 2_001;
+    private static final int BRANCHES_PER_FRANCHISE = 500;
+    private static final int PRODUCTS = Integer.getInteger("search.products", 1_000_000);
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 30;
+    private static final List<String> QUERIES = List.of("hamburguesa doble", "pizz", "limonada natural", "xyzzy");
+
+    private static final ParameterizedTypeReference<PageResponse<ProductSearchResult>> PAGE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private int query;
+
+    @BeforeAll
+    void seed() {
+        int productsPerBranch = Math.max(1, PRODUCTS / (2 * BRANCHES_PER_FRANCHISE));
+        for (long franchiseId : new long[]{FRANCHISE_ID, NOISE_FRANCHISE_ID}) {
+            execute("INSERT INTO franchise (id, name) VALUES (%d, 'Benchmark %d')".formatted(franchiseId, franchiseId));
+            execute("""
+                    INSERT INTO branch (name, address, franchise_id)
+                    SELECT 'Sucursal %d-' || g, 'Calle ' || g, %d FROM generate_series(1, %d) g
+                    """.formatted(franchiseId, franchiseId, BRANCHES_PER_FRANCHISE));
+        }
+        execute("""
+                INSERT INTO product (name, description, stock, branch_id)
+                SELECT
+                    (ARRAY['Hamburguesa', 'Pizza', 'Limonada', 'Ensalada', 'Papas', 'Perro', 'Malteada', 'Arepa'])[1 + g %% 8]
+                        || ' ' || (ARRAY['doble', 'sencilla', 'natural', 'especial', 'familiar', 'mini'])[1 + (g / 8) %% 6]
+                        || ' ' || b.id || '-' || g,
+                    'Preparada con ' || (ARRAY['queso', 'tocineta', 'piña', 'maracuyá', 'pollo', 'res'])[1 + (g / 48) %% 6],
+                    (random() * 1000)::int,
+                    b.id
+                FROM branch b CROSS JOIN generate_series(1, %d) g
+                WHERE b.franchise_id IN (%d, %d)
+                """.formatted(productsPerBranch, FRANCHISE_ID, NOISE_FRANCHISE_ID));
+        execute("ANALYZE");
+    }
+
+    @Test
+    @DisplayName("search latency with and without the trigram indexes")
+    void compareSearch() {
+        execute("DROP INDEX IF EXISTS product_name_trgm_idx");
+        execute("DROP INDEX IF EXISTS product_description_trgm_idx");
+        execute("ANALYZE product");
+        List<Long> unindexed = search(QUERIES.get(0), FRANCHISE_ID);
+        LatencyStats withoutIndexes = LatencyStats.measure("search, no trigram indexes", WARMUP, ITERATIONS,
+                () -> search(nextQuery(), FRANCHISE_ID));
+
+        execute("CREATE INDEX product_name_trgm_idx ON product USING gin (name gin_trgm_ops)");
+        execute("CREATE INDEX product_description_trgm_idx ON product USING gin (description gin_trgm_ops)");
+        execute("ANALYZE product");
+        LatencyStats withIndexes = LatencyStats.measure("search, V10 trigram indexes", WARMUP, ITERATIONS,
+                () -> search(nextQuery(), FRANCHISE_ID));
+        LatencyStats allFranchises = LatencyStats.measure("search across franchises, V10 trigram indexes", WARMUP,
+                ITERATIONS, () -> search(nextQuery(), null));
+
+        System.out.printf("%nproduct search, %d products%n", PRODUCTS);
+        System.out.println(withoutIndexes);
+        System.out.println(withIndexes);
+        System.out.println(allFranchises);
+
+        List<Long> indexed = search(QUERIES.get(0), FRANCHISE_ID);
+        assertFalse(indexed.isEmpty());
+        assertEquals(unindexed, indexed);
+    }
+
+    private String nextQuery() {
+        return QUERIES.get(query++ % QUERIES.size());
+    }
+
+    private List<Long> search(String q, Long franchiseId) {
+        return benchmarkClient().get()
+                .uri(builder -> builder.path("/api/products/search")
+                        .queryParam("q", q)
+                        .queryParamIfPresent("franchiseId", Optional.ofNullable(franchiseId))
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PAGE)
+                .returnResult()
+                .getResponseBody()
+                .items()
+                .stream()
+                .map(ProductSearchResult::id)
+                .toList();
+    }
+}
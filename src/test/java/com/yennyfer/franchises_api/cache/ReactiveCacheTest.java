@@ -0,0 +1,117 @@
+package com.yennyfer.franchises_api.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class ReactiveCacheTest {
+
+    private ReactiveCache<Long, String> cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ReactiveCache<>(Caffeine.newBuilder().buildAsync());
+        loads = new AtomicInteger();
+    }
+
+    private Mono<String> load(Long key) {
+        return Mono.fromSupplier(() -> "value-" + key + "-" + loads.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("given cached value when reading again then does not reload")
+    void get_hit() {
+        StepVerifier.create(cache.get(1L, this::load)).expectNext("value-1-1").verifyComplete();
+        StepVerifier.create(cache.get(1L, this::load)).expectNext("value-1-1").verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("given concurrent misses on the same key then they share one load")
+    void get_sharesInFlightLoad() {
+        Sinks.One<String> pending = Sinks.one();
+        Mono<String> first = cache.get(1L, key -> pending.asMono().doOnSubscribe(s -> loads.incrementAndGet()));
+        Mono<String> second = cache.get(1L, this::load);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> pending.tryEmitValue("shared"))
+                .assertNext(pair -> {
+                    assertEquals("shared", pair.getT1());
+                    assertEquals("shared", pair.getT2());
+                })
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("given empty load then nothing is cached")
+    void get_emptyNotCached() {
+        StepVerifier.create(cache.get(1L, key -> Mono.empty())).verifyComplete();
+        StepVerifier.create(cache.get(1L, this::load)).expectNext("value-1-1").verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given matching predicate when invalidating then only matching entries reload")
+    void invalidateIf() {
+        cache.get(1L, this::load).block();
+        cache.get(2L, this::load).block();
+
+        cache.invalidateIf((key, value) -> key == 1L);
+
+        StepVerifier.create(cache.get(1L, this::load)).expectNext("value-1-3").verifyComplete();
+        StepVerifier.create(cache.get(2L, this::load)).expectNext("value-2-2").verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given a transaction when missing then loads in it without caching, and still serves cached values")
+    void get_insideTransaction() {
+        TransactionalOperator transactional = TransactionalOperator.create(new NoOpTransactionManager());
+
+        StepVerifier.create(transactional.transactional(cache.get(1L, this::load))).expectNext("value-1-1").verifyComplete();
+        StepVerifier.create(cache.get(1L, this::load)).expectNext("value-1-2").verifyComplete();
+        StepVerifier.create(transactional.transactional(cache.get(1L, this::load))).expectNext("value-1-2").verifyComplete();
+        assertEquals(2, loads.get());
+    }
+
+    private static final class NoOpTransactionManager extends AbstractReactiveTransactionManager {
+
+        @Override
+        protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+            return new Object();
+        }
+
+        @Override
+        protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                     TransactionDefinition definition) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                      GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+
+        @Override
+        protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                        GenericReactiveTransaction status) {
+            return Mono.empty();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.yennyfer.franchises_api.config;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+class ReadYourWritesFilterTest {
+
+    private static final InetSocketAddress PROXY = new InetSocketAddress("10.0.0.1", 443);
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(new ReplicaProperties(
+            List.of("r2dbc:postgresql://replica/db"), null, null, Duration.ofMinutes(1), "X-Client-Id"));
+
+    @Test
+    @DisplayName("given a client header when that client wrote then its reads are pinned to the primary")
+    void pinsClientAfterWrite() {
+        send(MockServerHttpRequest.post("/api/franchises").header("X-Client-Id", "caja-1").remoteAddress(PROXY));
+
+        assertEquals(ReadRoute.PRIMARY, routeOf(MockServerHttpRequest.get("/api/franchises/details")
+                .header("X-Client-Id", "caja-1").remoteAddress(PROXY)));
+        assertEquals(ReadRoute.REPLICA, routeOf(MockServerHttpRequest.get("/api/franchises/details")
+                .header("X-Client-Id", "caja-2").remoteAddress(PROXY)));
+    }
+
+    @Test
+    @DisplayName("given no client header when a request writes then reads from the same address are not pinned")
+    void doesNotPinByRemoteAddress() {
+        send(MockServerHttpRequest.post("/api/franchises").remoteAddress(PROXY));
+
+        assertEquals(ReadRoute.REPLICA, routeOf(MockServerHttpRequest.get("/api/franchises/details")
+                .remoteAddress(PROXY)));
+    }
+
+    private void send(MockServerHttpRequest.BaseBuilder<?> request) {
+        filter.filter(MockServerWebExchange.from(request), exchange -> Mono.empty()).block();
+    }
+
+    private ReadRoute routeOf(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ReadRoute> route = new AtomicReference<>();
+        filter.filter(MockServerWebExchange.from(request), exchange -> Mono.deferContextual(context -> {
+            route.set(ReadRoute.of(ReadRoute.preferReplica(Context.of(context))));
+            return Mono.empty();
+        })).block();
+        return route.get();
+    }
+}
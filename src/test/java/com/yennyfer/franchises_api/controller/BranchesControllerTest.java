@@ -1,7 +1,9 @@
 package com.yennyfer.franchises_api.controller;
 
 import java.util.List;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,14 +17,17 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.yennyfer.franchises_api.dto.PageResponse;
 import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
 import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.BranchAggregate;
 import com.yennyfer.franchises_api.model.Product;
 import com.yennyfer.franchises_api.service.BranchesService;
+import com.yennyfer.franchises_api.service.StockLedgerService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 @WebFluxTest(controllers = BranchesController.class)
 class BranchesControllerTest {
@@ -33,6 +38,9 @@ class BranchesControllerTest {
     @MockitoBean
     private BranchesService branchesService;
 
+    @MockitoBean
+    private StockLedgerService stockLedgerService;
+
     private Branch branch;
 
     @BeforeEach
@@ -79,22 +87,23 @@ class BranchesControllerTest {
     @Test
     @DisplayName("when listing branches then returns collection")
     void getAllBranches_success() {
-        when(branchesService.getAllBranches()).thenReturn(Flux.just(branch));
+        when(branchesService.getAllBranches(null, null)).thenReturn(Mono.just(new PageResponse<>(List.of(branch), null)));
 
         webTestClient.get()
                 .uri("/api/branches")
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody()
-                .jsonPath("$[0].id").isEqualTo(branch.getId())
-                .jsonPath("$[0].name").isEqualTo(branch.getName());
+                .jsonPath("$.items[0].id").isEqualTo(branch.getId())
+                .jsonPath("$.items[0].name").isEqualTo(branch.getName())
+                .jsonPath("$.nextCursor").doesNotExist();
     }
 
     @Test
     @DisplayName("when listing branches fails then returns 500")
     void getAllBranches_error() {
-        when(branchesService.getAllBranches())
-                .thenReturn(Flux.error(new RuntimeException("db error")));
+        when(branchesService.getAllBranches(null, null))
+                .thenReturn(Mono.error(new RuntimeException("db error")));
 
         webTestClient.get()
                 .uri("/api/branches")
@@ -117,10 +126,33 @@ class BranchesControllerTest {
                 .jsonPath("$[0].products[0].name").isEqualTo("Combo");
     }
 
+    @Test
+    @DisplayName("when requesting branches with details as ndjson then streams one aggregate per line")
+    void getAllBranchesWithDetails_ndjson() {
+        Branch other = Branch.builder().id(11L).name("Sucursal Norte").franchiseId(1L).build();
+        when(branchesService.getAllBranchesWithDetails()).thenReturn(Flux.just(
+                new BranchAggregate(branch, List.of(Product.builder().id(1L).name("Combo").build())),
+                new BranchAggregate(other, List.of())));
+
+        Flux<BranchAggregate> body = webTestClient.get()
+                .uri("/api/branches/details")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(BranchAggregate.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .assertNext(aggregate -> assertEquals(branch.getId(), aggregate.branch().getId()))
+                .assertNext(aggregate -> assertEquals(other.getId(), aggregate.branch().getId()))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("when updating branch then returns updated resource")
     void updateBranch_success() {
-        UpdateBranchRequest request = new UpdateBranchRequest("Nueva", "Dir", 2L);
+        UpdateBranchRequest request = new UpdateBranchRequest("Nueva", Optional.of("Dir"), 2L, null);
         Branch updated = Branch.builder().id(10L).name("Nueva").address("Dir").franchiseId(2L).build();
         when(branchesService.updateBranch(eq(10L), any(UpdateBranchRequest.class))).thenReturn(Mono.just(updated));
 
@@ -144,7 +176,7 @@ class BranchesControllerTest {
         webTestClient.patch()
                 .uri("/api/branches/10")
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(new UpdateBranchRequest("Nueva", "Dir", 2L))
+                .bodyValue(new UpdateBranchRequest("Nueva", Optional.of("Dir"), 2L, null))
                 .exchange()
                 .expectStatus().isNotFound();
     }
@@ -172,4 +204,16 @@ class BranchesControllerTest {
                 .exchange()
                 .expectStatus().isNotFound();
     }
+
+    @Test
+    @DisplayName("when fetching missing branch then returns 404")
+    void getBranch_notFound() {
+        when(branchesService.getBranch(99L))
+                .thenReturn(Mono.error(new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "no existe")));
+
+        webTestClient.get()
+                .uri("/api/branches/99")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
 }
@@ -1,20 +1,29 @@
 package com.yennyfer.franchises_api.controller;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.PageResponse;
 import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
 import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
 import com.yennyfer.franchises_api.model.Branch;
@@ -22,11 +31,13 @@ import com.yennyfer.franchises_api.model.BranchAggregate;
 import com.yennyfer.franchises_api.model.Franchise;
 import com.yennyfer.franchises_api.model.FranchiseAggregate;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.service.BranchesService;
 import com.yennyfer.franchises_api.service.FranchisesService;
 import com.yennyfer.franchises_api.service.ProductsService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 @WebFluxTest(controllers = FranchisesController.class)
 class FranchisesControllerTest {
@@ -40,6 +51,9 @@ class FranchisesControllerTest {
     @MockitoBean
     private ProductsService productsService;
 
+    @MockitoBean
+    private BranchesService branchesService;
+
     private Franchise franchise;
 
     @BeforeEach
@@ -48,6 +62,8 @@ class FranchisesControllerTest {
                 .id(1L)
                 .name("Franquicia Norte")
                 .build();
+        when(franchisesService.getFranchisesETag()).thenReturn(Mono.just("franchises-1-1-0"));
+        when(franchisesService.getFranchiseETag(anyLong())).thenReturn(Mono.just("franchise-1-0"));
     }
 
     @Test
@@ -81,25 +97,64 @@ class FranchisesControllerTest {
                 .expectStatus().isEqualTo(HttpStatus.CONFLICT);
     }
 
+    @Test
+    @DisplayName("when bulk creating franchises from NDJSON then streams one result per row")
+    void createFranchises_ndjson() {
+        when(franchisesService.createFranchises(any())).thenReturn(Flux.just(
+                new BulkCreateResult("Franquicia Norte", 1L, BulkCreateResult.Status.CREATED),
+                new BulkCreateResult("Franquicia Sur", null, BulkCreateResult.Status.DUPLICATE)));
+
+        Flux<BulkCreateResult> body = webTestClient.post()
+                .uri("/api/franchises/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just(franchise, Franchise.builder().name("Franquicia Sur").build()), Franchise.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BulkCreateResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .expectNextMatches(result -> result.status() == BulkCreateResult.Status.CREATED && result.id() == 1L)
+                .expectNextMatches(result -> result.status() == BulkCreateResult.Status.DUPLICATE)
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("when listing franchises then returns payload")
     void getAllFranchises_success() {
-        when(franchisesService.getAllFranchises()).thenReturn(Flux.just(franchise));
+        when(franchisesService.getAllFranchises(null, null)).thenReturn(Mono.just(new PageResponse<>(List.of(franchise), null)));
 
         webTestClient.get()
                 .uri("/api/franchises")
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody()
-                .jsonPath("$[0].id").isEqualTo(franchise.getId())
-                .jsonPath("$[0].name").isEqualTo(franchise.getName());
+                .jsonPath("$.items[0].id").isEqualTo(franchise.getId())
+                .jsonPath("$.items[0].name").isEqualTo(franchise.getName())
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("when listing franchises with limit and cursor then forwards them and returns next cursor")
+    void getAllFranchises_withCursor() {
+        when(franchisesService.getAllFranchises(1, "aWQ6MQ"))
+                .thenReturn(Mono.just(new PageResponse<>(List.of(franchise), "aWQ6Mg")));
+
+        webTestClient.get()
+                .uri("/api/franchises?limit=1&after=aWQ6MQ")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(franchise.getId())
+                .jsonPath("$.nextCursor").isEqualTo("aWQ6Mg");
     }
 
     @Test
     @DisplayName("when listing franchises and service fails then returns 500")
     void getAllFranchises_serverError() {
-        when(franchisesService.getAllFranchises())
-                .thenReturn(Flux.error(new RuntimeException("db down")));
+        when(franchisesService.getAllFranchises(null, null))
+                .thenReturn(Mono.error(new RuntimeException("db down")));
 
         webTestClient.get()
                 .uri("/api/franchises")
@@ -107,6 +162,34 @@ class FranchisesControllerTest {
                 .expectStatus().is5xxServerError();
     }
 
+    @Test
+    @DisplayName("given existing franchise when fetching by id then returns it")
+    void getFranchise_success() {
+        when(franchisesService.getFranchise(1L)).thenReturn(Mono.just(franchise));
+
+        webTestClient.get()
+                .uri("/api/franchises/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(franchise.getName());
+    }
+
+    @Test
+    @DisplayName("when listing branches of a franchise then returns them")
+    void getBranches_success() {
+        Branch branch = Branch.builder().id(10L).name("Sucursal Centro").franchiseId(1L).build();
+        when(branchesService.getBranchesByFranchise(1L)).thenReturn(Flux.just(branch));
+
+        webTestClient.get()
+                .uri("/api/franchises/1/branches")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(10)
+                .jsonPath("$[0].franchiseId").isEqualTo(1);
+    }
+
     @Test
     @DisplayName("when requesting franchise details then returns aggregates")
     void getFranchisesWithDetails_success() {
@@ -128,6 +211,29 @@ class FranchisesControllerTest {
                 .jsonPath("$[0].branches[0].products[0].id").isEqualTo(product.getId());
     }
 
+    @Test
+    @DisplayName("when requesting franchise details as ndjson then streams one branch slice per line")
+    void getFranchisesWithDetails_ndjson() {
+        Franchise other = Franchise.builder().id(2L).name("Franquicia Sur").build();
+        when(franchisesService.streamFranchisesWithDetails()).thenReturn(Flux.just(
+                new FranchiseAggregate(franchise, List.of()),
+                new FranchiseAggregate(other, List.of())));
+
+        Flux<FranchiseAggregate> body = webTestClient.get()
+                .uri("/api/franchises/details")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(FranchiseAggregate.class)
+                .getResponseBody();
+
+        StepVerifier.create(body)
+                .assertNext(aggregate -> assertEquals(franchise.getId(), aggregate.franchise().getId()))
+                .assertNext(aggregate -> assertEquals(other.getId(), aggregate.franchise().getId()))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("when updating franchise then returns updated entity")
     void updateFranchise_success() {
@@ -172,6 +278,19 @@ class FranchisesControllerTest {
                 .expectBody().isEmpty();
     }
 
+    @Test
+    @DisplayName("when deleting franchise in chunks then returns empty body once purged")
+    void deleteFranchise_chunked() {
+        when(franchisesService.purgeFranchise(1L)).thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                .uri("/api/franchises/1?chunked=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().isEmpty();
+        verify(franchisesService, never()).deleteFranchise(1L);
+    }
+
     @Test
     @DisplayName("when deleting franchise not found then returns 404")
     void deleteFranchise_notFound() {
@@ -211,4 +330,65 @@ class FranchisesControllerTest {
                 .exchange()
                 .expectStatus().isNotFound();
     }
+
+    @Test
+    @DisplayName("when the client holds the current tag then details answer 304 without querying the tree")
+    void getFranchisesWithDetails_notModified() {
+        AtomicBoolean queried = new AtomicBoolean();
+        when(franchisesService.getFranchisesWithDetails()).thenReturn(Flux.defer(() -> {
+            queried.set(true);
+            return Flux.just(new FranchiseAggregate(franchise, List.of()));
+        }));
+
+        webTestClient.get()
+                .uri("/api/franchises/details")
+                .ifNoneMatch("\"franchises-1-1-0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"franchises-1-1-0\"");
+
+        assertFalse(queried.get());
+    }
+
+    @Test
+    @DisplayName("when the tag is stale then details are returned with the current tag")
+    void getFranchisesWithDetails_staleTag() {
+        when(franchisesService.getFranchisesWithDetails()).thenReturn(Flux.just(new FranchiseAggregate(franchise, List.of())));
+
+        webTestClient.get()
+                .uri("/api/franchises/details")
+                .ifNoneMatch("\"franchises-1-0-0\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"franchises-1-1-0\"")
+                .expectBodyList(FranchiseAggregate.class)
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("when requesting one franchise's details then returns its tree tagged with its revision")
+    void getFranchiseWithDetails_success() {
+        when(franchisesService.getFranchiseWithDetails(1L)).thenReturn(Mono.just(new FranchiseAggregate(franchise, List.of())));
+
+        webTestClient.get()
+                .uri("/api/franchises/1/details")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"franchise-1-0\"")
+                .expectBody()
+                .jsonPath("$.franchise.name").isEqualTo("Franquicia Norte");
+    }
+
+    @Test
+    @DisplayName("when the franchise does not exist then details answer 404")
+    void getFranchiseWithDetails_notFound() {
+        when(franchisesService.getFranchiseETag(99L)).thenReturn(Mono.empty());
+        when(franchisesService.getFranchiseWithDetails(99L))
+                .thenReturn(Mono.error(new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Franquicia no encontrada")));
+
+        webTestClient.get()
+                .uri("/api/franchises/99/details")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
 }
@@ -1,10 +1,17 @@
 package com.yennyfer.franchises_api.controller;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -13,10 +20,18 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.ProductFilter;
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
 import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.dto.UpdateProductStockDeltaRequest;
 import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockMovement;
 import com.yennyfer.franchises_api.service.ProductsService;
+import com.yennyfer.franchises_api.service.StockLedgerService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -30,6 +45,9 @@ class ProductsControllerTest {
     @MockitoBean
     private ProductsService productsService;
 
+    @MockitoBean
+    private StockLedgerService stockLedgerService;
+
     private Product product;
 
     @BeforeEach
@@ -77,22 +95,71 @@ class ProductsControllerTest {
     @Test
     @DisplayName("when listing products then returns payload")
     void getAllProducts_success() {
-        when(productsService.getAllProducts()).thenReturn(Flux.just(product));
+        when(productsService.getAllProducts(ProductFilter.NONE, null, null)).thenReturn(Mono.just(new PageResponse<>(List.of(product), null)));
 
         webTestClient.get()
                 .uri("/api/products")
                 .exchange()
                 .expectStatus().isOk()
                 .expectBody()
-                .jsonPath("$[0].id").isEqualTo(product.getId())
-                .jsonPath("$[0].name").isEqualTo(product.getName());
+                .jsonPath("$.items[0].id").isEqualTo(product.getId())
+                .jsonPath("$.items[0].name").isEqualTo(product.getName())
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("given filters and fields when listing products then returns only those fields")
+    void getAllProducts_projected() {
+        ProductFilter filter = new ProductFilter(null, 7L, null, 5, null);
+        when(productsService.getProductFields(filter, "name,stock", null, null)).thenReturn(Mono.just(
+                new PageResponse<>(List.of(Map.<String, Object>of("id", 1L, "name", "Producto 1", "stock", 3)), null)));
+
+        webTestClient.get()
+                .uri("/api/products?franchiseId=7&maxStock=5&fields=name,stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].stock").isEqualTo(3)
+                .jsonPath("$.items[0].description").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("given a time range when listing product movements then returns them")
+    void getMovements_success() {
+        OffsetDateTime from = OffsetDateTime.parse("2026-01-01T00:00:00Z");
+        when(stockLedgerService.getProductMovements(1L, from, null)).thenReturn(Flux.just(StockMovement.builder()
+                .id(5L).productId(1L).branchId(10L).kind(StockMovement.Kind.SET).delta(-2).stock(8).build()));
+
+        webTestClient.get()
+                .uri("/api/products/1/stock/movements?from=2026-01-01T00:00:00Z")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].kind").isEqualTo("SET")
+                .jsonPath("$[0].delta").isEqualTo(-2);
+    }
+
+    @Test
+    @DisplayName("when searching products then returns ranked page")
+    void searchProducts_success() {
+        when(productsService.searchProducts("hambur", 7L, null, null)).thenReturn(Mono.just(new PageResponse<>(
+                List.of(new ProductSearchResult(1L, "Hamburguesa", "Desc", 5, 1001, 10L, 1.5)), "b2Zmc2V0OjUw")));
+
+        webTestClient.get()
+                .uri("/api/products/search?q=hambur&franchiseId=7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.items[0].rank").isEqualTo(1.5)
+                .jsonPath("$.nextCursor").isEqualTo("b2Zmc2V0OjUw");
     }
 
     @Test
     @DisplayName("when listing products fails then returns 500")
     void getAllProducts_error() {
-        when(productsService.getAllProducts())
-                .thenReturn(Flux.error(new RuntimeException("db error")));
+        when(productsService.getAllProducts(ProductFilter.NONE, null, null))
+                .thenReturn(Mono.error(new RuntimeException("db error")));
 
         webTestClient.get()
                 .uri("/api/products")
@@ -103,7 +170,7 @@ class ProductsControllerTest {
     @Test
     @DisplayName("when updating product then returns updated resource")
     void updateProduct_success() {
-        UpdateProductRequest request = new UpdateProductRequest("Nuevo", 2001, "nueva desc");
+        UpdateProductRequest request = new UpdateProductRequest("Nuevo", Optional.of(2001), Optional.of("nueva desc"), null);
         Product updated = Product.builder().id(1L).name("Nuevo").sku(2001).description("nueva desc").branchId(10L).stock(5).build();
         when(productsService.updateProduct(eq(1L), any(UpdateProductRequest.class))).thenReturn(Mono.just(updated));
 
@@ -118,6 +185,33 @@ class ProductsControllerTest {
                 .jsonPath("$.sku").isEqualTo(2001);
     }
 
+    @Test
+    @DisplayName("when updating product with an explicit null then clears that field and leaves absent ones unchanged")
+    void updateProduct_clearsExplicitNull() {
+        when(productsService.updateProduct(eq(1L), any(UpdateProductRequest.class))).thenReturn(Mono.just(product));
+
+        webTestClient.patch()
+                .uri("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"reorderThreshold\":null}")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(productsService).updateProduct(eq(1L), argThat(request -> request.reorderThreshold().isEmpty()
+                && request.sku() == null && request.description() == null && request.name() == null));
+    }
+
+    @Test
+    @DisplayName("when updating product with a negative threshold then returns 400")
+    void updateProduct_negativeThreshold() {
+        webTestClient.patch()
+                .uri("/api/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"reorderThreshold\":-1}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     @DisplayName("when updating product not found then returns 404")
     void updateProduct_notFound() {
@@ -127,7 +221,7 @@ class ProductsControllerTest {
         webTestClient.patch()
                 .uri("/api/products/1")
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(new UpdateProductRequest("Nuevo", 2001, "nueva desc"))
+                .bodyValue(new UpdateProductRequest("Nuevo", Optional.of(2001), Optional.of("nueva desc"), null))
                 .exchange()
                 .expectStatus().isNotFound();
     }
@@ -163,6 +257,55 @@ class ProductsControllerTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    @DisplayName("when bulk updating stock then returns one result per item")
+    void updateProductStocks_success() {
+        when(productsService.updateProductStocks(any())).thenReturn(Flux.just(
+                new StockUpdateResult(1L, StockUpdateResult.Status.UPDATED, 30),
+                new StockUpdateResult(2L, StockUpdateResult.Status.NOT_FOUND, null)));
+
+        webTestClient.patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new StockUpdateItem(1L, 30, null), new StockUpdateItem(2L, null, 3)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("UPDATED")
+                .jsonPath("$[0].stock").isEqualTo(30)
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND");
+    }
+
+    @Test
+    @DisplayName("when adjusting stock by delta then returns updated product")
+    void adjustProductStock_success() {
+        Product updated = Product.builder().id(1L).name("Producto 1").stock(7).build();
+        when(productsService.adjustProductStock(eq(1L), any(UpdateProductStockDeltaRequest.class))).thenReturn(Mono.just(updated));
+
+        webTestClient.patch()
+                .uri("/api/products/1/stock/delta")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockDeltaRequest(-3, true))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.stock").isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("when adjusting stock below zero with guard then returns 409")
+    void adjustProductStock_insufficient() {
+        when(productsService.adjustProductStock(eq(1L), any(UpdateProductStockDeltaRequest.class)))
+                .thenReturn(Mono.error(new org.springframework.web.server.ResponseStatusException(HttpStatus.CONFLICT, "Stock insuficiente")));
+
+        webTestClient.patch()
+                .uri("/api/products/1/stock/delta")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockDeltaRequest(-100, true))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
     @Test
     @DisplayName("when deleting product then returns empty body")
     void deleteProduct_success() {
@@ -0,0 +1,142 @@
+package com.yennyfer.franchises_api.events;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.yennyfer.franchises_api.config.StockStreamProperties;
+import com.yennyfer.franchises_api.dto.MaxStockLeaderboardMessage;
+import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class MaxStockLeaderboardTest {
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Mock
+    private ProductsRepository productsRepository;
+
+    @Mock
+    private FranchisesRepository franchisesRepository;
+
+    private MaxStockLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new MaxStockLeaderboard(stockEventBus, productsRepository, franchisesRepository,
+                new StockStreamProperties(16, false, "stock_events"));
+        when(franchisesRepository.findAll()).thenReturn(Flux.just(Franchise.builder().id(1L).name("Norte").build()));
+        when(productsRepository.findProductsWithMaxStockPerFranchise(1L)).thenReturn(Flux.just(
+                row(10L, 1L, 10), row(11L, 3L, 5), row(11L, 4L, 5)));
+        leaderboard.seed().block();
+    }
+
+    private static ProductMaxStockResponse row(long branchId, long productId, int stock) {
+        return new ProductMaxStockResponse(branchId, "Sucursal " + branchId, productId, "Producto " + productId, stock);
+    }
+
+    private static StockEvent event(StockEvent.Type type, long branchId, long productId, Integer stock) {
+        return new StockEvent(null, type, 1L, branchId, productId, "Producto " + productId, stock);
+    }
+
+    @Test
+    @DisplayName("writes are resolved in memory and only real leader changes are pushed")
+    void pushesOnlyLeaderChanges() {
+        StepVerifier.create(leaderboard.subscribe(1L))
+                .assertNext(snapshot -> {
+                    assertEquals(MaxStockLeaderboardMessage.Type.SNAPSHOT, snapshot.type());
+                    assertEquals(3, snapshot.leaders().size());
+                })
+                .then(() -> {
+                    leaderboard.apply(event(StockEvent.Type.UPDATED, 10L, 2L, 4)).block();
+                    leaderboard.apply(event(StockEvent.Type.UPDATED, 10L, 2L, 12)).block();
+                    leaderboard.apply(event(StockEvent.Type.UPDATED, 11L, 4L, 3)).block();
+                    leaderboard.apply(event(StockEvent.Type.UPDATED, 11L, 5L, 5)).block();
+                })
+                .assertNext(change -> {
+                    assertEquals(MaxStockLeaderboardMessage.Type.LEADER_CHANGED, change.type());
+                    assertEquals(10L, change.branchId());
+                    assertEquals(List.of(new ProductMaxStockResponse(10L, "Sucursal 10", 2L, "Producto 2", 12)),
+                            change.leaders());
+                })
+                .assertNext(change -> assertEquals(List.of(row(11L, 3L, 5)), change.leaders()))
+                .assertNext(change -> assertEquals(List.of(row(11L, 3L, 5), row(11L, 5L, 5)), change.leaders()))
+                .thenCancel()
+                .verify();
+
+        verify(productsRepository, never()).findProductsWithMaxStockPerBranch(any());
+    }
+
+    @Test
+    @DisplayName("removing the only leader of a branch rescans that branch")
+    void rescansWhenLastLeaderLeaves() {
+        when(productsRepository.findProductsWithMaxStockPerBranch(10L)).thenReturn(Flux.just(row(10L, 2L, 4)));
+
+        StepVerifier.create(leaderboard.subscribe(1L))
+                .expectNextCount(1)
+                .then(() -> leaderboard.apply(event(StockEvent.Type.DELETED, 10L, 1L, null)).block())
+                .assertNext(change -> assertEquals(List.of(row(10L, 2L, 4)), change.leaders()))
+                .thenCancel()
+                .verify();
+
+        assertEquals(List.of(row(10L, 2L, 4), row(11L, 3L, 5), row(11L, 4L, 5)), leaderboard.leaders(1L));
+    }
+
+    @Test
+    @DisplayName("a failed rescan reloads the whole franchise on the next event")
+    void reloadsFranchiseAfterFailure() {
+        when(productsRepository.findProductsWithMaxStockPerBranch(12L))
+                .thenReturn(Flux.error(new IllegalStateException("conexión perdida")));
+        leaderboard.apply(event(StockEvent.Type.CREATED, 12L, 6L, 1)).block();
+
+        when(productsRepository.findProductsWithMaxStockPerFranchise(1L)).thenReturn(Flux.just(
+                row(10L, 1L, 10), row(11L, 3L, 5), row(11L, 4L, 5), row(12L, 6L, 1)));
+        leaderboard.apply(event(StockEvent.Type.UPDATED, 10L, 2L, 1)).block();
+
+        assertEquals(4, leaderboard.leaders(1L).size());
+    }
+
+    @Test
+    @DisplayName("a branch moved to another franchise leaves the old leaderboard and is rescanned in the new one")
+    void movesBranchBetweenFranchises() {
+        when(productsRepository.findProductsWithMaxStockPerBranch(10L)).thenReturn(Flux.just(row(10L, 1L, 10)));
+
+        leaderboard.apply(StockEvent.ofBranch(StockEvent.Type.BRANCH_REMOVED, 1L, 10L)).block();
+        leaderboard.apply(StockEvent.ofBranch(StockEvent.Type.BRANCH_UPDATED, 2L, 10L)).block();
+
+        assertEquals(List.of(row(11L, 3L, 5), row(11L, 4L, 5)), leaderboard.leaders(1L));
+        assertEquals(List.of(row(10L, 1L, 10)), leaderboard.leaders(2L));
+    }
+
+    @Test
+    @DisplayName("a deleted franchise is dropped from the leaderboard and its subscribers see every branch emptied")
+    void dropsRemovedFranchise() {
+        StepVerifier.create(leaderboard.subscribe(1L))
+                .assertNext(message -> assertEquals(MaxStockLeaderboardMessage.Type.SNAPSHOT, message.type()))
+                .then(() -> leaderboard.apply(StockEvent.ofFranchise(StockEvent.Type.FRANCHISE_REMOVED, 1L)).block())
+                .assertNext(message -> assertEquals(List.of(), message.leaders()))
+                .assertNext(message -> assertEquals(List.of(), message.leaders()))
+                .thenCancel()
+                .verify();
+
+        assertEquals(List.of(), leaderboard.leaders(1L));
+    }
+}
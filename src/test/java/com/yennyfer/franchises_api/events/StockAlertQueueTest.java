@@ -0,0 +1,65 @@
+package com.yennyfer.franchises_api.events;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.StockAlert;
+
+import reactor.core.publisher.Mono;
+
+class StockAlertQueueTest {
+
+    private StockAlertQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    private static StockAlert alert(long productId) {
+        return new StockAlert(StockAlert.Type.LOW_STOCK, 1L, 10L, productId, "Producto " + productId, 1, 5, Instant.now());
+    }
+
+    @Test
+    @DisplayName("a failing or hanging sink does not keep alerts from the other sinks")
+    void isolatesSinks() {
+        List<Long> delivered = new CopyOnWriteArrayList<>();
+        StockAlertSink failing = alert -> Mono.error(new IllegalStateException("webhook caído"));
+        StockAlertSink hanging = alert -> Mono.never();
+        StockAlertSink recording = alert -> Mono.fromRunnable(() -> delivered.add(alert.productId()));
+        queue = new StockAlertQueue(List.of(failing, hanging, recording),
+                new StockAlertProperties(16, 5, Duration.ofMillis(50), null));
+        queue.start();
+
+        queue.enqueue(alert(1L)).block();
+        queue.enqueue(alert(2L)).block();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> delivered.size() == 2);
+        assertEquals(List.of(1L, 2L), delivered);
+    }
+
+    @Test
+    @DisplayName("alerts beyond the queue capacity are dropped instead of blocking the writer")
+    void dropsWhenFull() {
+        List<Long> delivered = new CopyOnWriteArrayList<>();
+        queue = new StockAlertQueue(List.of(alert -> Mono.fromRunnable(() -> delivered.add(alert.productId()))),
+                new StockAlertProperties(8, 5, Duration.ofSeconds(1), null));
+
+        for (long id = 1; id <= 20; id++) {
+            queue.offer(alert(id));
+        }
+        queue.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> delivered.size() == 8);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L), delivered);
+    }
+}
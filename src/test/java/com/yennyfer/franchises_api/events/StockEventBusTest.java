@@ -0,0 +1,108 @@
+package com.yennyfer.franchises_api.events;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.Mockito.when;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.config.StockStreamProperties;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.Product;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class StockEventBusTest {
+
+    @Mock
+    private BranchReadCache branchReadCache;
+
+    @Mock
+    private ObjectProvider<PostgresStockEventBridge> bridge;
+
+    private StockEventBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new StockEventBus(branchReadCache, new StockStreamProperties(2, false, "stock_events"), bridge);
+    }
+
+    private void stubBranches() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(Branch.builder().id(10L).franchiseId(1L).build()));
+        when(branchReadCache.findById(20L)).thenReturn(Mono.just(Branch.builder().id(20L).franchiseId(2L).build()));
+    }
+
+    private static Product product(long id, long branchId, int stock) {
+        return Product.builder().id(id).name("Producto " + id).branchId(branchId).stock(stock).build();
+    }
+
+    @Test
+    @DisplayName("outside a transaction events reach only the subscribers of the product's franchise")
+    void publishesToFranchiseSubscribers() {
+        stubBranches();
+
+        StepVerifier.create(bus.stream(1L))
+                .then(() -> bus.publish(StockEvent.Type.UPDATED, product(2, 20, 5))
+                        .then(bus.publish(StockEvent.Type.UPDATED, product(1, 10, 7)))
+                        .then(bus.publish(StockEvent.Type.DELETED, product(1, 10, 7)))
+                        .block())
+                .assertNext(event -> {
+                    assertEquals(StockEvent.Type.UPDATED, event.type());
+                    assertEquals(1L, event.productId());
+                    assertEquals(7, event.stock());
+                })
+                .assertNext(event -> {
+                    assertEquals(StockEvent.Type.DELETED, event.type());
+                    assertNull(event.stock());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    @DisplayName("a subscriber that stops requesting keeps only the newest events and sees the gap in sequences")
+    void slowSubscriberDropsOldest() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(Branch.builder().id(10L).franchiseId(1L).build()));
+
+        StepVerifier.create(bus.stream(1L), 0)
+                .then(() -> {
+                    for (int stock = 1; stock <= 5; stock++) {
+                        bus.publish(StockEvent.Type.UPDATED, product(1, 10, stock)).block();
+                    }
+                })
+                .thenRequest(5)
+                .assertNext(event -> assertEquals(List.of(4L, 4), List.of(event.sequence(), event.stock())))
+                .assertNext(event -> assertEquals(List.of(5L, 5), List.of(event.sequence(), event.stock())))
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    @DisplayName("writes to other franchises leave no gaps in a subscriber's sequence")
+    void sequencesArePerFranchise() {
+        stubBranches();
+
+        StepVerifier.create(bus.stream(1L))
+                .then(() -> bus.publish(StockEvent.Type.UPDATED, product(1, 10, 1))
+                        .then(bus.publish(StockEvent.Type.UPDATED, product(2, 20, 2)))
+                        .then(bus.publish(StockEvent.Type.UPDATED, product(2, 20, 3)))
+                        .then(bus.publish(StockEvent.Type.UPDATED, product(1, 10, 4)))
+                        .block())
+                .assertNext(event -> assertEquals(1L, event.sequence()))
+                .assertNext(event -> assertEquals(2L, event.sequence()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,87 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.yennyfer.franchises_api.repository.BranchMaxStockRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class BranchMaxStockConcurrencyTest extends PostgresTestSupport {
+
+    private static final Duration HOLD = Duration.ofMillis(500);
+
+    @Autowired
+    private BranchMaxStockRepository branchMaxStockRepository;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM product WHERE branch_id = 14001").then(),
+                        databaseClient.sql("DELETE FROM branch WHERE id = 14001").then(),
+                        databaseClient.sql("DELETE FROM franchise WHERE id = 14001").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (14001, 'Franquicia Concurrencia')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (14001, 'Sucursal Concurrencia', 14001)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (14001, 'Combo Concurrencia', 50, 14001)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (14002, 'Bebida Concurrencia', 20, 14001)").then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (14001, 50)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("a lower that waits on a committing raise keeps the raised max")
+    void lowerAfterRaise() {
+        race(writeStock(14002L, 100), writeStock(14001L, 10));
+
+        assertEquals(100, maxStock());
+    }
+
+    @Test
+    @DisplayName("a raise that waits on a committing lower keeps the raised max")
+    void raiseAfterLower() {
+        race(writeStock(14001L, 10), writeStock(14002L, 100));
+
+        assertEquals(100, maxStock());
+    }
+
+    /**
+     * Runs {@code first} up to its summary refresh and holds its transaction open while {@code second} writes and
+     * blocks on the summary row, so the second refresh starts before the first commits.
+     */
+    private void race(Mono<Integer> first, Mono<Integer> second) {
+        TransactionalOperator transactional = TransactionalOperator.create(transactionManager);
+        Sinks.One<Boolean> refreshed = Sinks.one();
+        Mono<Void> holder = transactional.transactional(first
+                        .doOnNext(rows -> refreshed.tryEmitValue(true))
+                        .delayElement(HOLD))
+                .then();
+        Mono<Void> waiter = refreshed.asMono()
+                .then(transactional.transactional(second))
+                .then();
+        Mono.when(holder, waiter).block(Duration.ofSeconds(10));
+    }
+
+    private Mono<Integer> writeStock(Long productId, int stock) {
+        return databaseClient.sql("UPDATE product SET stock = :stock WHERE id = :id")
+                .bind("stock", stock)
+                .bind("id", productId)
+                .then()
+                .then(Mono.defer(() -> branchMaxStockRepository.refresh(14001L, stock)));
+    }
+
+    private Integer maxStock() {
+        return branchMaxStockRepository.findById(14001L).block().getMaxStock();
+    }
+}
@@ -0,0 +1,111 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.BulkCreateResult.Status;
+import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.model.Product;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest(properties = "franchises.bulk.batch-size=2")
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class BulkCreateTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (4001, 'Franquicia Existente')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (4001, 'Sucursal Existente', 4001)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (4001, NULL)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (4001, 'Producto Existente', 5, 4001)");
+    }
+
+    @Test
+    @DisplayName("given a JSON array when bulk creating franchises then reports created, duplicated and invalid rows in order")
+    void createFranchises() {
+        List<BulkCreateResult> results = post("/api/franchises/bulk", MediaType.APPLICATION_JSON, List.of(
+                Franchise.builder().name("Franquicia Bulk 1").build(),
+                Franchise.builder().name("Franquicia Existente").build(),
+                Franchise.builder().name(" ").build(),
+                Franchise.builder().name("Franquicia Bulk 1").build(),
+                Franchise.builder().name("Franquicia Bulk 2").build()));
+
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.INVALID, Status.DUPLICATE, Status.CREATED),
+                results.stream().map(BulkCreateResult::status).toList());
+        assertNotNull(results.get(0).id());
+        assertNull(results.get(1).id());
+        assertEquals(3L, count("SELECT COUNT(*) AS total FROM franchise"));
+    }
+
+    @Test
+    @DisplayName("given branches with an unknown franchise when bulk creating then only the known ones are inserted")
+    void createBranches() {
+        List<BulkCreateResult> results = post("/api/branches/bulk", MediaType.APPLICATION_NDJSON, List.of(
+                Branch.builder().name("Sucursal Bulk").address("Calle 1").franchiseId(4001L).build(),
+                Branch.builder().name("Sucursal Huerfana").franchiseId(4999L).build(),
+                Branch.builder().name("Sucursal Existente").franchiseId(4001L).build()));
+
+        assertEquals(List.of(Status.CREATED, Status.INVALID, Status.DUPLICATE),
+                results.stream().map(BulkCreateResult::status).toList());
+        assertEquals(1L, count("SELECT COUNT(*) AS total FROM branch_max_stock WHERE branch_id = " + results.get(0).id()));
+    }
+
+    @Test
+    @DisplayName("when bulk creating products then the branch max stock summary follows the new rows")
+    void createProducts() {
+        List<BulkCreateResult> results = post("/api/products/bulk", MediaType.APPLICATION_JSON, List.of(
+                Product.builder().name("Producto Bulk 1").stock(20).branchId(4001L).build(),
+                Product.builder().name("Producto Existente").stock(99).branchId(4001L).build(),
+                Product.builder().name("Producto Sin Stock").branchId(4001L).build(),
+                Product.builder().name("Producto Bulk 2").stock(40).sku(4002).branchId(4001L).build()));
+
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.INVALID, Status.CREATED),
+                results.stream().map(BulkCreateResult::status).toList());
+        assertEquals(40L, count("SELECT max_stock AS total FROM branch_max_stock WHERE branch_id = 4001"));
+    }
+
+    private List<BulkCreateResult> post(String uri, MediaType contentType, List<?> body) {
+        return webTestClient.post()
+                .uri(uri)
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(body), Object.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BulkCreateResult.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("total", Number.class).longValue())
+                .one()
+                .block();
+    }
+}
@@ -0,0 +1,90 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockMovement;
+
+import reactor.core.publisher.Flux;
+
+class BulkStockMovementTest extends PostgresTestSupport {
+
+    private static final String FROM = "2000-01-01T00:00:00Z";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM stock_movement WHERE branch_id = 18001").then(),
+                        databaseClient.sql("DELETE FROM franchise WHERE id = 18001").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (18001, 'Franquicia Historial')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (18001, 'Sucursal Historial', 18001)").then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (18001, 10)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (18001, 'Historial A', 10, 18001), (18002, 'Historial B', 4, 18001)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("a bulk stock update appends one movement per applied item, with the change it made")
+    void bulkUpdateRecordsMovements() {
+        webTestClient.patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        new StockUpdateItem(18001L, 6, null),
+                        new StockUpdateItem(18002L, null, 3),
+                        new StockUpdateItem(18001L, null, -10)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockUpdateResult.class).hasSize(3);
+
+        List<StockMovement> movements = branchMovements();
+        assertEquals(List.of(StockMovement.Kind.SET, StockMovement.Kind.ADJUSTED),
+                movements.stream().map(StockMovement::getKind).toList());
+        assertEquals(List.of(-4, 3), movements.stream().map(StockMovement::getDelta).toList());
+        assertEquals(List.of(6, 7), movements.stream().map(StockMovement::getStock).toList());
+    }
+
+    @Test
+    @DisplayName("a bulk create appends a creation movement for every product it inserted")
+    void bulkCreateRecordsMovements() {
+        webTestClient.post()
+                .uri("/api/products/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        Product.builder().name("Historial C").stock(7).branchId(18001L).build(),
+                        Product.builder().name("Historial A").stock(1).branchId(18001L).build(),
+                        Product.builder().name("Historial D").stock(2).branchId(18001L).build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BulkCreateResult.class).hasSize(3);
+
+        List<StockMovement> movements = branchMovements();
+        assertEquals(List.of(StockMovement.Kind.CREATED, StockMovement.Kind.CREATED),
+                movements.stream().map(StockMovement::getKind).toList());
+        assertEquals(List.of(7, 2), movements.stream().map(StockMovement::getDelta).toList());
+    }
+
+    private List<StockMovement> branchMovements() {
+        return webTestClient.get()
+                .uri("/api/branches/18001/stock/movements?from=" + FROM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockMovement.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,213 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
+import com.yennyfer.franchises_api.dto.StockUpdateResult.Status;
+import com.yennyfer.franchises_api.events.StreamingStockAlertSink;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.service.ProductsService;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@TestPropertySource(properties = "franchises.bulk.batch-size=2")
+class BulkStockUpdateTest extends PostgresTestSupport {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StreamingStockAlertSink streamingStockAlertSink;
+
+    @Autowired
+    private ProductsService productsService;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM franchise WHERE id = 3001").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (3001, 'Franquicia Bulk')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (3001, 'Sucursal Bulk', 3001)").then(),
+                        databaseClient.sql("""
+                                INSERT INTO product (id, name, stock, branch_id) VALUES
+                                    (3001, 'Bulk A', 10, 3001),
+                                    (3002, 'Bulk B', 50, 3001),
+                                    (3003, 'Bulk C', 30, 3001)
+                                """).then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (3001, 50)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("given a JSON array when bulk updating stock then applies every item and reports each one")
+    void bulkUpdate_jsonArray() {
+        List<StockUpdateItem> items = List.of(
+                new StockUpdateItem(3001L, null, -4),
+                new StockUpdateItem(3002L, 5, null),
+                new StockUpdateItem(3999L, 1, null),
+                new StockUpdateItem(3003L, null, null),
+                new StockUpdateItem(3003L, -5, null),
+                new StockUpdateItem(3001L, null, -7),
+                new StockUpdateItem(3003L, null, 15));
+
+        List<StockUpdateResult> results = webTestClient.patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(items)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockUpdateResult.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(
+                new StockUpdateResult(3001L, Status.UPDATED, 6),
+                new StockUpdateResult(3002L, Status.UPDATED, 5),
+                new StockUpdateResult(3999L, Status.NOT_FOUND, null),
+                new StockUpdateResult(3003L, Status.INVALID, null),
+                new StockUpdateResult(3003L, Status.INVALID, null),
+                new StockUpdateResult(3001L, Status.INSUFFICIENT_STOCK, 6),
+                new StockUpdateResult(3003L, Status.UPDATED, 45)), results);
+
+        webTestClient.get()
+                .uri("/api/franchises/3001/products/max-stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].productId").isEqualTo(3003)
+                .jsonPath("$[0].stock").isEqualTo(45);
+    }
+
+    @Test
+    @DisplayName("given an NDJSON stream when bulk updating stock then streams results back")
+    void bulkUpdate_ndjson() {
+        Flux<StockUpdateItem> items = Flux.just(
+                new StockUpdateItem(3001L, 70, null),
+                new StockUpdateItem(3002L, null, 1));
+
+        List<StockUpdateResult> results = webTestClient.patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(items, StockUpdateItem.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(StockUpdateResult.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(List.of(
+                new StockUpdateResult(3001L, Status.UPDATED, 70),
+                new StockUpdateResult(3002L, Status.UPDATED, 51)), results);
+    }
+
+    @Test
+    @DisplayName("a later batch that lowers a product raised by an earlier one leaves the max-stock summary exact")
+    void bulkUpdate_recomputesMaxStockOnce() {
+        List<StockUpdateItem> items = List.of(
+                new StockUpdateItem(3003L, 90, null),
+                new StockUpdateItem(3002L, 1, null),
+                new StockUpdateItem(3003L, 5, null),
+                new StockUpdateItem(3001L, null, 2));
+
+        webTestClient.patch()
+                .uri("/api/products/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(items)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockUpdateResult.class).hasSize(4);
+
+        assertEquals(12, databaseClient.sql("SELECT max_stock FROM branch_max_stock WHERE branch_id = 3001")
+                .map(row -> row.get("max_stock", Integer.class))
+                .one()
+                .block());
+    }
+
+    @Test
+    @DisplayName("concurrent bulk requests over the same products in opposite orders all complete")
+    void bulkUpdate_oppositeOrdersDoNotDeadlock() {
+        List<StockUpdateItem> forward = List.of(new StockUpdateItem(3001L, null, 1), new StockUpdateItem(3002L, null, 1));
+        List<StockUpdateItem> backward = List.of(new StockUpdateItem(3002L, null, 1), new StockUpdateItem(3001L, null, 1));
+
+        Flux.range(0, 20)
+                .flatMap(i -> productsService.updateProductStocks(Flux.fromIterable(i % 2 == 0 ? forward : backward))
+                        .then(), 4)
+                .then()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(30, productsRepository.findById(3001L).block().getStock());
+        assertEquals(70, productsRepository.findById(3002L).block().getStock());
+    }
+
+    @Test
+    @DisplayName("statement-level stock writes bump the version too")
+    void batchWritesBumpVersion() {
+        Product stale = productsRepository.findById(3001L).block();
+
+        productsRepository.applyStockUpdates(List.of(new StockUpdateItem(3001L, null, 5)), 5).blockLast();
+
+        stale.setName("Bulk A grande");
+        StepVerifier.create(productsRepository.save(stale))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        assertEquals(15, productsRepository.findById(3001L).block().getStock());
+    }
+
+    @Test
+    @DisplayName("every item that crosses the branch threshold flags the row and raises its alert")
+    void bulkUpdate_raisesLowStockAlerts() {
+        execute("UPDATE branch SET reorder_threshold = 8 WHERE id = 3001");
+        List<StockUpdateItem> items = List.of(
+                new StockUpdateItem(3001L, null, -4),
+                new StockUpdateItem(3002L, 5, null),
+                new StockUpdateItem(3001L, 20, null));
+
+        StepVerifier.create(streamingStockAlertSink.stream(3001L))
+                .then(() -> webTestClient.patch()
+                        .uri("/api/products/stock")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(items)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBodyList(StockUpdateResult.class).hasSize(3))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals(3001L, alert.productId());
+                    assertEquals(6, alert.stock());
+                    assertEquals(8, alert.threshold());
+                })
+                .assertNext(alert -> assertEquals(3002L, alert.productId()))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.RECOVERED, alert.type());
+                    assertEquals(3001L, alert.productId());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertFalse(productsRepository.findById(3001L).block().isLowStock());
+        assertTrue(productsRepository.findById(3002L).block().isLowStock());
+    }
+}
@@ -0,0 +1,29 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Empties the franchise, branch and product tables, children first, and runs the test's own inserts in order.
+ */
+final class CatalogFixtures {
+
+    private static final List<String> CLEAR = List.of(
+            "DELETE FROM product",
+            "DELETE FROM branch_max_stock",
+            "DELETE FROM branch",
+            "DELETE FROM franchise");
+
+    private CatalogFixtures() {
+    }
+
+    static void reset(DatabaseClient client, String... inserts) {
+        Flux.fromIterable(CLEAR)
+                .concatWith(Flux.fromArray(inserts))
+                .concatMap(sql -> client.sql(sql).then())
+                .blockLast();
+    }
+}
@@ -0,0 +1,69 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolAcquirePendingLimitException;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(properties = {
+        "franchises.pool.max-size=2",
+        "franchises.pool.max-pending-acquire=1",
+        "franchises.pool.acquire-timeout=300ms"
+})
+@ActiveProfiles("test")
+class DatabasePoolConfigurationTest {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private List<Connection> held = List.of();
+
+    @AfterEach
+    void release() {
+        Flux.fromIterable(held).concatMap(Connection::close).blockLast();
+    }
+
+    @Test
+    @DisplayName("the pool is sized from the properties and warmed up at startup")
+    void sizedAndWarmed() {
+        ConnectionPool pool = assertInstanceOf(ConnectionPool.class, connectionFactory);
+        PoolMetrics metrics = pool.getMetrics().orElseThrow();
+
+        assertEquals(2, metrics.getMaxAllocatedSize());
+        assertEquals(1, metrics.getMaxPendingAcquireSize());
+        assertEquals(1, metrics.allocatedSize());
+    }
+
+    @Test
+    @DisplayName("an acquire on an exhausted pool times out and one past the pending bound is rejected")
+    void exhaustedPool() {
+        held = Flux.range(0, 2).concatMap(i -> Mono.<Connection>from(connectionFactory.create())).collectList().block();
+
+        StepVerifier.create(Mono.<Connection>from(connectionFactory.create()))
+                .expectError(R2dbcTimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+
+        Mono<Connection> pending = Mono.<Connection>from(connectionFactory.create());
+        StepVerifier.create(Mono.<Connection>from(connectionFactory.create()).delaySubscription(Duration.ofMillis(50))
+                        .and(pending))
+                .expectError(PoolAcquirePendingLimitException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,93 @@
+package com.yennyfer.franchises_api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+
+class DeleteReturningTest extends PostgresTestSupport {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM franchise WHERE id IN (16001, 16002)").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (16001, 'Franquicia Borrado Norte'), (16002, 'Franquicia Borrado Sur')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (16001, 'Sucursal Borrado Centro', 16001), (16002, 'Sucursal Borrado Norte', 16001), (16003, 'Sucursal Borrado Sur', 16002)").then(),
+                        databaseClient.sql("""
+                                INSERT INTO product (id, name, stock, branch_id) VALUES
+                                    (16001, 'Combo Borrado', 50, 16001),
+                                    (16002, 'Bebida Borrado', 75, 16001),
+                                    (16003, 'Snack Borrado', 75, 16001),
+                                    (16004, 'Postre Borrado', 10, 16002),
+                                    (16005, 'Promo Borrado', 5, 16003)
+                                """).then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (16001, 75), (16002, 10), (16003, 5)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("when deleting every leader of a branch then the branch max is recomputed")
+    void deleteLeadersFallsBack() {
+        webTestClient.delete().uri("/api/products/16002").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/products/16003").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/products/16003").exchange().expectStatus().isNotFound();
+
+        webTestClient.get()
+                .uri("/api/franchises/16001/products/max-stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].branchId").isEqualTo(16001)
+                .jsonPath("$[0].productId").isEqualTo(16001)
+                .jsonPath("$[0].stock").isEqualTo(50);
+        assertEquals(50, count("SELECT max_stock FROM branch_max_stock WHERE branch_id = 16001"));
+    }
+
+    @Test
+    @DisplayName("deleting a branch changes the tag of its franchise only and removes its products")
+    void deleteBranchBumpsItsFranchise() {
+        String before = eTagOf("/api/franchises/16001/branches");
+        String other = eTagOf("/api/franchises/16002/branches");
+
+        webTestClient.delete().uri("/api/branches/16002").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/branches/16002").exchange().expectStatus().isNotFound();
+
+        assertNotEquals(before, eTagOf("/api/franchises/16001/branches"));
+        assertEquals(other, eTagOf("/api/franchises/16002/branches"));
+        assertEquals(0, count("SELECT COUNT(*) FROM product WHERE branch_id = 16002"));
+    }
+
+    @Test
+    @DisplayName("deleting a franchise removes it with its children and answers 404 once gone")
+    void deleteFranchise() {
+        webTestClient.delete().uri("/api/franchises/16002").exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/api/franchises/16002").exchange().expectStatus().isNotFound();
+
+        webTestClient.get().uri("/api/franchises/16002").exchange().expectStatus().isNotFound();
+        assertEquals(0, count("SELECT COUNT(*) FROM branch WHERE franchise_id = 16002"));
+        assertEquals(1, count("SELECT COUNT(*) FROM franchise WHERE id = 16001"));
+    }
+
+    private String eTagOf(String uri) {
+        return webTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+}
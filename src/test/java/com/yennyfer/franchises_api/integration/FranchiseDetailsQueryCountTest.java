@@ -0,0 +1,114 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.model.FranchiseAggregate;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+@Import(QueryCountingConfiguration.class)
+class FranchiseDetailsQueryCountTest {
+
+    private static final int FRANCHISES = 3;
+    private static final int BRANCHES_PER_FRANCHISE = 4;
+    private static final int PRODUCTS_PER_BRANCH = 5;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient);
+
+        long branchId = 0;
+        long productId = 0;
+        for (long franchiseId = 1; franchiseId <= FRANCHISES; franchiseId++) {
+            insert("INSERT INTO franchise (id, name) VALUES (" + franchiseId + ", 'Franquicia " + franchiseId + "')");
+            for (int b = 0; b < BRANCHES_PER_FRANCHISE; b++) {
+                branchId++;
+                insert("INSERT INTO branch (id, name, franchise_id) VALUES (" + branchId + ", 'Sucursal " + branchId + "', " + franchiseId + ")");
+                for (int p = 0; p < PRODUCTS_PER_BRANCH; p++) {
+                    productId++;
+                    insert("INSERT INTO product (id, name, stock, branch_id) VALUES (" + productId + ", 'Producto " + productId + "', " + p + ", " + branchId + ")");
+                }
+            }
+        }
+        queryCounter.reset();
+    }
+
+    private void insert(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    @Test
+    @DisplayName("when requesting franchise details then issues the revision lookup and a single tree query")
+    void getFranchisesWithDetails_singleQuery() {
+        webTestClient.get()
+                .uri("/api/franchises/details")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(FRANCHISES)
+                .jsonPath("$[0].branches.length()").isEqualTo(BRANCHES_PER_FRANCHISE)
+                .jsonPath("$[0].branches[0].products.length()").isEqualTo(PRODUCTS_PER_BRANCH)
+                .jsonPath("$[2].branches[3].products[4].id").isEqualTo(FRANCHISES * BRANCHES_PER_FRANCHISE * PRODUCTS_PER_BRANCH);
+
+        assertEquals(2, queryCounter.count());
+    }
+
+    @Test
+    @DisplayName("when streaming franchise details then emits one line per branch from a single tree query")
+    void streamFranchisesWithDetails_singleQuery() {
+        List<FranchiseAggregate> lines = webTestClient.get()
+                .uri("/api/franchises/details")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(FranchiseAggregate.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(FRANCHISES * BRANCHES_PER_FRANCHISE, lines.size());
+        assertEquals(2L, lines.get(BRANCHES_PER_FRANCHISE).franchise().getId());
+        FranchiseAggregate last = lines.get(lines.size() - 1);
+        assertEquals(1, last.branches().size());
+        assertEquals((long) FRANCHISES * BRANCHES_PER_FRANCHISE * PRODUCTS_PER_BRANCH,
+                last.branches().get(0).products().get(PRODUCTS_PER_BRANCH - 1).getId());
+        assertEquals(2, queryCounter.count());
+    }
+
+    @Test
+    @DisplayName("when requesting branch details then issues a single query regardless of tree size")
+    void getAllBranchesWithDetails_singleQuery() {
+        webTestClient.get()
+                .uri("/api/branches/details")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(FRANCHISES * BRANCHES_PER_FRANCHISE)
+                .jsonPath("$[0].products.length()").isEqualTo(PRODUCTS_PER_BRANCH)
+                .jsonPath("$[0].branch.franchiseId").isEqualTo(1);
+
+        assertEquals(1, queryCounter.count());
+    }
+}
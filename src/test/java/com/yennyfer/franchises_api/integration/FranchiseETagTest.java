@@ -0,0 +1,110 @@
+package com.yennyfer.franchises_api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+@Import(QueryCountingConfiguration.class)
+class FranchiseETagTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (6001, 'Franquicia Norte'), (6002, 'Franquicia Sur')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (6001, 'Sucursal Centro', 6001), (6002, 'Sucursal Sur', 6002)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (6001, 'Combo', 10, 6001), (6002, 'Bebida', 5, 6002)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (6001, 10), (6002, 5)");
+    }
+
+    @Test
+    @DisplayName("a matching If-None-Match is answered with 304 after only the revision lookup")
+    void notModified() {
+        String eTag = eTagOf("/api/franchises/6001/details");
+        queryCounter.reset();
+
+        webTestClient.get()
+                .uri("/api/franchises/6001/details")
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        assertEquals(1, queryCounter.count());
+    }
+
+    @Test
+    @DisplayName("a stock write changes the tags of its franchise and of the listing but not of other franchises")
+    void stockWriteBumpsRevision() {
+        String franchiseTag = eTagOf("/api/franchises/6001/details");
+        String otherTag = eTagOf("/api/franchises/6002/details");
+        String listingTag = eTagOf("/api/franchises/details");
+
+        webTestClient.patch()
+                .uri("/api/products/6001/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(20))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/franchises/6001/details")
+                .ifNoneMatch(franchiseTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.branches[0].products[0].stock").isEqualTo(20);
+        assertNotEquals(listingTag, eTagOf("/api/franchises/details"));
+        assertEquals(otherTag, eTagOf("/api/franchises/6002/details"));
+    }
+
+    @Test
+    @DisplayName("creating branches changes the tag of their franchise")
+    void branchWritesBumpRevision() {
+        String before = eTagOf("/api/franchises/6002/branches");
+
+        webTestClient.post()
+                .uri("/api/branches/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"name\":\"Sucursal Nueva\",\"franchiseId\":6002}]")
+                .exchange()
+                .expectStatus().isOk();
+
+        assertNotEquals(before, eTagOf("/api/franchises/6002/branches"));
+    }
+
+    private String eTagOf(String uri) {
+        String eTag = webTestClient.get()
+                .uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+        assertNotNull(eTag);
+        return eTag;
+    }
+}
@@ -0,0 +1,87 @@
+package com.yennyfer.franchises_api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+
+import reactor.core.publisher.Flux;
+
+@TestPropertySource(properties = "franchises.bulk.batch-size=2")
+class FranchisePurgeTest extends PostgresTestSupport {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private FranchisesRepository franchisesRepository;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM franchise WHERE id IN (9001, 9002)").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (9001, 'Franquicia Purga Norte'), (9002, 'Franquicia Purga Sur')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (9001, 'Sucursal Purga A', 9001), (9002, 'Sucursal Purga B', 9001), (9003, 'Sucursal Purga C', 9001), (9004, 'Sucursal Purga D', 9002)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (9001, 'P1', 1, 9001), (9002, 'P2', 2, 9001), (9003, 'P3', 3, 9002), (9004, 'P4', 4, 9002), (9005, 'P5', 5, 9003), (9006, 'P6', 6, 9004)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("a chunked delete removes the franchise with all its children before answering, leaving others intact")
+    void purgesInBatches() {
+        webTestClient.delete()
+                .uri("/api/franchises/9001?chunked=true")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/franchises/9001")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertEquals(0L, count("SELECT COUNT(*) FROM branch WHERE franchise_id = 9001"));
+        assertEquals(0L, count("SELECT COUNT(*) FROM product WHERE branch_id IN (9001, 9002, 9003)"));
+        assertEquals(1L, count("SELECT COUNT(*) FROM product WHERE branch_id = 9004"));
+    }
+
+    @Test
+    @DisplayName("each purged slice bumps the franchise revision, so the entity tag changes while the purge runs")
+    void sliceBumpsRevision() {
+        long before = revision(9001);
+
+        assertEquals(2, franchisesRepository.deleteProductBatch(9001L, 2).block());
+        assertEquals(before + 1, revision(9001));
+        assertEquals(2, franchisesRepository.deleteBranchBatch(9001L, 2).block());
+        assertEquals(before + 2, revision(9001));
+    }
+
+    @Test
+    @DisplayName("a slice that finds nothing left to delete leaves the revision alone")
+    void emptySliceKeepsRevision() {
+        long before = revision(9002);
+
+        assertEquals(1, franchisesRepository.deleteProductBatch(9002L, 2).block());
+        assertEquals(0, franchisesRepository.deleteProductBatch(9002L, 2).block());
+        assertEquals(before + 1, revision(9002));
+    }
+
+    @Test
+    @DisplayName("deleting a missing franchise answers 404 in both modes")
+    void missingFranchise() {
+        webTestClient.delete().uri("/api/franchises/9999").exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/franchises/9999?chunked=true").exchange().expectStatus().isNotFound();
+    }
+
+    private long revision(long franchiseId) {
+        return count("SELECT revision FROM franchise WHERE id = " + franchiseId);
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+}
@@ -0,0 +1,81 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.model.Product;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+
+    private static final int PRODUCTS = 23;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (1, 'Franquicia Norte')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (1, 'Sucursal Centro', 1)");
+        for (int id = 1; id <= PRODUCTS; id++) {
+            databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (" + id + ", 'Producto " + id + "', " + id + ", 1)")
+                    .then()
+                    .block();
+        }
+    }
+
+    @Test
+    @DisplayName("when walking product pages by cursor then every product is returned once and in id order")
+    void walkAllPages() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String uri = "/api/products?limit=10" + (cursor == null ? "" : "&after=" + cursor);
+            PageResponse<Product> page = webTestClient.get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(new ParameterizedTypeReference<PageResponse<Product>>() {})
+                    .returnResult()
+                    .getResponseBody();
+            page.items().forEach(product -> seen.add(product.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(PRODUCTS, seen.size());
+        for (int i = 0; i < PRODUCTS; i++) {
+            assertEquals(i + 1L, seen.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("given invalid cursor when listing products then returns 400")
+    void invalidCursor() {
+        webTestClient.get()
+                .uri("/api/products?after=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
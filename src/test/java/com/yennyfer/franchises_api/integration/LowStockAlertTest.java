@@ -0,0 +1,122 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+import com.yennyfer.franchises_api.events.StreamingStockAlertSink;
+import com.yennyfer.franchises_api.model.Product;
+
+import reactor.test.StepVerifier;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class LowStockAlertTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private StreamingStockAlertSink streamingStockAlertSink;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (12001, 'Franquicia Norte')",
+                "INSERT INTO branch (id, name, franchise_id, reorder_threshold) VALUES (12001, 'Sucursal Centro', 12001, 5)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (12001, 'Combo', 10, 12001)");
+    }
+
+    @Test
+    @DisplayName("crossing the branch threshold raises one alert and persists the low-stock flag")
+    void raisesAlertOnCrossing() {
+        StepVerifier.create(streamingStockAlertSink.stream(12001L))
+                .then(() -> {
+                    updateStock(3);
+                    updateStock(1);
+                })
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals(12001L, alert.productId());
+                    assertEquals(3, alert.stock());
+                    assertEquals(5, alert.threshold());
+                })
+                .then(() -> updateStock(10))
+                .assertNext(alert -> assertEquals(StockAlert.Type.RECOVERED, alert.type()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        Boolean lowStock = databaseClient.sql("SELECT low_stock FROM product WHERE id = 12001")
+                .map(row -> row.get("low_stock", Boolean.class))
+                .one()
+                .block();
+        assertTrue(Boolean.FALSE.equals(lowStock));
+    }
+
+    @Test
+    @DisplayName("products created below the threshold, one by one or in bulk, are flagged and raise an alert each")
+    void createBelowThresholdRaisesAlert() {
+        StepVerifier.create(streamingStockAlertSink.stream(12001L))
+                .then(() -> webTestClient.post()
+                        .uri("/api/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Product.builder().name("Bebida").stock(2).branchId(12001L).build())
+                        .exchange()
+                        .expectStatus().isOk())
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals("Bebida", alert.productName());
+                })
+                .then(() -> webTestClient.post()
+                        .uri("/api/products/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(List.of(
+                                Product.builder().name("Postre").stock(8).branchId(12001L).build(),
+                                Product.builder().name("Helado").stock(1).branchId(12001L).build()))
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectBodyList(BulkCreateResult.class).hasSize(2))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals("Helado", alert.productName());
+                    assertEquals(5, alert.threshold());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        List<String> flagged = databaseClient.sql("SELECT name FROM product WHERE low_stock ORDER BY name")
+                .map(row -> row.get("name", String.class))
+                .all()
+                .collectList()
+                .block();
+        assertEquals(List.of("Bebida", "Helado"), flagged);
+    }
+
+    private void updateStock(int stock) {
+        webTestClient.patch()
+                .uri("/api/products/12001/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(stock))
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,105 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yennyfer.franchises_api.dto.MaxStockLeaderboardMessage;
+import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class MaxStockLeaderboardWebSocketTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (8001, 'Franquicia Norte')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (8001, 'Sucursal Centro', 8001)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (8001, 'Combo', 10, 8001), (8002, 'Bebida', 5, 8001)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (8001, 10)");
+    }
+
+    @Test
+    @DisplayName("subscribers get a snapshot, then the new leader once a stock write overtakes it")
+    void pushesLeaderChanges() {
+        Sinks.Many<MaxStockLeaderboardMessage> received = Sinks.many().replay().all();
+        var connection = new ReactorNettyWebSocketClient()
+                .execute(URI.create("ws://localhost:" + port + "/ws/franchises/8001/max-stock"),
+                        session -> session.receive()
+                                .map(WebSocketMessage::getPayloadAsText)
+                                .map(this::read)
+                                .doOnNext(received::tryEmitNext)
+                                .then())
+                .subscribe();
+
+        try {
+            StepVerifier.create(received.asFlux())
+                    .assertNext(snapshot -> assertEquals(MaxStockLeaderboardMessage.Type.SNAPSHOT, snapshot.type()))
+                    .then(() -> webTestClient.patch()
+                            .uri("/api/products/8002/stock")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(new UpdateProductStockRequest(50))
+                            .exchange()
+                            .expectStatus().isOk())
+                    .assertNext(change -> {
+                        assertEquals(MaxStockLeaderboardMessage.Type.LEADER_CHANGED, change.type());
+                        assertEquals(List.of(new ProductMaxStockResponse(8001L, "Sucursal Centro", 8002L, "Bebida", 50)),
+                                change.leaders());
+                    })
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+        } finally {
+            connection.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("an unknown franchise closes the socket without messages")
+    void unknownFranchise() {
+        StepVerifier.create(new ReactorNettyWebSocketClient()
+                        .execute(URI.create("ws://localhost:" + port + "/ws/franchises/8999/max-stock"),
+                                session -> session.receive().then()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    private MaxStockLeaderboardMessage read(String json) {
+        try {
+            return objectMapper.readValue(json, MaxStockLeaderboardMessage.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
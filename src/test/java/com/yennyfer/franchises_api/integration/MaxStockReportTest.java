@@ -0,0 +1,105 @@
+package com.yennyfer.franchises_api.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+import com.yennyfer.franchises_api.model.Product;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class MaxStockReportTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (1001, 'Franquicia Norte'), (1002, 'Franquicia Sur')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (1001, 'Sucursal Centro', 1001), (1002, 'Sucursal Norte', 1001), (1003, 'Sucursal Vacia', 1001), (1004, 'Sucursal Sur', 1002)",
+                """
+                        INSERT INTO product (id, name, stock, branch_id) VALUES
+                            (1001, 'Combo', 50, 1001),
+                            (1002, 'Bebida', 75, 1001),
+                            (1003, 'Snack', 75, 1001),
+                            (1004, 'Postre', 10, 1002),
+                            (1005, 'Promo', 999, 1004)
+                        """,
+                """
+                        INSERT INTO branch_max_stock (branch_id, max_stock)
+                        SELECT b.id, MAX(p.stock) FROM branch b LEFT JOIN product p ON p.branch_id = b.id GROUP BY b.id
+                        """);
+    }
+
+    @Test
+    @DisplayName("when requesting max stock then returns every top product per branch including ties")
+    void maxStockPerBranch() {
+        webTestClient.get()
+                .uri("/api/franchises/1001/products/max-stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].branchId").isEqualTo(1001)
+                .jsonPath("$[0].productId").isEqualTo(1002)
+                .jsonPath("$[0].stock").isEqualTo(75)
+                .jsonPath("$[1].productId").isEqualTo(1003)
+                .jsonPath("$[2].branchId").isEqualTo(1002)
+                .jsonPath("$[2].productId").isEqualTo(1004)
+                .jsonPath("$[2].branchName").isEqualTo("Sucursal Norte");
+    }
+
+    @Test
+    @DisplayName("when a new product tops its branch then the summary is raised without a rescan")
+    void createProductRaisesMax() {
+        webTestClient.post()
+                .uri("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Product.builder().name("Nuevo Combo").stock(80).branchId(1002L).build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/franchises/1001/products/max-stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[2].branchId").isEqualTo(1002)
+                .jsonPath("$[2].productName").isEqualTo("Nuevo Combo")
+                .jsonPath("$[2].stock").isEqualTo(80);
+    }
+
+    @Test
+    @DisplayName("when lowering one of two tied leaders then the other one keeps the max")
+    void lowerTiedLeader() {
+        webTestClient.patch()
+                .uri("/api/products/1003/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(5))
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/franchises/1001/products/max-stock")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].productId").isEqualTo(1002)
+                .jsonPath("$[0].stock").isEqualTo(75);
+    }
+}
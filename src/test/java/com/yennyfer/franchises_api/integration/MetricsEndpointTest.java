@@ -0,0 +1,44 @@
+package com.yennyfer.franchises_api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    @DisplayName("after serving a request the prometheus endpoint exposes request, repository and pool metrics")
+    void prometheusScrape() {
+        webTestClient.get().uri("/api/products?limit=5").exchange().expectStatus().isOk();
+
+        String scrape = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "request histogram");
+        assertTrue(scrape.contains("uri=\"/api/products\""), "request timer per endpoint");
+        assertTrue(scrape.contains("franchises_repository_invocations_seconds_bucket{"), "repository histogram");
+        assertTrue(scrape.contains("method=\"findPageAfter\""), "repository timer per method");
+        assertTrue(scrape.contains("repository=\"ProductsRepository\""), "repository timer per repository");
+        assertTrue(scrape.contains("r2dbc_pool_acquired"), "pool acquired gauge");
+        assertTrue(scrape.contains("r2dbc_pool_idle"), "pool idle gauge");
+        assertTrue(scrape.contains("r2dbc_pool_pending"), "pool pending gauge");
+    }
+}
@@ -0,0 +1,79 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+
+import reactor.test.StepVerifier;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class OptimisticLockingTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (10001, 'Franquicia Norte')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (10001, 'Sucursal Centro', 10001)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (10001, 'Combo', 10, 10001)");
+    }
+
+    @Test
+    @DisplayName("a save based on a stale read is rejected instead of overwriting the newer row")
+    void staleSaveIsRejected() {
+        Product first = productsRepository.findById(10001L).block();
+        Product second = productsRepository.findById(10001L).block();
+
+        first.setStock(20);
+        StepVerifier.create(productsRepository.save(first))
+                .assertNext(saved -> assertEquals(1L, saved.getVersion()))
+                .verifyComplete();
+
+        second.setName("Combo grande");
+        StepVerifier.create(productsRepository.save(second))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        assertEquals(20, productsRepository.findById(10001L).block().getStock());
+    }
+
+    @Test
+    @DisplayName("a create body that carries an id and version inserts a new row instead of updating that id")
+    void createIgnoresIdAndVersion() {
+        Product created = webTestClient.post()
+                .uri("/api/products")
+                .bodyValue(Map.of("id", 10001, "version", 0, "name", "Combo copia", "stock", 3, "branchId", 10001))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotEquals(10001L, created.getId());
+        assertEquals(0L, created.getVersion());
+        assertEquals("Combo", productsRepository.findById(10001L).block().getName());
+    }
+}
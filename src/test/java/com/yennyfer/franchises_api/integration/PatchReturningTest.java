@@ -0,0 +1,111 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.events.StreamingStockAlertSink;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class PatchReturningTest extends PostgresTestSupport {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private StreamingStockAlertSink streamingStockAlertSink;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM franchise WHERE id = 17001").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (17001, 'Franquicia Parche')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, address, franchise_id, reorder_threshold) VALUES (17001, 'Sucursal Parche', 'Calle 1', 17001, 5)").then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (17001, 10)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, description, stock, sku, branch_id, reorder_threshold) VALUES (17001, 'Combo Parche', 'Desc', 10, 17001, 17001, 3)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("a product patch writes only the sent fields, clears explicit nulls and returns the updated row")
+    void patchProduct() {
+        patch("/api/products/17001", "{\"name\":\"Combo Parche Nuevo\",\"reorderThreshold\":null}")
+                .jsonPath("$.name").isEqualTo("Combo Parche Nuevo")
+                .jsonPath("$.description").isEqualTo("Desc")
+                .jsonPath("$.sku").isEqualTo(17001)
+                .jsonPath("$.reorderThreshold").isEmpty()
+                .jsonPath("$.version").isEqualTo(1);
+
+        assertEquals(0, count("SELECT COUNT(*) FROM product WHERE id = 17001 AND reorder_threshold IS NOT NULL"));
+        assertEquals(1, count("SELECT COUNT(*) FROM product WHERE id = 17001 AND description = 'Desc' AND sku = 17001"));
+    }
+
+    @Test
+    @DisplayName("a product threshold patch updates the low-stock flag and alerts when it flips")
+    void patchProductThreshold() {
+        StepVerifier.create(streamingStockAlertSink.stream(17001L))
+                .then(() -> patch("/api/products/17001", "{\"reorderThreshold\":20}")
+                        .jsonPath("$.lowStock").isEqualTo(true))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals(10, alert.stock());
+                    assertEquals(20, alert.threshold());
+                })
+                .then(() -> patch("/api/products/17001", "{\"reorderThreshold\":null}")
+                        .jsonPath("$.lowStock").isEqualTo(false))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.RECOVERED, alert.type());
+                    assertEquals(5, alert.threshold());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM product WHERE id = 17001 AND NOT low_stock AND version = 2"));
+    }
+
+    @Test
+    @DisplayName("a branch patch can clear its address and set its threshold in one statement")
+    void patchBranch() {
+        patch("/api/branches/17001", "{\"address\":null,\"reorderThreshold\":7}")
+                .jsonPath("$.name").isEqualTo("Sucursal Parche")
+                .jsonPath("$.address").isEmpty()
+                .jsonPath("$.reorderThreshold").isEqualTo(7)
+                .jsonPath("$.version").isEqualTo(1);
+
+        assertEquals(1, count("SELECT COUNT(*) FROM branch WHERE id = 17001 AND address IS NULL AND reorder_threshold = 7"));
+    }
+
+    @Test
+    @DisplayName("a patch of an unknown product answers 404")
+    void patchMissingProduct() {
+        webTestClient.patch()
+                .uri("/api/products/17999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"description\":null}")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private WebTestClient.BodyContentSpec patch(String uri, String body) {
+        return webTestClient.patch()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody();
+    }
+
+    private long count(String sql) {
+        return databaseClient.sql(sql).map(row -> row.get(0, Long.class)).one().block();
+    }
+}
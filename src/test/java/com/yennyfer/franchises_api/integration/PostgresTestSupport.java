@@ -0,0 +1,67 @@
+package com.yennyfer.franchises_api.integration;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs against a real Postgres migrated with Flyway, for SQL the H2 schema cannot execute ({@code RETURNING}, row locks
+ * under READ COMMITTED). Starts a throwaway container, or uses the server given by {@code -Dpostgres.test.r2dbc-url},
+ * {@code -Dpostgres.test.jdbc-url}, {@code -Dpostgres.test.username} and {@code -Dpostgres.test.password}. Skipped
+ * when neither is available.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+abstract class PostgresTestSupport {
+
+    private static final String EXTERNAL_R2DBC_URL = System.getProperty("postgres.test.r2dbc-url");
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @BeforeAll
+    static void requirePostgres() {
+        Assumptions.assumeTrue(EXTERNAL_R2DBC_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Neither Docker nor -Dpostgres.test.r2dbc-url is available");
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.sql.init.mode", () -> "never");
+        registry.add("spring.flyway.enabled", () -> "true");
+        if (EXTERNAL_R2DBC_URL != null) {
+            String username = System.getProperty("postgres.test.username", "myuser");
+            String password = System.getProperty("postgres.test.password", "secret");
+            registry.add("spring.r2dbc.url", () -> EXTERNAL_R2DBC_URL);
+            registry.add("spring.r2dbc.username", () -> username);
+            registry.add("spring.r2dbc.password", () -> password);
+            registry.add("spring.flyway.url", () -> System.getProperty("postgres.test.jdbc-url"));
+            registry.add("spring.flyway.user", () -> username);
+            registry.add("spring.flyway.password", () -> password);
+            return;
+        }
+        POSTGRES.start();
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s".formatted(
+                POSTGRES.getHost(), POSTGRES.getFirstMappedPort(), POSTGRES.getDatabaseName()));
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    protected DatabaseClient databaseClient;
+
+    protected void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
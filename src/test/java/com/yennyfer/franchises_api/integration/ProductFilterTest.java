@@ -0,0 +1,82 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.model.Product;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ProductFilterTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (11001, 'Franquicia Norte'), (11002, 'Franquicia Sur')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (11001, 'Sucursal Centro', 11001), (11002, 'Sucursal Playa', 11001), (11003, 'Sucursal Puerto', 11002)",
+                """
+                        INSERT INTO product (id, name, description, stock, sku, branch_id) VALUES
+                            (11001, 'Combo', 'Hamburguesa y papas', 2, 501, 11001),
+                            (11002, 'Bebida', 'Gaseosa', 40, 502, 11001),
+                            (11003, 'Postre', 'Helado', 4, 503, 11002),
+                            (11004, 'Arepa', 'Con queso', 1, 504, 11003)
+                        """);
+    }
+
+    @Test
+    @DisplayName("given franchise and stock range when listing products then only matching products are returned")
+    void filtersByFranchiseAndStock() {
+        PageResponse<Product> page = webTestClient.get()
+                .uri("/api/products?franchiseId=11001&maxStock=5&minStock=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<PageResponse<Product>>() {})
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(11001L, 11003L), page.items().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    @DisplayName("given fields when listing products then only those columns and the id are returned")
+    void projectsFields() {
+        PageResponse<Map<String, Object>> page = webTestClient.get()
+                .uri("/api/products?branchId=11001&sku=502&fields=stock,name")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(new ParameterizedTypeReference<PageResponse<Map<String, Object>>>() {})
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(Map.of("id", 11002, "name", "Bebida", "stock", 40)), page.items());
+    }
+
+    @Test
+    @DisplayName("given an unknown field when listing products then returns 400")
+    void unknownField() {
+        webTestClient.get()
+                .uri("/api/products?fields=precio")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,159 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.UpdateProductStockDeltaRequest;
+import com.yennyfer.franchises_api.events.StreamingStockAlertSink;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.service.ProductsService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ProductStockDeltaTest extends PostgresTestSupport {
+
+    private static final int WRITERS = 40;
+    // Stays within the default pool so the writers contend on the row, not on connections.
+    private static final int CONCURRENCY = 4;
+    private static final int REARM_MARGIN = 5;
+
+    @Autowired
+    private ProductsService productsService;
+
+    @Autowired
+    private ProductsRepository productsRepository;
+
+    @Autowired
+    private StreamingStockAlertSink streamingStockAlertSink;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM product WHERE branch_id = 15001").then(),
+                        databaseClient.sql("DELETE FROM branch WHERE id = 15001").then(),
+                        databaseClient.sql("DELETE FROM franchise WHERE id = 15001").then(),
+                        databaseClient.sql("INSERT INTO franchise (id, name) VALUES (15001, 'Franquicia Delta')").then(),
+                        databaseClient.sql("INSERT INTO branch (id, name, franchise_id) VALUES (15001, 'Sucursal Delta', 15001)").then(),
+                        databaseClient.sql("INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (15001, 100)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (15001, 'Combo Delta', 100, 15001)").then(),
+                        databaseClient.sql("INSERT INTO product (id, name, stock, branch_id) VALUES (15002, 'Bebida Delta', 3, 15001)").then())
+                .blockLast();
+    }
+
+    @Test
+    @DisplayName("a delta returns the updated row with the stock it replaced and bumps its version")
+    void addStockReturnsRow() {
+        StepVerifier.create(productsRepository.addStock(15001L, -7, REARM_MARGIN))
+                .assertNext(change -> {
+                    assertEquals(93, change.product().getStock());
+                    assertEquals(15001L, change.product().getBranchId());
+                    assertEquals(1, change.product().getVersion());
+                    assertEquals(100, change.previousStock());
+                    assertEquals(15001L, change.franchiseId());
+                    assertNull(change.threshold());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("deltas that cross the threshold flag the row and alert, and recover only past the margin")
+    void deltasRaiseLowStockAlerts() {
+        execute("UPDATE product SET reorder_threshold = 50 WHERE id = 15001");
+
+        StepVerifier.create(streamingStockAlertSink.stream(15001L))
+                .then(() -> adjust(15001L, -60))
+                .assertNext(alert -> {
+                    assertEquals(StockAlert.Type.LOW_STOCK, alert.type());
+                    assertEquals(40, alert.stock());
+                    assertEquals(50, alert.threshold());
+                })
+                .then(() -> {
+                    adjust(15001L, 12);
+                    assertTrue(lowStockOf(15001L));
+                    adjust(15001L, 3);
+                })
+                .assertNext(alert -> assertEquals(StockAlert.Type.RECOVERED, alert.type()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertFalse(lowStockOf(15001L));
+    }
+
+    @Test
+    @DisplayName("concurrent deltas on one product are all applied")
+    void concurrentDeltas() {
+        Flux.range(0, WRITERS)
+                .flatMap(i -> productsService.adjustProductStock(15001L,
+                        new UpdateProductStockDeltaRequest(i % 2 == 0 ? -3 : 1, false)), CONCURRENCY)
+                .then()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(100 + (WRITERS / 2) * (1 - 3), stockOf(15001L));
+        assertEquals(WRITERS, productsRepository.findById(15001L).block().getVersion());
+    }
+
+    @Test
+    @DisplayName("a guarded delta that would go below zero leaves the row untouched")
+    void addStockIfAvailableRejects() {
+        StepVerifier.create(productsRepository.addStockIfAvailable(15002L, -4, REARM_MARGIN))
+                .verifyComplete();
+
+        assertEquals(3, stockOf(15002L));
+    }
+
+    @Test
+    @DisplayName("concurrent guarded decrements stop at zero and the rest are rejected as insufficient stock")
+    void concurrentGuardedDeltas() {
+        List<HttpStatus> outcomes = Flux.range(0, 10)
+                .flatMap(i -> productsService.adjustProductStock(15002L, new UpdateProductStockDeltaRequest(-1, true))
+                        .map(product -> HttpStatus.OK)
+                        .onErrorResume(ResponseStatusException.class,
+                                e -> Mono.just(HttpStatus.valueOf(e.getStatusCode().value()))), CONCURRENCY)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(3, outcomes.stream().filter(HttpStatus.OK::equals).count());
+        assertEquals(7, outcomes.stream().filter(HttpStatus.CONFLICT::equals).count());
+        assertEquals(0, stockOf(15002L));
+    }
+
+    @Test
+    @DisplayName("a delta that would take the stock past the integer range is rejected with 400 and changes nothing")
+    void overflowIsBadRequest() {
+        execute("UPDATE product SET stock = " + (Integer.MAX_VALUE - 1) + " WHERE id = 15001");
+
+        StepVerifier.create(productsService.adjustProductStock(15001L, new UpdateProductStockDeltaRequest(5, false)))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 400)
+                .verify(Duration.ofSeconds(10));
+
+        assertEquals(Integer.MAX_VALUE - 1, stockOf(15001L));
+    }
+
+    private void adjust(Long productId, int delta) {
+        productsService.adjustProductStock(productId, new UpdateProductStockDeltaRequest(delta, false))
+                .block(Duration.ofSeconds(10));
+    }
+
+    private int stockOf(Long productId) {
+        return productsRepository.findById(productId).block().getStock();
+    }
+
+    private boolean lowStockOf(Long productId) {
+        return productsRepository.findById(productId).block().isLowStock();
+    }
+}
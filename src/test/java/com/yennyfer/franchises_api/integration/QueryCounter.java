@@ -0,0 +1,24 @@
+package com.yennyfer.franchises_api.integration;
+
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryCounter implements ProxyExecutionListener {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        queries.addAndGet(execInfo.getQueries().size());
+    }
+
+    public int count() {
+        return queries.get();
+    }
+
+    public void reset() {
+        queries.set(0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.yennyfer.franchises_api.integration;
+
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountingConfiguration {
+
+    @Bean
+    static QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    static BeanPostProcessor queryCountingConnectionFactoryPostProcessor(QueryCounter queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory connectionFactory) {
+                    return ProxyConnectionFactory.builder(connectionFactory)
+                            .listener(queryCounter)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.yennyfer.franchises_api.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.model.Franchise;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+@SpringBootTest(properties = {
+        "franchises.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "franchises.replica.read-your-writes-window=30s"
+})
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL =
+            "r2dbc:h2:mem:///replicadb;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        ConnectionFactory replicaConnectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(REPLICA_URL).mutate()
+                .option(ConnectionFactoryOptions.USER, "sa")
+                .build());
+        new ResourceDatabasePopulator(new ClassPathResource("db/test-schema.sql"))
+                .populate(replicaConnectionFactory)
+                .block();
+        seed(databaseClient, "Primaria");
+        seed(DatabaseClient.create(replicaConnectionFactory), "Replica");
+    }
+
+    private static void seed(DatabaseClient client, String suffix) {
+        CatalogFixtures.reset(client,
+                "INSERT INTO franchise (id, name) VALUES (5001, 'Franquicia " + suffix + "')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (5001, 'Sucursal " + suffix + "', 5001)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (5001, 'Producto " + suffix + "', 40, 5001)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (5001, 40)");
+    }
+
+    @Test
+    @DisplayName("reporting reads are served by the replica")
+    void reportsReadReplica() {
+        webTestClient.get()
+                .uri("/api/franchises/5001/products/max-stock")
+                .header("X-Client-Id", "reportes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].productName").isEqualTo("Producto Replica");
+
+        webTestClient.get()
+                .uri("/api/franchises/details")
+                .header("X-Client-Id", "reportes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].franchise.name").isEqualTo("Franquicia Replica");
+    }
+
+    @Test
+    @DisplayName("point reads stay on the primary")
+    void pointReadsUsePrimary() {
+        webTestClient.get()
+                .uri("/api/franchises/5001")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Franquicia Primaria");
+    }
+
+    @Test
+    @DisplayName("a client that just wrote reads from the primary while other clients keep using the replica")
+    void readYourWrites() {
+        webTestClient.post()
+                .uri("/api/franchises")
+                .header("X-Client-Id", "caja-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Franchise.builder().name("Franquicia Nueva").build())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/franchises/5001/products/max-stock")
+                .header("X-Client-Id", "caja-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].productName").isEqualTo("Producto Primaria");
+
+        webTestClient.get()
+                .uri("/api/franchises/5001/products/max-stock")
+                .header("X-Client-Id", "caja-2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].productName").isEqualTo("Producto Replica");
+    }
+}
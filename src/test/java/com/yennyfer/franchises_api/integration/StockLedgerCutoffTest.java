@@ -0,0 +1,43 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.yennyfer.franchises_api.repository.StockMovementRepository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+
+class StockLedgerCutoffTest extends PostgresTestSupport {
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Test
+    @DisplayName("given a transaction still open when computing the cutoff then the cutoff stays lag behind its start")
+    void cutoffStaysBehindOpenTransactions() {
+        Connection connection = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(connection.beginTransaction()).block();
+            OffsetDateTime started = Mono.from(connection.createStatement("SELECT now() AS started").execute())
+                    .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get("started", OffsetDateTime.class))))
+                    .block();
+
+            OffsetDateTime cutoff = stockMovementRepository.findCompactionCutoff(Duration.ofSeconds(30)).block();
+
+            assertFalse(cutoff.isAfter(started.minusSeconds(30)));
+        } finally {
+            Mono.from(connection.rollbackTransaction()).onErrorComplete().block();
+            Mono.from(connection.close()).block();
+        }
+    }
+}
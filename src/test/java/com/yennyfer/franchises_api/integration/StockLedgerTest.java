@@ -0,0 +1,118 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.StockReconciliation;
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+import com.yennyfer.franchises_api.model.StockMovement;
+import com.yennyfer.franchises_api.repository.StockMovementRepository;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class StockLedgerTest {
+
+    private static final String FROM = "2000-01-01T00:00:00Z";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @BeforeEach
+    void seed() {
+        Flux.concat(
+                        databaseClient.sql("DELETE FROM stock_movement").then(),
+                        databaseClient.sql("DELETE FROM stock_snapshot").then(),
+                        databaseClient.sql("UPDATE stock_compaction SET compacted_until = TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00'").then())
+                .blockLast();
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (13001, 'Franquicia Norte')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (13001, 'Sucursal Centro', 13001)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (13001, 'Combo', 10, 13001), (13002, 'Bebida', 4, 13001)",
+                "INSERT INTO stock_snapshot (product_id, stock) VALUES (13001, 10), (13002, 4)");
+    }
+
+    @Test
+    @DisplayName("stock updates append movements that can be read by product or branch over a time range")
+    void recordsMovements() {
+        updateStock(13001, 6);
+        updateStock(13001, 9);
+        updateStock(13002, 1);
+
+        List<StockMovement> productMovements = webTestClient.get()
+                .uri("/api/products/13001/stock/movements?from=" + FROM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockMovement.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(List.of(-4, 3), productMovements.stream().map(StockMovement::getDelta).toList());
+        assertEquals(List.of(6, 9), productMovements.stream().map(StockMovement::getStock).toList());
+
+        webTestClient.get()
+                .uri("/api/branches/13001/stock/movements?from=" + FROM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(StockMovement.class)
+                .hasSize(3);
+
+        webTestClient.get()
+                .uri("/api/products/13001/stock/movements?from=" + FROM + "&to=" + FROM)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("compaction folds movements into the snapshots and the rebuilt stock still matches")
+    void compactsIntoSnapshots() {
+        updateStock(13001, 6);
+        updateStock(13001, 9);
+
+        OffsetDateTime lastMovement = databaseClient.sql("SELECT MAX(created_at) AS last FROM stock_movement")
+                .map(row -> row.get("last", OffsetDateTime.class))
+                .one()
+                .block();
+        assertEquals(1L, stockMovementRepository.compact(lastMovement.plusNanos(1_000)).block());
+        assertEquals(9, databaseClient.sql("SELECT stock FROM stock_snapshot WHERE product_id = 13001")
+                .map(row -> row.get("stock", Integer.class))
+                .one()
+                .block());
+
+        updateStock(13001, 2);
+        webTestClient.get()
+                .uri("/api/products/13001/stock/reconciliation")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StockReconciliation.class)
+                .isEqualTo(new StockReconciliation(13001L, 2, 2, true));
+    }
+
+    private void updateStock(long productId, int stock) {
+        webTestClient.patch()
+                .uri("/api/products/{id}/stock", productId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(stock))
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,52 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StockMovementPartitionTest extends PostgresTestSupport {
+
+    private static final int MONTHS_AHEAD = 5;
+
+    private final LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).plusMonths(MONTHS_AHEAD);
+    private final String partition = "stock_movement_" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+
+    @BeforeEach
+    @AfterEach
+    void dropPartition() {
+        execute("DELETE FROM stock_movement WHERE product_id = 19001");
+        execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    @Test
+    @DisplayName("creating a month's partition moves the rows the default partition caught for it")
+    void movesRowsOutOfTheDefaultPartition() {
+        execute("INSERT INTO stock_movement (product_id, branch_id, kind, delta, stock, created_at) "
+                + "VALUES (19001, 19001, 'SET', 5, 5, TIMESTAMP WITH TIME ZONE '" + month.plusDays(3) + " 12:00:00+00')");
+        assertEquals("stock_movement_default", partitionOfMovement());
+
+        databaseClient.sql("SELECT create_stock_movement_partitions(:monthsAhead)")
+                .bind("monthsAhead", MONTHS_AHEAD)
+                .then()
+                .block();
+
+        assertEquals(partition, partitionOfMovement());
+        assertEquals(1L, databaseClient.sql("SELECT COUNT(*) AS total FROM stock_movement WHERE product_id = 19001")
+                .map(row -> row.get("total", Long.class))
+                .one()
+                .block());
+    }
+
+    private String partitionOfMovement() {
+        return databaseClient.sql("SELECT tableoid::regclass::text AS partition FROM stock_movement WHERE product_id = 19001")
+                .map(row -> row.get("partition", String.class))
+                .one()
+                .block();
+    }
+}
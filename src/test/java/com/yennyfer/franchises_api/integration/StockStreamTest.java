@@ -0,0 +1,89 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+class StockStreamTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (7001, 'Franquicia Norte'), (7002, 'Franquicia Sur')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (7001, 'Sucursal Centro', 7001), (7002, 'Sucursal Sur', 7002)",
+                "INSERT INTO product (id, name, stock, branch_id) VALUES (7001, 'Combo', 10, 7001), (7002, 'Bebida', 5, 7002)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (7001, 10), (7002, 5)");
+    }
+
+    @Test
+    @DisplayName("committed stock writes of the franchise are pushed to its stream, other franchises' writes are not")
+    void streamsCommittedWrites() {
+        Flux<ServerSentEvent<StockEvent>> stream = webTestClient.get()
+                .uri("/api/franchises/7001/stock/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<StockEvent>>() {})
+                .getResponseBody();
+
+        StepVerifier.create(stream)
+                .assertNext(event -> assertEquals("keep-alive", event.comment()))
+                .then(() -> {
+                    patchStock(7002, 50);
+                    patchStock(7001, 30);
+                })
+                .assertNext(event -> {
+                    assertEquals("updated", event.event());
+                    assertEquals(7001L, event.data().productId());
+                    assertEquals(30, event.data().stock());
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("streaming an unknown franchise answers 404")
+    void unknownFranchise() {
+        webTestClient.get()
+                .uri("/api/franchises/7999/stock/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private void patchStock(long productId, int stock) {
+        webTestClient.patch()
+                .uri("/api/products/" + productId + "/stock")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UpdateProductStockRequest(stock))
+                .exchange()
+                .expectStatus().isOk();
+    }
+}
@@ -0,0 +1,84 @@
+package com.yennyfer.franchises_api.integration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.yennyfer.franchises_api.model.Franchise;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.service.FranchisesService;
+import com.yennyfer.franchises_api.service.ProductsService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UniqueNameConstraintTest {
+
+    private static final int CONCURRENT_INSERTS = 16;
+
+    @Autowired
+    private FranchisesService franchisesService;
+
+    @Autowired
+    private ProductsService productsService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void seed() {
+        CatalogFixtures.reset(databaseClient,
+                "INSERT INTO franchise (id, name) VALUES (2001, 'Franquicia Base')",
+                "INSERT INTO branch (id, name, franchise_id) VALUES (2001, 'Sucursal Base', 2001)",
+                "INSERT INTO branch_max_stock (branch_id, max_stock) VALUES (2001, NULL)");
+    }
+
+    @Test
+    @DisplayName("given concurrent creates with the same franchise name then exactly one is stored")
+    void concurrentFranchiseCreates() {
+        List<String> outcomes = Flux.range(0, CONCURRENT_INSERTS)
+                .flatMap(i -> franchisesService.createFranchise(Franchise.builder().name("Franquicia Repetida").build())
+                        .map(saved -> "created")
+                        .onErrorResume(IllegalArgumentException.class, e -> Mono.just("duplicate"))
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+
+        assertEquals(1, outcomes.stream().filter("created"::equals).count());
+        assertEquals(CONCURRENT_INSERTS - 1, outcomes.stream().filter("duplicate"::equals).count());
+        assertEquals(1L, countRows("SELECT COUNT(*) AS total FROM franchise WHERE name = 'Franquicia Repetida'"));
+    }
+
+    @Test
+    @DisplayName("given concurrent creates with the same product name then exactly one is stored")
+    void concurrentProductCreates() {
+        List<String> outcomes = Flux.range(0, CONCURRENT_INSERTS)
+                .flatMap(i -> productsService.createProduct(Product.builder().name("Producto Repetido").stock(i).branchId(2001L).build())
+                        .map(saved -> "created")
+                        .onErrorResume(IllegalArgumentException.class, e -> Mono.just("duplicate"))
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+
+        assertEquals(1, outcomes.stream().filter("created"::equals).count());
+        assertEquals(CONCURRENT_INSERTS - 1, outcomes.stream().filter("duplicate"::equals).count());
+        assertEquals(1L, countRows("SELECT COUNT(*) AS total FROM product WHERE name = 'Producto Repetido'"));
+    }
+
+    private long countRows(String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get("total", Number.class).longValue())
+                .one()
+                .block();
+    }
+}
@@ -1,24 +1,41 @@
 package com.yennyfer.franchises_api.service;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.dto.StockEvent;
 import com.yennyfer.franchises_api.dto.UpdateBranchRequest;
+import com.yennyfer.franchises_api.events.StockEventBus;
 import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.model.Franchise;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.repository.BranchMaxStockRepository;
 import com.yennyfer.franchises_api.repository.BranchRepository;
-import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -31,7 +48,22 @@ class BranchesServiceTest {
     private BranchRepository branchRepository;
 
     @Mock
-    private ProductsRepository productsRepository;
+    private BranchMaxStockRepository branchMaxStockRepository;
+
+    @Mock
+    private BranchReadCache branchReadCache;
+
+    @Mock
+    private FranchisesRepository franchisesRepository;
+
+    @Mock
+    private FranchiseRevisions franchiseRevisions;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Spy
+    private BulkProperties bulkProperties = new BulkProperties(500);
 
     @InjectMocks
     private BranchesService branchesService;
@@ -44,32 +76,79 @@ class BranchesServiceTest {
     }
 
     @Test
-    @DisplayName("given unique name when create branch then succeeds")
+    @DisplayName("given unique name when create branch then saves it as new and succeeds")
     void createBranch_success() {
-        when(branchRepository.findByName("Sucursal Centro")).thenReturn(Flux.empty());
-        when(branchRepository.save(branch)).thenReturn(Mono.just(branch));
+        branch.setVersion(3L);
+        Branch saved = Branch.builder().id(11L).name(branch.getName()).franchiseId(1L).version(0L).build();
+        when(franchiseRevisions.bump(any())).thenReturn(Mono.empty());
+        when(branchRepository.save(branch)).thenReturn(Mono.just(saved));
+        when(branchMaxStockRepository.initialize(11L)).thenReturn(Mono.just(1));
 
         StepVerifier.create(branchesService.createBranch(branch))
-                .expectNext(branch)
+                .expectNext(saved)
                 .verifyComplete();
+        assertNull(branch.getId());
+        assertNull(branch.getVersion());
+        verify(branchMaxStockRepository).initialize(11L);
+        verify(branchReadCache).evictCreated(saved);
     }
 
     @Test
     @DisplayName("given duplicated name when create branch then emits error")
     void createBranch_conflict() {
-        when(branchRepository.findByName("Sucursal Centro")).thenReturn(Flux.just(branch));
+        when(branchRepository.save(branch)).thenReturn(Mono.error(new DuplicateKeyException(
+                "duplicate key value violates unique constraint \"branch_name_idx\"")));
 
         StepVerifier.create(branchesService.createBranch(branch))
                 .expectError(IllegalArgumentException.class)
                 .verify();
     }
 
+    @Test
+    @DisplayName("given a branch of an unknown franchise when bulk creating then reports it invalid without inserting it")
+    void createBranches() {
+        when(franchiseRevisions.bump(any())).thenReturn(Mono.empty());
+        Branch orphan = Branch.builder().name("Sucursal Huerfana").franchiseId(9L).build();
+        when(franchisesRepository.findAllById(Set.of(1L, 9L))).thenReturn(Flux.just(Franchise.builder().id(1L).build()));
+        when(branchRepository.insertAll(List.of(branch))).thenReturn(Flux.just(Optional.of(10L)));
+        when(branchMaxStockRepository.initializeAll(List.of(10L))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(branchesService.createBranches(Flux.just(branch, orphan)))
+                .expectNext(new BulkCreateResult("Sucursal Centro", 10L, BulkCreateResult.Status.CREATED))
+                .expectNext(new BulkCreateResult("Sucursal Huerfana", null, BulkCreateResult.Status.INVALID))
+                .verifyComplete();
+        verify(branchReadCache).evictCreated(branch);
+    }
+
     @Test
     @DisplayName("when listing branches then returns flux")
     void getAllBranches_success() {
-        when(branchRepository.findAll()).thenReturn(Flux.just(branch));
+        when(branchReadCache.findPageAfter(0L, 51)).thenReturn(Flux.just(branch));
+
+        StepVerifier.create(branchesService.getAllBranches(null, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(branch), page.items());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given unknown branch when fetching by id then emits not found")
+    void getBranch_notFound() {
+        when(branchReadCache.findById(99L)).thenReturn(Mono.empty());
 
-        StepVerifier.create(branchesService.getAllBranches())
+        StepVerifier.create(branchesService.getBranch(99L))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("when listing branches of a franchise then reads through the cache")
+    void getBranchesByFranchise() {
+        when(branchReadCache.findByFranchiseId(1L)).thenReturn(Flux.just(branch));
+
+        StepVerifier.create(branchesService.getBranchesByFranchise(1L))
                 .expectNext(branch)
                 .verifyComplete();
     }
@@ -77,61 +156,108 @@ class BranchesServiceTest {
     @Test
     @DisplayName("when fetching details then returns aggregates")
     void getAllBranchesWithDetails() {
-        Product product = Product.builder().id(20L).branchId(10L).name("Combo").build();
-        when(branchRepository.findAll()).thenReturn(Flux.just(branch));
-        when(productsRepository.findByBranchId(10L)).thenReturn(Flux.just(product));
+        when(branchRepository.findAllBranchesWithDetails()).thenReturn(Flux.just(
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 20L, "Combo", null, 50, 1001),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 21L, "Bebida", null, 75, 1002),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 11L, "Sucursal Norte", "Calle 45", null, null, null, null, null)
+        ));
 
         StepVerifier.create(branchesService.getAllBranchesWithDetails())
                 .assertNext(aggregate -> {
                     assertEquals(branch.getId(), aggregate.branch().getId());
+                    assertEquals(branch.getFranchiseId(), aggregate.branch().getFranchiseId());
                     List<Product> products = aggregate.products();
-                    assertEquals(1, products.size());
-                    assertEquals(product.getId(), products.get(0).getId());
+                    assertEquals(2, products.size());
+                    assertEquals(20L, products.get(0).getId());
+                    assertEquals(21L, products.get(1).getId());
+                })
+                .assertNext(aggregate -> {
+                    assertEquals(11L, aggregate.branch().getId());
+                    assertEquals(0, aggregate.products().size());
                 })
                 .verifyComplete();
     }
 
     @Test
-    @DisplayName("given payload when update branch then persists changes")
+    @DisplayName("given a new franchise when update branch then moves it and tells both franchises")
     void updateBranch_success() {
-        UpdateBranchRequest request = new UpdateBranchRequest("Nueva", "Dir", 2L);
+        when(branchRepository.lockFranchiseId(10L)).thenReturn(Mono.just(1L));
+        when(franchiseRevisions.bump(any())).thenReturn(Mono.empty());
+        when(stockEventBus.publishBranch(any(), any(), any())).thenReturn(Mono.empty());
+        UpdateBranchRequest request = new UpdateBranchRequest("Nueva", Optional.of("Dir"), 2L, null);
         Branch updated = Branch.builder().id(10L).name("Nueva").address("Dir").franchiseId(2L).build();
-        when(branchRepository.findById(10L)).thenReturn(Mono.just(branch));
-        when(branchRepository.save(any(Branch.class))).thenReturn(Mono.just(updated));
+        when(branchRepository.patch(10L, request)).thenReturn(Mono.just(updated));
 
         StepVerifier.create(branchesService.updateBranch(10L, request))
                 .expectNext(updated)
                 .verifyComplete();
+        verify(branchReadCache).evict(10L, 2L);
+        verify(franchiseRevisions).bump(Arrays.asList(1L, 2L));
+        verify(stockEventBus).publishBranch(StockEvent.Type.BRANCH_REMOVED, 1L, 10L);
+        verify(stockEventBus).publishBranch(StockEvent.Type.BRANCH_UPDATED, 2L, 10L);
+    }
+
+    @Test
+    @DisplayName("given only a new name when update branch then keeps its franchise")
+    void updateBranch_partial() {
+        when(franchiseRevisions.bump(any())).thenReturn(Mono.empty());
+        when(stockEventBus.publishBranch(any(), any(), any())).thenReturn(Mono.empty());
+        UpdateBranchRequest request = new UpdateBranchRequest("Nueva", null, null, null);
+        Branch updated = Branch.builder().id(10L).name("Nueva").address("Calle 1").franchiseId(1L).build();
+        when(branchRepository.patch(10L, request)).thenReturn(Mono.just(updated));
+
+        StepVerifier.create(branchesService.updateBranch(10L, request))
+                .assertNext(saved -> assertEquals(1L, saved.getFranchiseId()))
+                .verifyComplete();
+        verify(branchRepository, never()).lockFranchiseId(any());
+        verify(franchiseRevisions).bump(Arrays.asList(null, 1L));
+        verify(stockEventBus).publishBranch(StockEvent.Type.BRANCH_UPDATED, 1L, 10L);
+        verify(stockEventBus, never()).publishBranch(eq(StockEvent.Type.BRANCH_REMOVED), any(), any());
+        verify(branchReadCache).evict(10L, 1L);
+    }
+
+    @Test
+    @DisplayName("given an empty payload when update branch then returns it unchanged without writing")
+    void updateBranch_noChanges() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch));
+
+        StepVerifier.create(branchesService.updateBranch(10L, new UpdateBranchRequest(null, null, null, null)))
+                .expectNext(branch)
+                .verifyComplete();
+        verify(branchRepository, never()).patch(any(), any());
     }
 
     @Test
     @DisplayName("given unknown branch when update then emits not found")
     void updateBranch_notFound() {
-        when(branchRepository.findById(10L)).thenReturn(Mono.empty());
+        when(branchRepository.lockFranchiseId(10L)).thenReturn(Mono.empty());
 
-        StepVerifier.create(branchesService.updateBranch(10L, new UpdateBranchRequest("Nueva", "Dir", 2L)))
+        StepVerifier.create(branchesService.updateBranch(10L, new UpdateBranchRequest("Nueva", Optional.of("Dir"), 2L, null)))
                 .expectError(ResponseStatusException.class)
                 .verify();
+        verify(branchRepository, never()).patch(any(), any());
     }
 
     @Test
     @DisplayName("given existing id when delete branch then completes")
     void deleteBranch_success() {
-        when(branchRepository.existsById(10L)).thenReturn(Mono.just(true));
-        when(branchRepository.deleteById(10L)).thenReturn(Mono.empty());
+        when(branchRepository.removeById(10L)).thenReturn(Mono.just(1L));
+        when(franchiseRevisions.bump(List.of(1L))).thenReturn(Mono.empty());
+        when(stockEventBus.publishBranch(StockEvent.Type.BRANCH_REMOVED, 1L, 10L)).thenReturn(Mono.empty());
 
         StepVerifier.create(branchesService.deleteBranch(10L))
                 .verifyComplete();
+        verify(branchReadCache).evict(10L, null);
     }
 
     @Test
     @DisplayName("given missing id when delete branch then emits not found")
     void deleteBranch_notFound() {
-        when(branchRepository.existsById(99L)).thenReturn(Mono.just(false));
+        when(branchRepository.removeById(99L)).thenReturn(Mono.empty());
 
         StepVerifier.create(branchesService.deleteBranch(99L))
                 .expectError(ResponseStatusException.class)
                 .verify();
+        verify(franchiseRevisions, never()).bump(any());
     }
 }
-
@@ -0,0 +1,74 @@
+package com.yennyfer.franchises_api.service;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.yennyfer.franchises_api.repository.FranchisesRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class FranchiseRevisionsTest {
+
+    @Mock
+    private FranchisesRepository franchisesRepository;
+
+    @InjectMocks
+    private FranchiseRevisions franchiseRevisions;
+
+    @Test
+    @DisplayName("given one franchise when bumping then increments it without a separate lock")
+    void bump_single() {
+        when(franchisesRepository.incrementRevisions(List.of(4L))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(franchiseRevisions.bump(List.of(4L, 4L))).verifyComplete();
+        verify(franchisesRepository, never()).lockRevisions(any());
+    }
+
+    @Test
+    @DisplayName("given several franchises when bumping then locks them in id order before incrementing")
+    void bump_several() {
+        when(franchisesRepository.lockRevisions(List.of(2L, 5L, 9L))).thenReturn(Flux.just(2L, 5L, 9L));
+        when(franchisesRepository.incrementRevisions(List.of(2L, 5L, 9L))).thenReturn(Mono.just(3));
+
+        StepVerifier.create(franchiseRevisions.bump(List.of(9L, 2L, 5L, 2L))).verifyComplete();
+        InOrder order = inOrder(franchisesRepository);
+        order.verify(franchisesRepository).lockRevisions(List.of(2L, 5L, 9L));
+        order.verify(franchisesRepository).incrementRevisions(List.of(2L, 5L, 9L));
+    }
+
+    @Test
+    @DisplayName("given one branch when bumping its franchise then uses a single statement")
+    void bumpForBranches_single() {
+        when(franchisesRepository.incrementRevisionsOfBranches(List.of(10L))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(franchiseRevisions.bumpForBranches(Set.of(10L))).verifyComplete();
+        verify(franchisesRepository, never()).findFranchiseIdsOfBranches(any());
+    }
+
+    @Test
+    @DisplayName("given branches of several franchises when bumping then locks the franchises in id order")
+    void bumpForBranches_several() {
+        when(franchisesRepository.findFranchiseIdsOfBranches(List.of(10L, 11L))).thenReturn(Flux.just(7L, 3L));
+        when(franchisesRepository.lockRevisions(List.of(3L, 7L))).thenReturn(Flux.just(3L, 7L));
+        when(franchisesRepository.incrementRevisions(List.of(3L, 7L))).thenReturn(Mono.just(2));
+
+        StepVerifier.create(franchiseRevisions.bumpForBranches(List.of(11L, 10L))).verifyComplete();
+        verify(franchisesRepository).incrementRevisions(List.of(3L, 7L));
+    }
+}
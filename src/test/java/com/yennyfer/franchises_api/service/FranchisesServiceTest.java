@@ -1,27 +1,45 @@
 package com.yennyfer.franchises_api.service;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.cache.FranchiseReadCache;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.dto.BulkCreateResult;
+import com.yennyfer.franchises_api.dto.FranchiseDetailRow;
+import com.yennyfer.franchises_api.dto.PageResponse;
+import com.yennyfer.franchises_api.dto.RevisionSummary;
+import com.yennyfer.franchises_api.dto.StockEvent;
 import com.yennyfer.franchises_api.dto.UpdateFranchiseRequest;
-import com.yennyfer.franchises_api.model.Branch;
+import com.yennyfer.franchises_api.events.StockEventBus;
 import com.yennyfer.franchises_api.model.BranchAggregate;
 import com.yennyfer.franchises_api.model.Franchise;
-import com.yennyfer.franchises_api.model.Product;
-import com.yennyfer.franchises_api.repository.BranchRepository;
 import com.yennyfer.franchises_api.repository.FranchisesRepository;
-import com.yennyfer.franchises_api.repository.ProductsRepository;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -34,10 +52,16 @@ class FranchisesServiceTest {
     private FranchisesRepository franchisesRepository;
 
     @Mock
-    private BranchRepository branchRepository;
+    private FranchiseReadCache franchiseReadCache;
 
     @Mock
-    private ProductsRepository productsRepository;
+    private BranchReadCache branchReadCache;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Spy
+    private BulkProperties bulkProperties = new BulkProperties(2);
 
     @InjectMocks
     private FranchisesService franchisesService;
@@ -52,53 +76,228 @@ class FranchisesServiceTest {
     @Test
     @DisplayName("given unique name when create franchise then returns saved entity")
     void createFranchise_success() {
-        when(franchisesRepository.findByName("Franquicia Norte")).thenReturn(Flux.empty());
         when(franchisesRepository.save(franchise)).thenReturn(Mono.just(franchise));
 
         StepVerifier.create(franchisesService.createFranchise(franchise))
                 .expectNext(franchise)
                 .verifyComplete();
+        verify(franchiseReadCache).evictCreated();
     }
 
     @Test
     @DisplayName("given duplicated name when create franchise then emits error")
     void createFranchise_conflict() {
-        when(franchisesRepository.findByName("Franquicia Norte")).thenReturn(Flux.just(franchise));
+        when(franchisesRepository.save(franchise)).thenReturn(Mono.error(new DuplicateKeyException(
+                "duplicate key value violates unique constraint \"franchise_name_idx\"")));
 
         StepVerifier.create(franchisesService.createFranchise(franchise))
                 .expectError(IllegalArgumentException.class)
                 .verify();
     }
 
+    @Test
+    @DisplayName("given mixed rows when bulk creating franchises then inserts valid ones in batches and reports each row")
+    void createFranchises() {
+        Franchise sur = Franchise.builder().name("Franquicia Sur").build();
+        Franchise blank = Franchise.builder().name("").build();
+        Franchise este = Franchise.builder().name("Franquicia Este").build();
+        Franchise norte = Franchise.builder().name("Franquicia Norte").build();
+        when(franchisesRepository.insertAll(List.of(sur))).thenReturn(Flux.just(Optional.of(2L)));
+        when(franchisesRepository.insertAll(List.of(este, norte))).thenReturn(Flux.just(Optional.of(3L), Optional.empty()));
+
+        StepVerifier.create(franchisesService.createFranchises(Flux.just(sur, blank, este, norte)))
+                .expectNext(new BulkCreateResult("Franquicia Sur", 2L, BulkCreateResult.Status.CREATED))
+                .expectNext(new BulkCreateResult("", null, BulkCreateResult.Status.INVALID))
+                .expectNext(new BulkCreateResult("Franquicia Este", 3L, BulkCreateResult.Status.CREATED))
+                .expectNext(new BulkCreateResult("Franquicia Norte", null, BulkCreateResult.Status.DUPLICATE))
+                .verifyComplete();
+        assertEquals(3L, este.getId());
+        verify(franchiseReadCache, times(2)).evictCreated();
+    }
+
     @Test
     @DisplayName("when listing franchises then returns flux")
     void getAllFranchises() {
-        when(franchisesRepository.findAll()).thenReturn(Flux.just(franchise));
+        when(franchiseReadCache.findPageAfter(0L, 51)).thenReturn(Flux.just(franchise));
+
+        StepVerifier.create(franchisesService.getAllFranchises(null, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(franchise), page.items());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given cached franchise when fetching by id then returns it")
+    void getFranchise_success() {
+        when(franchiseReadCache.findById(1L)).thenReturn(Mono.just(franchise));
 
-        StepVerifier.create(franchisesService.getAllFranchises())
+        StepVerifier.create(franchisesService.getFranchise(1L))
                 .expectNext(franchise)
                 .verifyComplete();
     }
 
     @Test
-    @DisplayName("when fetching aggregates then builds nested response")
-    void getFranchisesWithDetails() {
-        Branch branch = Branch.builder().id(10L).franchiseId(1L).name("Sucursal Centro").build();
-        Product product = Product.builder().id(20L).branchId(10L).name("Combo").build();
+    @DisplayName("given unknown franchise when fetching by id then emits not found")
+    void getFranchise_notFound() {
+        when(franchiseReadCache.findById(99L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(franchisesService.getFranchise(99L))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("given more rows than the limit when listing franchises then returns cursor for the next page")
+    void getAllFranchises_nextCursor() {
+        Franchise second = Franchise.builder().id(2L).name("Franquicia Sur").build();
+        Franchise third = Franchise.builder().id(3L).name("Franquicia Este").build();
+        when(franchiseReadCache.findPageAfter(0L, 3)).thenReturn(Flux.just(franchise, second, third));
+
+        PageResponse<Franchise> firstPage = franchisesService.getAllFranchises(2, null).block();
+        assertEquals(List.of(franchise, second), firstPage.items());
+        assertNotNull(firstPage.nextCursor());
+
+        when(franchiseReadCache.findPageAfter(2L, 3)).thenReturn(Flux.just(third));
+
+        StepVerifier.create(franchisesService.getAllFranchises(2, firstPage.nextCursor()))
+                .assertNext(page -> {
+                    assertEquals(List.of(third), page.items());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
 
-        when(franchisesRepository.findAll()).thenReturn(Flux.just(franchise));
-        when(branchRepository.findByFranchiseId(1L)).thenReturn(Flux.just(branch));
-        when(productsRepository.findByBranchId(10L)).thenReturn(Flux.just(product));
+    @Test
+    @DisplayName("given malformed cursor when listing franchises then emits bad request")
+    void getAllFranchises_invalidCursor() {
+        StepVerifier.create(franchisesService.getAllFranchises(10, "not-a-cursor"))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 400)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("given limit above maximum when listing franchises then emits bad request")
+    void getAllFranchises_limitTooLarge() {
+        StepVerifier.create(franchisesService.getAllFranchises(10_000, null))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("when fetching aggregates then builds nested response from joined rows")
+    void getFranchisesWithDetails() {
+        when(franchisesRepository.findAllWithDetails()).thenReturn(Flux.just(
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 20L, "Combo", null, 50, 1001),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 21L, "Bebida", null, 75, 1002),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 11L, "Sucursal Norte", "Calle 45", null, null, null, null, null),
+                new FranchiseDetailRow(2L, "Franquicia Sur", null, null, null, null, null, null, null, null)
+        ));
 
         StepVerifier.create(franchisesService.getFranchisesWithDetails())
                 .assertNext(aggregate -> {
                     assertEquals(franchise.getId(), aggregate.franchise().getId());
+                    assertEquals(franchise.getName(), aggregate.franchise().getName());
+                    List<BranchAggregate> branches = aggregate.branches();
+                    assertEquals(2, branches.size());
+                    assertEquals(10L, branches.get(0).branch().getId());
+                    assertEquals(1L, branches.get(0).branch().getFranchiseId());
+                    assertEquals(2, branches.get(0).products().size());
+                    assertEquals(20L, branches.get(0).products().get(0).getId());
+                    assertEquals(10L, branches.get(0).products().get(0).getBranchId());
+                    assertEquals(11L, branches.get(1).branch().getId());
+                    assertEquals(0, branches.get(1).products().size());
+                })
+                .assertNext(aggregate -> {
+                    assertEquals(2L, aggregate.franchise().getId());
+                    assertEquals(0, aggregate.branches().size());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("when streaming aggregates then emits one nested slice per branch")
+    void streamFranchisesWithDetails() {
+        when(franchisesRepository.findAllWithDetails()).thenReturn(Flux.just(
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 20L, "Combo", null, 50, 1001),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 21L, "Bebida", null, 75, 1002),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 11L, "Sucursal Norte", "Calle 45", null, null, null, null, null),
+                new FranchiseDetailRow(2L, "Franquicia Sur", null, null, null, null, null, null, null, null),
+                new FranchiseDetailRow(3L, "Franquicia Este", null, null, null, null, null, null, null, null)
+        ));
+
+        StepVerifier.create(franchisesService.streamFranchisesWithDetails())
+                .assertNext(aggregate -> {
+                    assertEquals(franchise.getId(), aggregate.franchise().getId());
+                    assertEquals(franchise.getName(), aggregate.franchise().getName());
                     List<BranchAggregate> branches = aggregate.branches();
                     assertEquals(1, branches.size());
-                    assertEquals(branch.getId(), branches.get(0).branch().getId());
-                    assertEquals(1, branches.get(0).products().size());
-                    assertEquals(product.getId(), branches.get(0).products().get(0).getId());
+                    assertEquals(10L, branches.get(0).branch().getId());
+                    assertEquals(1L, branches.get(0).branch().getFranchiseId());
+                    assertEquals(2, branches.get(0).products().size());
+                    assertEquals(20L, branches.get(0).products().get(0).getId());
+                    assertEquals(10L, branches.get(0).products().get(0).getBranchId());
+                })
+                .assertNext(aggregate -> {
+                    assertEquals(franchise.getId(), aggregate.franchise().getId());
+                    assertEquals(1, aggregate.branches().size());
+                    assertEquals(11L, aggregate.branches().get(0).branch().getId());
+                    assertEquals(0, aggregate.branches().get(0).products().size());
                 })
+                .assertNext(aggregate -> {
+                    assertEquals(2L, aggregate.franchise().getId());
+                    assertEquals(0, aggregate.branches().size());
+                })
+                .assertNext(aggregate -> {
+                    assertEquals(3L, aggregate.franchise().getId());
+                    assertEquals(0, aggregate.branches().size());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given existing franchise when get details then assembles its tree")
+    void getFranchiseWithDetails() {
+        when(franchisesRepository.findWithDetails(1L)).thenReturn(Flux.just(
+                new FranchiseDetailRow(1L, "Franquicia Norte", 10L, "Sucursal Centro", "Av. Principal 123", 20L, "Combo", null, 50, 1001),
+                new FranchiseDetailRow(1L, "Franquicia Norte", 11L, "Sucursal Norte", "Calle 45", null, null, null, null, null)
+        ));
+
+        StepVerifier.create(franchisesService.getFranchiseWithDetails(1L))
+                .assertNext(aggregate -> {
+                    assertEquals(1L, aggregate.franchise().getId());
+                    assertEquals(2, aggregate.branches().size());
+                    assertEquals(1, aggregate.branches().get(0).products().size());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given unknown franchise when get details then emits not found")
+    void getFranchiseWithDetails_notFound() {
+        when(franchisesRepository.findWithDetails(99L)).thenReturn(Flux.empty());
+
+        StepVerifier.create(franchisesService.getFranchiseWithDetails(99L))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("entity tags are derived from the franchise revisions")
+    void eTags() {
+        when(franchisesRepository.summarizeRevisions()).thenReturn(Mono.just(new RevisionSummary(3L, 7L, 12L)));
+        when(franchisesRepository.findRevisionById(1L)).thenReturn(Mono.just(4L));
+        when(franchisesRepository.findRevisionById(99L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(franchisesService.getFranchisesETag())
+                .expectNext("franchises-3-7-12")
+                .verifyComplete();
+        StepVerifier.create(franchisesService.getFranchiseETag(1L))
+                .expectNext("franchise-1-4")
+                .verifyComplete();
+        StepVerifier.create(franchisesService.getFranchiseETag(99L))
                 .verifyComplete();
     }
 
@@ -107,18 +306,29 @@ class FranchisesServiceTest {
     void updateFranchise_success() {
         UpdateFranchiseRequest request = new UpdateFranchiseRequest("Nueva");
         Franchise updated = Franchise.builder().id(1L).name("Nueva").build();
-        when(franchisesRepository.findById(1L)).thenReturn(Mono.just(franchise));
-        when(franchisesRepository.save(any(Franchise.class))).thenReturn(Mono.just(updated));
+        when(franchisesRepository.patch(1L, request)).thenReturn(Mono.just(updated));
 
         StepVerifier.create(franchisesService.updateFranchise(1L, request))
                 .expectNext(updated)
                 .verifyComplete();
+        verify(franchiseReadCache).evict(1L);
+    }
+
+    @Test
+    @DisplayName("given an empty payload when update franchise then returns it unchanged without writing")
+    void updateFranchise_noChanges() {
+        when(franchiseReadCache.findById(1L)).thenReturn(Mono.just(franchise));
+
+        StepVerifier.create(franchisesService.updateFranchise(1L, new UpdateFranchiseRequest(null)))
+                .expectNext(franchise)
+                .verifyComplete();
+        verify(franchisesRepository, never()).patch(any(), any());
     }
 
     @Test
     @DisplayName("given unknown franchise when update then returns not found")
     void updateFranchise_notFound() {
-        when(franchisesRepository.findById(99L)).thenReturn(Mono.empty());
+        when(franchisesRepository.patch(eq(99L), any())).thenReturn(Mono.empty());
 
         StepVerifier.create(franchisesService.updateFranchise(99L, new UpdateFranchiseRequest("Nueva")))
                 .expectError(ResponseStatusException.class)
@@ -128,21 +338,74 @@ class FranchisesServiceTest {
     @Test
     @DisplayName("given existing id when delete franchise then completes")
     void deleteFranchise_success() {
-        when(franchisesRepository.existsById(1L)).thenReturn(Mono.just(true));
-        when(franchisesRepository.deleteById(1L)).thenReturn(Mono.empty());
+        when(franchisesRepository.removeById(1L)).thenReturn(Mono.just(1L));
+        when(stockEventBus.publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, 1L)).thenReturn(Mono.empty());
 
         StepVerifier.create(franchisesService.deleteFranchise(1L))
                 .verifyComplete();
+        verify(stockEventBus).publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, 1L);
+        verify(franchiseReadCache).evict(1L);
+        verify(branchReadCache).evictFranchise(1L);
     }
 
     @Test
     @DisplayName("given missing id when delete franchise then emits not found")
     void deleteFranchise_notFound() {
-        when(franchisesRepository.existsById(99L)).thenReturn(Mono.just(false));
+        when(franchisesRepository.removeById(99L)).thenReturn(Mono.empty());
 
         StepVerifier.create(franchisesService.deleteFranchise(99L))
                 .expectError(ResponseStatusException.class)
                 .verify();
+        verify(franchiseReadCache, never()).evict(99L);
+        verify(stockEventBus, never()).publishFranchise(any(), any());
+    }
+
+    @Test
+    @DisplayName("given existing id when purge franchise then deletes children in batches and the franchise last")
+    void purgeFranchise_deletesInBatches() {
+        when(franchisesRepository.existsById(1L)).thenReturn(Mono.just(true));
+        when(franchisesRepository.deleteProductBatch(1L, 2)).thenReturn(Mono.just(2), Mono.just(2), Mono.just(1));
+        when(franchisesRepository.deleteBranchBatch(1L, 2)).thenReturn(Mono.just(2), Mono.just(0));
+        when(franchisesRepository.removeById(1L)).thenReturn(Mono.just(1L));
+        when(stockEventBus.publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, 1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(franchisesService.purgeFranchise(1L))
+                .verifyComplete();
+
+        InOrder order = inOrder(franchisesRepository);
+        order.verify(franchisesRepository, times(3)).deleteProductBatch(1L, 2);
+        order.verify(franchisesRepository, times(2)).deleteBranchBatch(1L, 2);
+        order.verify(franchisesRepository).removeById(1L);
+        verify(stockEventBus).publishFranchise(StockEvent.Type.FRANCHISE_REMOVED, 1L);
+        verify(franchiseReadCache).evict(1L);
+        verify(branchReadCache).evictFranchise(1L);
+    }
+
+    @Test
+    @DisplayName("given a purge already running when purging the same franchise again then emits conflict")
+    void purgeFranchise_alreadyRunning() {
+        when(franchisesRepository.existsById(1L)).thenReturn(Mono.just(true));
+        when(franchisesRepository.deleteProductBatch(1L, 2)).thenReturn(Mono.never());
+
+        StepVerifier.create(franchisesService.purgeFranchise(1L))
+                .then(() -> StepVerifier.create(franchisesService.purgeFranchise(1L))
+                        .expectErrorSatisfies(e -> assertEquals(HttpStatus.CONFLICT,
+                                ((ResponseStatusException) e).getStatusCode()))
+                        .verify())
+                .thenCancel()
+                .verify();
+        verify(franchisesRepository).deleteProductBatch(1L, 2);
+    }
+
+    @Test
+    @DisplayName("given missing id when purge franchise then emits not found and deletes nothing")
+    void purgeFranchise_notFound() {
+        when(franchisesRepository.existsById(99L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(franchisesService.purgeFranchise(99L))
+                .expectError(ResponseStatusException.class)
+                .verify();
+        verify(franchisesRepository, never()).deleteProductBatch(any(), anyInt());
     }
 }
 
@@ -1,22 +1,65 @@
 package com.yennyfer.franchises_api.service;
 
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.yennyfer.franchises_api.cache.BranchReadCache;
+import com.yennyfer.franchises_api.config.BulkProperties;
+import com.yennyfer.franchises_api.config.OptimisticLockProperties;
+import com.yennyfer.franchises_api.config.StockAlertProperties;
+import com.yennyfer.franchises_api.dto.ProductField;
+import com.yennyfer.franchises_api.dto.ProductFilter;
 import com.yennyfer.franchises_api.dto.ProductMaxStockResponse;
+import com.yennyfer.franchises_api.dto.ProductSearchResult;
+import com.yennyfer.franchises_api.dto.StockAlert;
+import com.yennyfer.franchises_api.dto.StockEvent;
+import com.yennyfer.franchises_api.dto.StockUpdateItem;
+import com.yennyfer.franchises_api.dto.StockUpdateResult;
 import com.yennyfer.franchises_api.dto.UpdateProductRequest;
+import com.yennyfer.franchises_api.dto.UpdateProductStockDeltaRequest;
 import com.yennyfer.franchises_api.dto.UpdateProductStockRequest;
+import com.yennyfer.franchises_api.events.StockAlertQueue;
+import com.yennyfer.franchises_api.events.StockEventBus;
+import com.yennyfer.franchises_api.model.Branch;
 import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockChange;
+import com.yennyfer.franchises_api.model.StockMovement;
+import com.yennyfer.franchises_api.repository.BranchMaxStockRepository;
+import com.yennyfer.franchises_api.repository.BranchRepository;
 import com.yennyfer.franchises_api.repository.ProductsRepository;
 
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -27,6 +70,37 @@ class ProductsServiceTest {
     @Mock
     private ProductsRepository productsRepository;
 
+    @Mock
+    private BranchMaxStockRepository branchMaxStockRepository;
+
+    @Mock
+    private BranchRepository branchRepository;
+
+    @Mock
+    private FranchiseRevisions franchiseRevisions;
+
+    @Mock
+    private StockEventBus stockEventBus;
+
+    @Spy
+    private BulkProperties bulkProperties = new BulkProperties(2);
+
+    @Spy
+    private OptimisticLockProperties optimisticLockProperties =
+            new OptimisticLockProperties(2, Duration.ofMillis(1), Duration.ofMillis(2));
+
+    @Mock
+    private BranchReadCache branchReadCache;
+
+    @Mock
+    private StockAlertQueue stockAlertQueue;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Spy
+    private StockAlertProperties stockAlertProperties = new StockAlertProperties(16, 5, Duration.ofSeconds(1), null);
+
     @InjectMocks
     private ProductsService productsService;
 
@@ -40,73 +114,242 @@ class ProductsServiceTest {
     @Test
     @DisplayName("given unique product when create then saves entity")
     void createProduct_success() {
-        when(productsRepository.findByName(product.getName())).thenReturn(Flux.empty());
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
         when(productsRepository.save(product)).thenReturn(Mono.just(product));
+        when(branchMaxStockRepository.refresh(10L, 10)).thenReturn(Mono.just(1));
 
         StepVerifier.create(productsService.createProduct(product))
                 .expectNext(product)
                 .verifyComplete();
+        verify(branchMaxStockRepository).refresh(10L, 10);
+    }
+
+    @Test
+    @DisplayName("given stock below the branch threshold when create then saves the flag and alerts")
+    void createProduct_belowThreshold() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(20)));
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        when(productsRepository.save(product)).thenReturn(Mono.just(product));
+        when(branchMaxStockRepository.refresh(10L, 10)).thenReturn(Mono.just(1));
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(productsService.createProduct(product))
+                .assertNext(saved -> assertTrue(saved.isLowStock()))
+                .verifyComplete();
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue).enqueue(alert.capture());
+        assertEquals(StockAlert.Type.LOW_STOCK, alert.getValue().type());
+        assertEquals(20, alert.getValue().threshold());
+    }
+
+    @Test
+    @DisplayName("given missing branch when create then emits not found without saving")
+    void createProduct_branchNotFound() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(productsService.createProduct(product))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 404)
+                .verify();
+        verify(productsRepository, never()).save(any(Product.class));
     }
 
     @Test
     @DisplayName("given duplicated product name when create then emits error")
     void createProduct_conflict() {
-        when(productsRepository.findByName(product.getName())).thenReturn(Flux.just(product));
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
+        when(productsRepository.save(product)).thenReturn(Mono.error(new DuplicateKeyException(
+                "duplicate key value violates unique constraint \"product_name_idx\"")));
 
         StepVerifier.create(productsService.createProduct(product))
                 .expectError(IllegalArgumentException.class)
                 .verify();
     }
 
+    @Test
+    @DisplayName("given duplicated sku when create then does not report it as a duplicated name")
+    void createProduct_duplicatedSku() {
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
+        when(productsRepository.save(product)).thenReturn(Mono.error(new DuplicateKeyException(
+                "duplicate key value violates unique constraint \"product_sku_idx\"")));
+
+        StepVerifier.create(productsService.createProduct(product))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
     @Test
     @DisplayName("when listing products then returns flux")
     void getAllProducts() {
-        when(productsRepository.findAll()).thenReturn(Flux.just(product));
+        when(productsRepository.findPageAfter(0L, 51)).thenReturn(Flux.just(product));
 
-        StepVerifier.create(productsService.getAllProducts())
-                .expectNext(product)
+        StepVerifier.create(productsService.getAllProducts(null, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(product), page.items());
+                    assertNull(page.nextCursor());
+                })
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("given filters when listing products then queries the filtered page")
+    void getAllProducts_filtered() {
+        ProductFilter filter = new ProductFilter(10L, null, null, 5, null);
+        when(productsRepository.findPageAfter(filter, 0L, 51)).thenReturn(Flux.just(product));
+
+        StepVerifier.create(productsService.getAllProducts(filter, null, null))
+                .assertNext(page -> assertEquals(List.of(product), page.items()))
+                .verifyComplete();
+        verify(productsRepository, never()).findPageAfter(0L, 51);
+    }
+
+    @Test
+    @DisplayName("given fields when listing products then selects them plus the id and pages by it")
+    void getProductFields() {
+        Set<ProductField> fields = EnumSet.of(ProductField.ID, ProductField.STOCK);
+        when(productsRepository.findFieldsPageAfter(ProductFilter.NONE, fields, 0L, 2)).thenReturn(Flux.just(
+                Map.of("id", 4L, "stock", 1), Map.of("id", 9L, "stock", 2)));
+
+        StepVerifier.create(productsService.getProductFields(ProductFilter.NONE, "stock", 1, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(Map.of("id", 4L, "stock", 1)), page.items());
+                    assertEquals(KeysetPages.encodeCursor(4L), page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given an unknown field or an inverted stock range when listing products then rejects it")
+    void getProductFields_invalid() {
+        StepVerifier.create(productsService.getProductFields(ProductFilter.NONE, "name,precio", null, null))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+        StepVerifier.create(productsService.getAllProducts(new ProductFilter(null, null, 10, 5, null), null, null))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("given more matches than the limit when searching then pages by offset")
+    void searchProducts_pages() {
+        ProductSearchResult first = new ProductSearchResult(1L, "Hamburguesa", null, 5, null, 10L, 1.5);
+        ProductSearchResult second = new ProductSearchResult(2L, "Hamburguesa doble", null, 3, null, 10L, 1.3);
+        ProductSearchResult third = new ProductSearchResult(3L, "Pan", "para hamburguesa", 8, null, 10L, 0.1);
+        when(productsRepository.search("hambur", 7L, 3, 0L)).thenReturn(Flux.just(first, second, third));
+        when(productsRepository.search("hambur", 7L, 3, 2L)).thenReturn(Flux.just(third));
+
+        String[] cursor = new String[1];
+        StepVerifier.create(productsService.searchProducts("  hambur ", 7L, 2, null))
+                .assertNext(page -> {
+                    assertEquals(List.of(first, second), page.items());
+                    cursor[0] = page.nextCursor();
+                })
+                .verifyComplete();
+        StepVerifier.create(productsService.searchProducts("hambur", 7L, 2, cursor[0]))
+                .assertNext(page -> {
+                    assertEquals(List.of(third), page.items());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given a query shorter than three characters when searching then rejects it")
+    void searchProducts_tooShort() {
+        StepVerifier.create(productsService.searchProducts(" ab ", null, null, null))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+        verify(productsRepository, never()).search(any(), any(), eq(51), eq(0L));
+    }
+
     @Test
     @DisplayName("when deleting product exists then completes")
     void deleteProduct_success() {
-        when(productsRepository.existsById(1L)).thenReturn(Mono.just(true));
-        when(productsRepository.deleteById(1L)).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        when(productsRepository.removeById(1L)).thenReturn(Mono.just(product));
+        when(branchMaxStockRepository.refresh(10L, null)).thenReturn(Mono.just(1));
 
         StepVerifier.create(productsService.deleteProduct(1L))
                 .verifyComplete();
+        verify(branchMaxStockRepository).refresh(10L, null);
+        verify(franchiseRevisions).bumpForBranches(List.of(10L));
+        verify(stockEventBus).publish(StockEvent.Type.DELETED, product);
     }
 
     @Test
-    @DisplayName("when deleting product missing then not found")
+    @DisplayName("when deleting product missing or deleted concurrently then not found and nothing is refreshed")
     void deleteProduct_notFound() {
-        when(productsRepository.existsById(1L)).thenReturn(Mono.just(false));
+        when(productsRepository.removeById(1L)).thenReturn(Mono.empty());
 
         StepVerifier.create(productsService.deleteProduct(1L))
                 .expectError(ResponseStatusException.class)
                 .verify();
+        verify(branchMaxStockRepository, never()).refresh(any(), any());
+        verify(stockEventBus, never()).publish(any(), any());
     }
 
     @Test
     @DisplayName("given request when update product then persists changes")
     void updateProduct_success() {
-        UpdateProductRequest request = new UpdateProductRequest("Nuevo", 2001, "desc");
-        Product updated = Product.builder().id(1L).name("Nuevo").sku(2001).description("desc").branchId(10L).stock(10).build();
-        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
-        when(productsRepository.save(any(Product.class))).thenReturn(Mono.just(updated));
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        UpdateProductRequest request = new UpdateProductRequest("Nuevo", null, null, null);
+        Product updated = Product.builder().id(1L).name("Nuevo").sku(1001).branchId(10L).stock(10).build();
+        when(productsRepository.patch(1L, request, 5)).thenReturn(Mono.just(new StockChange(updated, 10, false, null, 1L)));
 
         StepVerifier.create(productsService.updateProduct(1L, request))
                 .expectNext(updated)
                 .verifyComplete();
+        verify(stockEventBus).publish(StockEvent.Type.UPDATED, updated);
+        verify(stockAlertQueue, never()).enqueue(any());
+    }
+
+    @Test
+    @DisplayName("given a threshold that flags the product when update product then raises its low-stock alert")
+    void updateProduct_thresholdRaisesAlert() {
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+        UpdateProductRequest request = new UpdateProductRequest(null, null, null, Optional.of(20));
+        Product updated = Product.builder().id(1L).name("Producto").branchId(10L).stock(10).reorderThreshold(20)
+                .lowStock(true).build();
+        when(productsRepository.patch(1L, request, 5)).thenReturn(Mono.just(new StockChange(updated, 10, false, 20, 1L)));
+
+        StepVerifier.create(productsService.updateProduct(1L, request))
+                .expectNext(updated)
+                .verifyComplete();
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue).enqueue(alert.capture());
+        assertEquals(StockAlert.Type.LOW_STOCK, alert.getValue().type());
+        assertEquals(20, alert.getValue().threshold());
+    }
+
+    @Test
+    @DisplayName("given an empty request when update product then returns it unchanged without writing")
+    void updateProduct_noChanges() {
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(productsService.updateProduct(1L, new UpdateProductRequest(null, null, null, null)))
+                .expectNext(product)
+                .verifyComplete();
+        verify(productsRepository, never()).patch(any(), any(), anyInt());
     }
 
     @Test
     @DisplayName("given unknown product when update then emits not found")
     void updateProduct_notFound() {
-        when(productsRepository.findById(1L)).thenReturn(Mono.empty());
+        when(productsRepository.patch(eq(1L), any(), anyInt())).thenReturn(Mono.empty());
 
-        StepVerifier.create(productsService.updateProduct(1L, new UpdateProductRequest("Nuevo", 2001, "desc")))
+        StepVerifier.create(productsService.updateProduct(1L, new UpdateProductRequest("Nuevo", Optional.of(2001), Optional.of("desc"), null)))
                 .expectError(ResponseStatusException.class)
                 .verify();
     }
@@ -114,14 +357,111 @@ class ProductsServiceTest {
     @Test
     @DisplayName("given request when update stock then saves value")
     void updateProductStock_success() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
         UpdateProductStockRequest request = new UpdateProductStockRequest(25);
-        Product updated = Product.builder().id(1L).name("Producto").stock(25).build();
+        Product updated = Product.builder().id(1L).name("Producto").stock(25).branchId(10L).build();
         when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
         when(productsRepository.save(any(Product.class))).thenReturn(Mono.just(updated));
+        when(branchMaxStockRepository.refresh(10L, 25)).thenReturn(Mono.just(1));
 
         StepVerifier.create(productsService.updateProductStock(1L, request))
                 .expectNext(updated)
                 .verifyComplete();
+        verify(branchMaxStockRepository).refresh(10L, 25);
+        verify(stockLedgerService).record(updated, StockMovement.Kind.SET, 15);
+    }
+
+    @Test
+    @DisplayName("given a concurrent write when update stock then re-reads and retries the save")
+    void updateProductStock_retriesOnConflict() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        Product updated = Product.builder().id(1L).name("Producto").stock(25).branchId(10L).version(2L).build();
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
+        when(productsRepository.save(any(Product.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("versión desactualizada")))
+                .thenReturn(Mono.just(updated));
+        when(branchMaxStockRepository.refresh(10L, 25)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(25)))
+                .expectNext(updated)
+                .verifyComplete();
+        verify(productsRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("given conflicts on every attempt when update stock then emits conflict")
+    void updateProductStock_conflict() {
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(null)));
+        when(productsRepository.save(any(Product.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("versión desactualizada")));
+
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(25)))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException status
+                        && status.getStatusCode() == HttpStatus.CONFLICT)
+                .verify();
+        verify(productsRepository, times(3)).save(any(Product.class));
+        verify(branchMaxStockRepository, never()).refresh(any(), any());
+    }
+
+    @Test
+    @DisplayName("given stock dropping below the branch threshold when update stock then saves the flag and alerts once")
+    void updateProductStock_raisesLowStockAlert() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(5)));
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productsRepository.save(any(Product.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(branchMaxStockRepository.refresh(eq(10L), any())).thenReturn(Mono.just(1));
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(3)))
+                .assertNext(saved -> assertTrue(saved.isLowStock()))
+                .verifyComplete();
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(2)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue).enqueue(alert.capture());
+        assertEquals(StockAlert.Type.LOW_STOCK, alert.getValue().type());
+        assertEquals(100L, alert.getValue().franchiseId());
+        assertEquals(5, alert.getValue().threshold());
+    }
+
+    @Test
+    @DisplayName("given a product in low stock when it recovers within the margin then stays flagged until past it")
+    void updateProductStock_recoversPastMargin() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        product.setStock(2);
+        product.setLowStock(true);
+        product.setReorderThreshold(5);
+        when(branchReadCache.findById(10L)).thenReturn(Mono.just(branch(50)));
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(product));
+        when(productsRepository.save(any(Product.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(branchMaxStockRepository.refresh(eq(10L), any())).thenReturn(Mono.just(1));
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(9)))
+                .assertNext(saved -> assertTrue(saved.isLowStock()))
+                .verifyComplete();
+        verify(stockAlertQueue, never()).enqueue(any());
+
+        StepVerifier.create(productsService.updateProductStock(1L, new UpdateProductStockRequest(10)))
+                .assertNext(saved -> assertFalse(saved.isLowStock()))
+                .verifyComplete();
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue).enqueue(alert.capture());
+        assertEquals(StockAlert.Type.RECOVERED, alert.getValue().type());
     }
 
     @Test
@@ -134,6 +474,158 @@ class ProductsServiceTest {
                 .verify();
     }
 
+    @Test
+    @DisplayName("given delta when adjusting stock then applies it in a single update")
+    void adjustProductStock_success() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        Product updated = Product.builder().id(1L).name("Producto").stock(7).branchId(10L).build();
+        when(productsRepository.addStock(1L, -3, 5)).thenReturn(Mono.just(change(updated, 10)));
+        when(branchMaxStockRepository.refresh(10L, 7)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(productsService.adjustProductStock(1L, new UpdateProductStockDeltaRequest(-3, null)))
+                .expectNext(updated)
+                .verifyComplete();
+        verify(branchMaxStockRepository).refresh(10L, 7);
+        verify(stockAlertQueue, never()).enqueue(any());
+    }
+
+    @Test
+    @DisplayName("given delta that takes the stock below its threshold when adjusting stock then alerts")
+    void adjustProductStock_raisesLowStockAlert() {
+        when(stockLedgerService.record(any(), any(), anyInt())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        Product updated = Product.builder().id(1L).name("Producto").stock(4).branchId(10L).lowStock(true).build();
+        when(productsRepository.addStock(1L, -6, 5))
+                .thenReturn(Mono.just(new StockChange(updated, 10, false, 5, 100L)));
+        when(branchMaxStockRepository.refresh(10L, 4)).thenReturn(Mono.just(1));
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(productsService.adjustProductStock(1L, new UpdateProductStockDeltaRequest(-6, null)))
+                .expectNext(updated)
+                .verifyComplete();
+        ArgumentCaptor<StockAlert> alert = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue).enqueue(alert.capture());
+        assertEquals(StockAlert.Type.LOW_STOCK, alert.getValue().type());
+        assertEquals(100L, alert.getValue().franchiseId());
+        assertEquals(4, alert.getValue().stock());
+    }
+
+    @Test
+    @DisplayName("given guard and not enough stock when adjusting stock then emits conflict")
+    void adjustProductStock_insufficient() {
+        when(productsRepository.addStockIfAvailable(1L, -30, 5)).thenReturn(Mono.empty());
+        when(productsRepository.existsById(1L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(productsService.adjustProductStock(1L, new UpdateProductStockDeltaRequest(-30, true)))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 409)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("given missing product when adjusting stock then emits not found")
+    void adjustProductStock_notFound() {
+        when(productsRepository.addStockIfAvailable(99L, 5, 5)).thenReturn(Mono.empty());
+        when(productsRepository.existsById(99L)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(productsService.adjustProductStock(99L, new UpdateProductStockDeltaRequest(5, true)))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 404)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("given a delta past the integer range when adjusting stock then emits bad request")
+    void adjustProductStock_overflow() {
+        when(productsRepository.addStock(1L, Integer.MAX_VALUE, 5))
+                .thenReturn(Mono.error(new R2dbcDataIntegrityViolationException("integer out of range", "22003")));
+
+        StepVerifier.create(productsService.adjustProductStock(1L, new UpdateProductStockDeltaRequest(Integer.MAX_VALUE, false)))
+                .expectErrorMatches(error -> error instanceof ResponseStatusException ex
+                        && ex.getStatusCode().value() == 400)
+                .verify();
+        verify(stockLedgerService, never()).record(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("given mixed items when bulk updating stock then reports each item in order and batches by size")
+    void updateProductStocks() {
+        when(stockLedgerService.recordAll(any())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        StockUpdateItem setStock = new StockUpdateItem(1L, 40, null);
+        StockUpdateItem missing = new StockUpdateItem(99L, null, 5);
+        StockUpdateItem invalid = new StockUpdateItem(2L, 10, 5);
+        StockUpdateItem negative = new StockUpdateItem(4L, -1, null);
+        StockUpdateItem decrement = new StockUpdateItem(3L, null, -2);
+        StockUpdateItem overdraw = new StockUpdateItem(5L, null, -9);
+        Product first = Product.builder().id(1L).stock(40).branchId(10L).build();
+        Product third = Product.builder().id(3L).stock(8).branchId(10L).build();
+        Product fifth = Product.builder().id(5L).stock(3).branchId(10L).build();
+        when(productsRepository.applyStockUpdates(List.of(setStock, missing), 5))
+                .thenReturn(Flux.just(Optional.of(change(first, 12)), Optional.empty()));
+        when(productsRepository.applyStockUpdates(List.of(decrement, overdraw), 5))
+                .thenReturn(Flux.just(Optional.of(change(third, 10)), Optional.empty()));
+        when(productsRepository.findAllById(Set.of(99L))).thenReturn(Flux.empty());
+        when(productsRepository.findAllById(Set.of(5L))).thenReturn(Flux.just(fifth));
+        when(branchMaxStockRepository.recompute(Set.of(10L))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(productsService.updateProductStocks(
+                        Flux.just(setStock, missing, invalid, negative, decrement, overdraw)))
+                .expectNext(new StockUpdateResult(1L, StockUpdateResult.Status.UPDATED, 40))
+                .expectNext(new StockUpdateResult(99L, StockUpdateResult.Status.NOT_FOUND, null))
+                .expectNext(new StockUpdateResult(2L, StockUpdateResult.Status.INVALID, null))
+                .expectNext(new StockUpdateResult(4L, StockUpdateResult.Status.INVALID, null))
+                .expectNext(new StockUpdateResult(3L, StockUpdateResult.Status.UPDATED, 8))
+                .expectNext(new StockUpdateResult(5L, StockUpdateResult.Status.INSUFFICIENT_STOCK, 3))
+                .verifyComplete();
+        InOrder order = inOrder(productsRepository, branchMaxStockRepository, franchiseRevisions);
+        order.verify(productsRepository).applyStockUpdates(List.of(decrement, overdraw), 5);
+        order.verify(branchMaxStockRepository).recompute(Set.of(10L));
+        order.verify(franchiseRevisions).bumpForBranches(Set.of(10L));
+        verify(branchMaxStockRepository, never()).refresh(any(), any());
+        verify(stockAlertQueue, never()).enqueue(any());
+        ArgumentCaptor<List<StockMovement>> movements = ArgumentCaptor.captor();
+        verify(stockLedgerService, times(2)).recordAll(movements.capture());
+        StockMovement set = movements.getAllValues().get(0).get(0);
+        StockMovement decremented = movements.getAllValues().get(1).get(0);
+        assertEquals(List.of(1, 1), movements.getAllValues().stream().map(List::size).toList());
+        assertEquals(StockMovement.Kind.SET, set.getKind());
+        assertEquals(28, set.getDelta());
+        assertEquals(StockMovement.Kind.ADJUSTED, decremented.getKind());
+        assertEquals(-2, decremented.getDelta());
+    }
+
+    @Test
+    @DisplayName("given a batch that repeats a product when bulk updating stock then alerts on every crossing")
+    void updateProductStocks_alertsOnEveryCrossing() {
+        when(stockLedgerService.recordAll(any())).thenReturn(Mono.empty());
+        when(stockEventBus.publish(any(), any())).thenReturn(Mono.empty());
+        when(franchiseRevisions.bumpForBranches(any())).thenReturn(Mono.empty());
+        when(stockAlertQueue.enqueue(any())).thenReturn(Mono.empty());
+        StockUpdateItem drop = new StockUpdateItem(1L, 2, null);
+        StockUpdateItem refill = new StockUpdateItem(1L, null, 30);
+        Product low = Product.builder().id(1L).stock(2).branchId(10L).lowStock(true).build();
+        Product refilled = Product.builder().id(1L).stock(32).branchId(10L).build();
+        when(productsRepository.applyStockUpdates(List.of(drop, refill), 5)).thenReturn(Flux.just(
+                Optional.of(new StockChange(low, 10, false, 5, 100L)),
+                Optional.of(new StockChange(refilled, 2, true, 5, 100L))));
+        when(branchMaxStockRepository.recompute(Set.of(10L))).thenReturn(Mono.just(1));
+
+        StepVerifier.create(productsService.updateProductStocks(Flux.just(drop, refill)))
+                .expectNext(new StockUpdateResult(1L, StockUpdateResult.Status.UPDATED, 32))
+                .expectNext(new StockUpdateResult(1L, StockUpdateResult.Status.UPDATED, 32))
+                .verifyComplete();
+        ArgumentCaptor<StockAlert> alerts = ArgumentCaptor.forClass(StockAlert.class);
+        verify(stockAlertQueue, times(2)).enqueue(alerts.capture());
+        assertEquals(List.of(StockAlert.Type.LOW_STOCK, StockAlert.Type.RECOVERED),
+                alerts.getAllValues().stream().map(StockAlert::type).toList());
+        verify(productsRepository, never()).findAllById(any(Iterable.class));
+    }
+
     @Test
     @DisplayName("when querying max stock then delegates to repository")
     void getProductsWithMaxStockPerFranchise() {
@@ -144,5 +636,12 @@ class ProductsServiceTest {
                 .expectNext(response)
                 .verifyComplete();
     }
-}
 
+    private static StockChange change(Product product, int previousStock) {
+        return new StockChange(product, previousStock, false, null, 100L);
+    }
+
+    private static Branch branch(Integer reorderThreshold) {
+        return Branch.builder().id(10L).name("Sucursal").franchiseId(100L).reorderThreshold(reorderThreshold).build();
+    }
+}
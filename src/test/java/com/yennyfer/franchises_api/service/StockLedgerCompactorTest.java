@@ -0,0 +1,52 @@
+package com.yennyfer.franchises_api.service;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.yennyfer.franchises_api.config.StockLedgerProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerCompactorTest {
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    private StockLedgerCompactor compactor;
+
+    @BeforeEach
+    void init() {
+        compactor = new StockLedgerCompactor(stockLedgerService,
+                new StockLedgerProperties(Duration.ofMinutes(5), Duration.ofMinutes(1), true, 2));
+    }
+
+    @Test
+    @DisplayName("given partitions that cannot be created when running then still compacts")
+    void partitionFailureStillCompacts() {
+        when(stockLedgerService.createPartitions()).thenReturn(Mono.error(new IllegalStateException("particion")));
+        when(stockLedgerService.compact()).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(compactor.run()).verifyComplete();
+        verify(stockLedgerService).compact();
+    }
+
+    @Test
+    @DisplayName("given a failing compaction when running then the run completes and the next tick retries")
+    void compactionFailureIsLogged() {
+        when(stockLedgerService.createPartitions()).thenReturn(Mono.just(1));
+        when(stockLedgerService.compact()).thenReturn(Mono.error(new IllegalStateException("compactacion")));
+
+        StepVerifier.create(compactor.run()).verifyComplete();
+        verify(stockLedgerService).createPartitions();
+    }
+}
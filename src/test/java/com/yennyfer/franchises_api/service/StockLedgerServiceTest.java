@@ -0,0 +1,99 @@
+package com.yennyfer.franchises_api.service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.yennyfer.franchises_api.config.StockLedgerProperties;
+import com.yennyfer.franchises_api.model.Product;
+import com.yennyfer.franchises_api.model.StockMovement;
+import com.yennyfer.franchises_api.repository.ProductsRepository;
+import com.yennyfer.franchises_api.repository.StockMovementRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerServiceTest {
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private ProductsRepository productsRepository;
+
+    @Spy
+    private StockLedgerProperties properties = new StockLedgerProperties(Duration.ofMinutes(5), Duration.ofMinutes(1),
+            false, 2);
+
+    @InjectMocks
+    private StockLedgerService stockLedgerService;
+
+    @Test
+    @DisplayName("given a movement when recording then appends the resulting stock and the change")
+    void record() {
+        Product product = Product.builder().id(1L).branchId(10L).stock(7).build();
+        when(stockMovementRepository.append(1L, 10L, "ADJUSTED", -3, 7)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(stockLedgerService.record(product, StockMovement.Kind.ADJUSTED, -3))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("given an empty or inverted range when listing movements then rejects it")
+    void invalidRange() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        StepVerifier.create(stockLedgerService.getProductMovements(1L, now, now.minusDays(1)))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+        StepVerifier.create(stockLedgerService.getBranchMovements(10L, now.plusDays(1), null))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+        verify(stockMovementRepository, never()).findByProductIdBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("given a ledger that disagrees with the product when reconciling then reports it")
+    void reconcile() {
+        when(productsRepository.findById(1L)).thenReturn(Mono.just(Product.builder().id(1L).stock(12).build()));
+        when(stockMovementRepository.rebuildStock(1L)).thenReturn(Mono.just(10));
+
+        StepVerifier.create(stockLedgerService.reconcile(1L))
+                .assertNext(result -> {
+                    assertEquals(10, result.ledgerStock());
+                    assertFalse(result.consistent());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("when compacting then folds movements up to the cutoff the database allows for the configured lag")
+    void compact() {
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(3);
+        when(stockMovementRepository.findCompactionCutoff(Duration.ofMinutes(1))).thenReturn(Mono.just(cutoff));
+        when(stockMovementRepository.compact(cutoff)).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(stockLedgerService.compact())
+                .expectNext(3L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,80 @@
+CREATE TABLE IF NOT EXISTS franchise (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    revision BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS branch (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    address VARCHAR(255),
+    franchise_id BIGINT NOT NULL REFERENCES franchise(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
+    reorder_threshold INTEGER CHECK (reorder_threshold >= 0)
+);
+
+CREATE TABLE IF NOT EXISTS product (
+    id SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    stock INTEGER NOT NULL,
+    sku INTEGER,
+    branch_id BIGINT NOT NULL REFERENCES branch(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0,
+    reorder_threshold INTEGER CHECK (reorder_threshold >= 0),
+    low_stock BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS product_sku_idx
+    ON product (sku);
+
+CREATE UNIQUE INDEX IF NOT EXISTS franchise_name_idx
+    ON franchise (name);
+
+CREATE UNIQUE INDEX IF NOT EXISTS branch_name_idx
+    ON branch (name);
+
+CREATE UNIQUE INDEX IF NOT EXISTS product_name_idx
+    ON product (name);
+
+CREATE INDEX IF NOT EXISTS branch_franchise_id_idx
+    ON branch (franchise_id);
+
+CREATE INDEX IF NOT EXISTS product_branch_id_stock_idx
+    ON product (branch_id, stock DESC);
+
+CREATE TABLE IF NOT EXISTS branch_max_stock (
+    branch_id BIGINT PRIMARY KEY REFERENCES branch(id) ON DELETE CASCADE,
+    max_stock INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS stock_movement (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    branch_id BIGINT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    delta INTEGER NOT NULL,
+    stock INTEGER NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS stock_movement_product_idx
+    ON stock_movement (product_id, created_at);
+
+CREATE INDEX IF NOT EXISTS stock_movement_branch_idx
+    ON stock_movement (branch_id, created_at);
+
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    product_id BIGINT PRIMARY KEY,
+    stock INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS stock_compaction (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    compacted_until TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO stock_compaction (id, compacted_until)
+SELECT 1, TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00'
+WHERE NOT EXISTS (SELECT 1 FROM stock_compaction);